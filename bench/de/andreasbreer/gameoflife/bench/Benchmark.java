@@ -0,0 +1,74 @@
+package de.andreasbreer.gameoflife.bench;
+
+/**
+ * A benchmark of one operation. Before every iteration the benchmark is set
+ * up again with the size of the world and the density of the living cells,
+ * so every iteration measures the same state. A benchmark whose operations
+ * wear out the state restores it with {@link #reset()}, which is not
+ * measured. The result of an operation
+ * is given to the {@link BenchmarkRunner}, so the virtual machine cannot
+ * remove the operation as dead code.
+ * @author Andreas Breer
+ */
+abstract class Benchmark {
+
+    /**
+     * The seed of the random worlds, so every run measures the same cells.
+     */
+    static final long SEED = 42;
+
+    /**
+     * The name of the benchmark.
+     */
+    private final String name;
+
+    /**
+     * The constructor of this class using the field name.
+     * @param name
+     *            the name of the benchmark
+     */
+    Benchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the benchmark.
+     * @return the name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Prepare the state of an iteration.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    abstract void setUp(int size, int density);
+
+    /**
+     * Execute the measured operation once.
+     * @return the result of the operation
+     */
+    abstract Object operation();
+
+    /**
+     * Get the number of operations after which the state of the iteration
+     * is restored with {@link #reset()}.
+     * @return the number of operations, 0 if the state is never restored
+     */
+    int getOperationsPerReset() {
+        return 0;
+    }
+
+    /**
+     * Restore the state of the iteration after
+     * {@link #getOperationsPerReset()} operations. The runner stops the time
+     * meanwhile.
+     */
+    void reset() {
+        // The state is not worn out by the operations.
+    }
+}
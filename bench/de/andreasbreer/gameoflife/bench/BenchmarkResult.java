@@ -0,0 +1,124 @@
+package de.andreasbreer.gameoflife.bench;
+
+/**
+ * The measured times of a benchmark with one size and density.
+ * @author Andreas Breer
+ */
+final class BenchmarkResult {
+
+    /**
+     * The quantile of the normal distribution for a confidence of 99.9%.
+     */
+    private static final double CONFIDENCE_QUANTILE = 3.291;
+
+    /**
+     * The name of the benchmark.
+     */
+    private final String name;
+
+    /**
+     * The width and the height of the world.
+     */
+    private final int size;
+
+    /**
+     * The probability of a living cell in percent.
+     */
+    private final int density;
+
+    /**
+     * The nanoseconds per operation of every measured iteration.
+     */
+    private final double[] scores;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param name
+     *            the name of the benchmark
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     * @param scores
+     *            the nanoseconds per operation of every iteration
+     */
+    BenchmarkResult(String name, int size, int density, double[] scores) {
+        this.name = name;
+        this.size = size;
+        this.density = density;
+        this.scores = scores.clone();
+    }
+
+    /**
+     * Get the name of the benchmark.
+     * @return the name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Get the width and the height of the world.
+     * @return the size
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the probability of a living cell in percent.
+     * @return the density
+     */
+    int getDensity() {
+        return density;
+    }
+
+    /**
+     * Get the nanoseconds per operation of every measured iteration.
+     * @return the scores
+     */
+    double[] getScores() {
+        return scores.clone();
+    }
+
+    /**
+     * Get the mean nanoseconds per operation.
+     * @return the mean score
+     */
+    double getScore() {
+        double sum = 0;
+        for (double score : scores) {
+            sum += score;
+        }
+        return sum / scores.length;
+    }
+
+    /**
+     * Get the half width of the confidence interval of the mean score. The
+     * scores are assumed to be distributed normally.
+     * @return the error of the score, or 0 if there is only one iteration
+     */
+    double getScoreError() {
+        if (scores.length < 2) {
+            return 0;
+        }
+        double mean = getScore();
+        double sum = 0;
+        for (double score : scores) {
+            sum += (score - mean) * (score - mean);
+        }
+        double deviation = Math.sqrt(sum / (scores.length - 1));
+        return CONFIDENCE_QUANTILE * deviation / Math.sqrt(scores.length);
+    }
+
+    /**
+     * Get a readable representation of the result.
+     * @return the name, the parameters and the score
+     */
+    @Override
+    public String toString() {
+        return String.format("%-16s size %5d, density %3d%%: %,14.1f"
+                + " ± %,.1f ns/op", name, size, density, getScore(),
+                getScoreError());
+    }
+}
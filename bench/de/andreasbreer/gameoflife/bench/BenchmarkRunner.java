@@ -0,0 +1,499 @@
+package de.andreasbreer.gameoflife.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class runs the benchmarks for every size of the world and density of
+ * the living cells and writes the results as JSON, in the format of the Java
+ * Microbenchmark Harness, so its tools can show them. Every benchmark runs
+ * some warm up iterations, so the code is compiled, before the iterations
+ * which are measured. An iteration repeats the operation for a fixed time.
+ * <p>
+ * By default every benchmark runs in its own virtual machine, so the
+ * compiled code of one benchmark does not slow down the next one. The
+ * arguments are described by {@link #USAGE}.
+ * @author Andreas Breer
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The description of the arguments.
+     */
+    public static final String USAGE =
+            "Usage: [--benchmarks name,...] [--sizes n,...]"
+                    + " [--densities percent,...] [--warmup n]"
+                    + " [--iterations n] [--time ms] [--forks 0|1]"
+                    + " [--output file.json]";
+
+    /**
+     * The prefix of the line of the scores of a forked benchmark.
+     */
+    private static final String SCORES = "scores:";
+
+    /**
+     * The number of nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * The part of an iteration after which the time is checked. The
+     * operation is repeated in batches, so the time is not taken after
+     * every operation.
+     */
+    private static final int CHECKS_PER_ITERATION = 100;
+
+    /**
+     * The exit code of invalid arguments.
+     */
+    private static final int EXIT_USAGE = 2;
+
+    /**
+     * The last result of an operation. It is volatile, so the operation
+     * cannot be removed as dead code.
+     */
+    private static volatile Object sink;
+
+    /**
+     * The names of the benchmarks to run.
+     */
+    private List<String> names = new ArrayList<String>();
+
+    /**
+     * The sizes of the world.
+     */
+    private int[] sizes = {64, 256, 1024};
+
+    /**
+     * The probabilities of a living cell in percent.
+     */
+    private int[] densities = {10, 30, 50};
+
+    /**
+     * The number of warm up iterations.
+     */
+    private int warmup = 3;
+
+    /**
+     * The number of measured iterations.
+     */
+    private int iterations = 5;
+
+    /**
+     * The milliseconds of an iteration.
+     */
+    private long time = 1000;
+
+    /**
+     * The number of virtual machines per benchmark, 0 to run in this one.
+     */
+    private int forks = 1;
+
+    /**
+     * The file of the results.
+     */
+    private String output = "report/bench/results.json";
+
+    /**
+     * Whether only the scores are printed, in a forked virtual machine.
+     */
+    private boolean child;
+
+    /**
+     * The private constructor. The runner is created from the arguments.
+     */
+    private BenchmarkRunner() {
+        super();
+        for (Benchmark benchmark : createBenchmarks()) {
+            names.add(benchmark.getName());
+        }
+    }
+
+    /**
+     * The main method of the benchmarks.
+     * @param args
+     *            the arguments, see {@link #USAGE}
+     * @throws IOException
+     *             if a forked benchmark fails or the results cannot be
+     *             written
+     */
+    public static void main(String[] args) throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        try {
+            runner.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+        }
+        runner.run();
+    }
+
+    /**
+     * Create one instance of every benchmark.
+     * @return the benchmarks
+     */
+    private static List<Benchmark> createBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        benchmarks.add(new NextGenerationBenchmark());
+        benchmarks.add(new RandomBenchmark());
+        benchmarks.add(new CopyBenchmark());
+        benchmarks.add(new HashCodeBenchmark());
+        benchmarks.add(new EqualsBenchmark());
+        benchmarks.add(new PaintBenchmark());
+        return benchmarks;
+    }
+
+    /**
+     * Find a benchmark by its name.
+     * @param name
+     *            the name of the benchmark
+     * @return a new instance of the benchmark
+     * @throws IllegalArgumentException
+     *             if there is no benchmark of this name
+     */
+    private static Benchmark createBenchmark(String name) {
+        for (Benchmark benchmark : createBenchmarks()) {
+            if (benchmark.getName().equals(name)) {
+                return benchmark;
+            }
+        }
+        throw new IllegalArgumentException("Unknown benchmark: " + name);
+    }
+
+    /**
+     * Read the arguments.
+     * @param args
+     *            the arguments of the command line
+     * @throws IllegalArgumentException
+     *             if an argument is unknown or invalid
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--child".equals(arg)) {
+                child = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of " + arg);
+            }
+            String value = args[++i];
+            if ("--benchmarks".equals(arg)) {
+                names = new ArrayList<String>();
+                for (String name : value.split(",")) {
+                    names.add(createBenchmark(name.trim()).getName());
+                }
+            } else if ("--sizes".equals(arg)) {
+                sizes = parseList(value);
+            } else if ("--densities".equals(arg)) {
+                densities = parseList(value);
+            } else if ("--warmup".equals(arg)) {
+                warmup = Integer.parseInt(value);
+            } else if ("--iterations".equals(arg)) {
+                iterations = Integer.parseInt(value);
+            } else if ("--time".equals(arg)) {
+                time = Long.parseLong(value);
+            } else if ("--forks".equals(arg)) {
+                forks = Integer.parseInt(value);
+            } else if ("--output".equals(arg)) {
+                output = value;
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (warmup < 0 || iterations < 1 || time < 1 || forks < 0
+                || forks > 1) {
+            throw new IllegalArgumentException("Invalid iterations: "
+                    + warmup + " warm up, " + iterations + " measured, "
+                    + time + " ms, " + forks + " forks");
+        }
+    }
+
+    /**
+     * Read a list of numbers separated by commas.
+     * @param value
+     *            the list
+     * @return the numbers
+     */
+    private static int[] parseList(String value) {
+        String[] parts = value.split(",");
+        int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            numbers[i] = Integer.parseInt(parts[i].trim());
+        }
+        return numbers;
+    }
+
+    /**
+     * Run all benchmarks with all sizes and densities.
+     * @throws IOException
+     *             if a forked benchmark fails or the results cannot be
+     *             written
+     */
+    private void run() throws IOException {
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        for (String name : names) {
+            for (int size : sizes) {
+                for (int density : densities) {
+                    double[] scores;
+                    if (forks == 0) {
+                        scores = measure(createBenchmark(name), size, density);
+                    } else {
+                        scores = fork(name, size, density);
+                    }
+                    BenchmarkResult result =
+                            new BenchmarkResult(name, size, density, scores);
+                    if (child) {
+                        System.out.println(SCORES + join(scores));
+                    } else {
+                        System.out.println(result);
+                        results.add(result);
+                    }
+                }
+            }
+        }
+        if (!child) {
+            write(results);
+        }
+    }
+
+    /**
+     * Run the warm up and the measured iterations of a benchmark.
+     * @param benchmark
+     *            the benchmark
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     * @return the nanoseconds per operation of every measured iteration
+     */
+    private double[] measure(Benchmark benchmark, int size, int density) {
+        for (int i = 0; i < warmup; i++) {
+            iterate(benchmark, size, density);
+        }
+        double[] scores = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            scores[i] = iterate(benchmark, size, density);
+        }
+        return scores;
+    }
+
+    /**
+     * Repeat the operation of a benchmark for the time of an iteration. Only
+     * the batches of operations are measured, the resets of the benchmark
+     * between them are not.
+     * @param benchmark
+     *            the benchmark
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     * @return the nanoseconds per operation
+     */
+    private double iterate(Benchmark benchmark, int size, int density) {
+        benchmark.setUp(size, density);
+        long duration = time * NANOS_PER_MILLI;
+        int operationsPerReset = benchmark.getOperationsPerReset();
+        long operations = 0;
+        long sinceReset = 0;
+        long batch = 1;
+        long elapsed = 0;
+        while (elapsed < duration) {
+            long count = batch;
+            if (operationsPerReset > 0) {
+                if (sinceReset == operationsPerReset) {
+                    benchmark.reset();
+                    sinceReset = 0;
+                }
+                count = Math.min(batch, operationsPerReset - sinceReset);
+            }
+            long batchStart = System.nanoTime();
+            for (long i = 0; i < count; i++) {
+                sink = benchmark.operation();
+            }
+            long batchTime = System.nanoTime() - batchStart;
+            operations += count;
+            sinceReset += count;
+            elapsed += batchTime;
+            if (batchTime < duration / CHECKS_PER_ITERATION) {
+                batch *= 2;
+            }
+        }
+        return (double) elapsed / operations;
+    }
+
+    /**
+     * Run a benchmark in a new virtual machine with the same arguments and
+     * class path as this one.
+     * @param name
+     *            the name of the benchmark
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     * @return the nanoseconds per operation of every measured iteration
+     * @throws IOException
+     *             if the virtual machine cannot be started or fails
+     */
+    private double[] fork(String name, int size, int density)
+            throws IOException {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean()
+                .getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BenchmarkRunner.class.getName());
+        command.add("--child");
+        command.add("--forks");
+        command.add("0");
+        command.add("--benchmarks");
+        command.add(name);
+        command.add("--sizes");
+        command.add(Integer.toString(size));
+        command.add("--densities");
+        command.add(Integer.toString(density));
+        command.add("--warmup");
+        command.add(Integer.toString(warmup));
+        command.add("--iterations");
+        command.add(Integer.toString(iterations));
+        command.add("--time");
+        command.add(Long.toString(time));
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        String scores = null;
+        BufferedReader reader =
+                new BufferedReader(new InputStreamReader(process
+                        .getInputStream(), "US-ASCII"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(SCORES)) {
+                    scores = line.substring(SCORES.length());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        try {
+            if (process.waitFor() != 0 || scores == null) {
+                throw new IOException("The benchmark " + name + " failed.");
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running " + name, e);
+        }
+
+        String[] parts = scores.split(",");
+        double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Double.parseDouble(parts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Write the results as JSON, in the format of the Java Microbenchmark
+     * Harness.
+     * @param results
+     *            the results
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private void write(List<BenchmarkResult> results) throws IOException {
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        PrintWriter writer =
+                new PrintWriter(new OutputStreamWriter(new FileOutputStream(
+                        file), "UTF-8"));
+        try {
+            writer.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                BenchmarkResult result = results.get(i);
+                writer.println("    {");
+                writer.println("        \"benchmark\" : \""
+                        + BenchmarkRunner.class.getPackage().getName() + "."
+                        + result.getName() + "\",");
+                writer.println("        \"mode\" : \"avgt\",");
+                writer.println("        \"threads\" : 1,");
+                writer.println("        \"forks\" : " + forks + ",");
+                writer.println("        \"warmupIterations\" : " + warmup
+                        + ",");
+                writer.println("        \"warmupTime\" : \"" + time
+                        + " ms\",");
+                writer.println("        \"measurementIterations\" : "
+                        + iterations + ",");
+                writer.println("        \"measurementTime\" : \"" + time
+                        + " ms\",");
+                writer.println("        \"params\" : {");
+                writer.println("            \"size\" : \"" + result.getSize()
+                        + "\",");
+                writer.println("            \"density\" : \""
+                        + result.getDensity() + "\"");
+                writer.println("        },");
+                writer.println("        \"primaryMetric\" : {");
+                writer.println("            \"score\" : "
+                        + format(result.getScore()) + ",");
+                writer.println("            \"scoreError\" : "
+                        + format(result.getScoreError()) + ",");
+                writer.println("            \"scoreUnit\" : \"ns/op\",");
+                writer.println("            \"rawData\" : [");
+                writer.println("                [" + join(result.getScores())
+                        + "]");
+                writer.println("            ]");
+                writer.println("        }");
+                writer.println(i < results.size() - 1 ? "    }," : "    }");
+            }
+            writer.println("]");
+        } finally {
+            writer.close();
+        }
+        if (writer.checkError()) {
+            throw new IOException("Cannot write " + file);
+        }
+        System.out.println("Results written to " + file);
+    }
+
+    /**
+     * Join numbers with commas.
+     * @param values
+     *            the numbers
+     * @return the numbers separated by commas
+     */
+    private static String join(double[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(format(values[i]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Format a number for JSON, independent of the locale.
+     * @param value
+     *            the number
+     * @return the formatted number
+     */
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
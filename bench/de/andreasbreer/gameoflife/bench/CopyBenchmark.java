@@ -0,0 +1,44 @@
+package de.andreasbreer.gameoflife.bench;
+
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This benchmark copies a random world with the copy constructor.
+ * @author Andreas Breer
+ */
+class CopyBenchmark extends Benchmark {
+
+    /**
+     * The world to copy.
+     */
+    private World world;
+
+    /**
+     * The default constructor.
+     */
+    CopyBenchmark() {
+        super("copy");
+    }
+
+    /**
+     * Create a random world.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    @Override
+    void setUp(int size, int density) {
+        world = new World(size, size);
+        world.random(density, SEED);
+    }
+
+    /**
+     * Copy the world.
+     * @return the copy
+     */
+    @Override
+    Object operation() {
+        return new World(world);
+    }
+}
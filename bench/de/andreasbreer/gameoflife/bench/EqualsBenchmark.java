@@ -0,0 +1,51 @@
+package de.andreasbreer.gameoflife.bench;
+
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This benchmark compares a random world with an equal copy, which is the
+ * slowest case, because every cell is compared.
+ * @author Andreas Breer
+ */
+class EqualsBenchmark extends Benchmark {
+
+    /**
+     * The world to compare.
+     */
+    private World world;
+
+    /**
+     * The copy of the world.
+     */
+    private World copy;
+
+    /**
+     * The default constructor.
+     */
+    EqualsBenchmark() {
+        super("equals");
+    }
+
+    /**
+     * Create a random world and its copy.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    @Override
+    void setUp(int size, int density) {
+        world = new World(size, size);
+        world.random(density, SEED);
+        copy = new World(world);
+    }
+
+    /**
+     * Compare the world with its copy.
+     * @return the result of the comparison
+     */
+    @Override
+    Object operation() {
+        return Boolean.valueOf(world.equals(copy));
+    }
+}
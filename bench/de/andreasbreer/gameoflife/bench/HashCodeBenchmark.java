@@ -0,0 +1,44 @@
+package de.andreasbreer.gameoflife.bench;
+
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This benchmark calculates the hash code of a random world.
+ * @author Andreas Breer
+ */
+class HashCodeBenchmark extends Benchmark {
+
+    /**
+     * The world to hash.
+     */
+    private World world;
+
+    /**
+     * The default constructor.
+     */
+    HashCodeBenchmark() {
+        super("hashCode");
+    }
+
+    /**
+     * Create a random world.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    @Override
+    void setUp(int size, int density) {
+        world = new World(size, size);
+        world.random(density, SEED);
+    }
+
+    /**
+     * Calculate the hash code.
+     * @return the hash code
+     */
+    @Override
+    Object operation() {
+        return Integer.valueOf(world.hashCode());
+    }
+}
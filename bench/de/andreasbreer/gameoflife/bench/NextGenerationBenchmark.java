@@ -0,0 +1,79 @@
+package de.andreasbreer.gameoflife.bench;
+
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This benchmark calculates the next generation of a random world. A random
+ * world dies down and gets fewer living cells with every generation, so the
+ * world is calculated only for a fixed number of generations and then
+ * starts again from a copy of the random world. The density of the measured
+ * generations stays near the density of the benchmark. The copy is made in
+ * {@link #reset()}, so it is not measured.
+ * @author Andreas Breer
+ */
+class NextGenerationBenchmark extends Benchmark {
+
+    /**
+     * The number of generations calculated from the random world before it
+     * starts again.
+     */
+    static final int GENERATIONS_PER_SEED = 10;
+
+    /**
+     * The random world, which is copied and not calculated.
+     */
+    private World seeded;
+
+    /**
+     * The world to calculate.
+     */
+    private World world;
+
+    /**
+     * The default constructor.
+     */
+    NextGenerationBenchmark() {
+        super("nextGeneration");
+    }
+
+    /**
+     * Create a random world.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    @Override
+    void setUp(int size, int density) {
+        seeded = new World(size, size);
+        seeded.random(density, SEED);
+        world = new World(seeded);
+    }
+
+    /**
+     * Calculate the next generation.
+     * @return the world
+     */
+    @Override
+    Object operation() {
+        world.nextGeneration();
+        return world;
+    }
+
+    /**
+     * Get the number of generations calculated from the random world.
+     * @return {@link #GENERATIONS_PER_SEED}
+     */
+    @Override
+    int getOperationsPerReset() {
+        return GENERATIONS_PER_SEED;
+    }
+
+    /**
+     * Start again from a copy of the random world.
+     */
+    @Override
+    void reset() {
+        world = new World(seeded);
+    }
+}
@@ -0,0 +1,74 @@
+package de.andreasbreer.gameoflife.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import de.andreasbreer.gameoflife.model.World;
+import de.andreasbreer.gameoflife.view.WorldPanel;
+
+/**
+ * This benchmark paints a random world into an image, without a display.
+ * @author Andreas Breer
+ */
+class PaintBenchmark extends Benchmark {
+
+    /**
+     * The width and the height of a cell in pixels.
+     */
+    private static final int CELL_SIZE = 2;
+
+    /**
+     * The panel which paints the world.
+     */
+    private WorldPanel panel;
+
+    /**
+     * The image to paint.
+     */
+    private BufferedImage image;
+
+    /**
+     * The graphics of the image.
+     */
+    private Graphics2D graphics;
+
+    /**
+     * The default constructor.
+     */
+    PaintBenchmark() {
+        super("paint");
+    }
+
+    /**
+     * Create a random world, its panel and the image.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    @Override
+    void setUp(int size, int density) {
+        if (graphics != null) {
+            graphics.dispose();
+        }
+        World world = new World(size, size);
+        world.random(density, SEED);
+        panel = new WorldPanel(world);
+        panel.setSize(size * CELL_SIZE, size * CELL_SIZE);
+        panel.resetDimenstion();
+        image =
+                new BufferedImage(size * CELL_SIZE, size * CELL_SIZE,
+                        BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    /**
+     * Paint the world into the image.
+     * @return the image
+     */
+    @Override
+    Object operation() {
+        panel.paint(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,56 @@
+package de.andreasbreer.gameoflife.bench;
+
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This benchmark fills a world with random cells.
+ * @author Andreas Breer
+ */
+class RandomBenchmark extends Benchmark {
+
+    /**
+     * The world to fill.
+     */
+    private World world;
+
+    /**
+     * The probability of a living cell in percent.
+     */
+    private int density;
+
+    /**
+     * The seed of the next fill.
+     */
+    private long seed;
+
+    /**
+     * The default constructor.
+     */
+    RandomBenchmark() {
+        super("random");
+    }
+
+    /**
+     * Create an empty world.
+     * @param size
+     *            the width and the height of the world
+     * @param density
+     *            the probability of a living cell in percent
+     */
+    @Override
+    void setUp(int size, int density) {
+        world = new World(size, size);
+        this.density = density;
+        seed = SEED;
+    }
+
+    /**
+     * Fill the world with a new seed.
+     * @return the world
+     */
+    @Override
+    Object operation() {
+        world.random(density, seed++);
+        return world;
+    }
+}
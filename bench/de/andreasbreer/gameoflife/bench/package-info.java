@@ -0,0 +1,7 @@
+/**
+ * Benchmarks of the hot paths of the world, run by the Ant target bench.
+ */
+/**
+ * @author Andreas Breer
+ */
+package de.andreasbreer.gameoflife.bench;
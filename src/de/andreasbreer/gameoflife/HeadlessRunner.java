@@ -0,0 +1,385 @@
+package de.andreasbreer.gameoflife;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import de.andreasbreer.gameoflife.batch.ParameterSweep;
+import de.andreasbreer.gameoflife.model.Cycle;
+import de.andreasbreer.gameoflife.model.EngineType;
+import de.andreasbreer.gameoflife.model.GameModel;
+import de.andreasbreer.gameoflife.model.PlaintextPattern;
+import de.andreasbreer.gameoflife.model.PopulationStatistics;
+import de.andreasbreer.gameoflife.model.Rule;
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This class runs the game without the user interface, for servers and
+ * benchmarks. The world, the pattern and the number of generations are
+ * given on the command line, see {@link #USAGE}. The generations are
+ * calculated at full speed and the time and the final statistics are
+ * printed. With {@link #SWEEP} a {@link ParameterSweep} runs many random
+ * worlds instead and prints their results as comma separated values. This
+ * class must not use any class of AWT or Swing, so the headless run needs no
+ * display and does not load them.
+ * @author Andreas Breer
+ */
+public final class HeadlessRunner {
+
+    /**
+     * The flag which selects the headless run.
+     */
+    public static final String HEADLESS = "--headless";
+
+    /**
+     * The flag which selects the headless parameter sweep.
+     */
+    public static final String SWEEP = "--sweep";
+
+    /**
+     * The description of the arguments.
+     */
+    public static final String USAGE =
+            "Usage: --headless [--width n] [--height n] [--seed n]"
+                    + " [--probability percent] [--pattern file.cells]"
+                    + " [--generations n] [--engine type] [--threads n]"
+                    + " [--rule B3/S23]" + System.lineSeparator()
+                    + "       --sweep [--width n] [--height n] [--seed n]"
+                    + " [--probabilities p1,p2,...] [--runs n]"
+                    + " [--generations n] [--threads n]";
+
+    /**
+     * The exit code of a successful run.
+     */
+    private static final int EXIT_OK = 0;
+
+    /**
+     * The exit code of invalid arguments.
+     */
+    private static final int EXIT_USAGE = 2;
+
+    /**
+     * The exit code of an interrupted sweep.
+     */
+    private static final int EXIT_INTERRUPTED = 3;
+
+    /**
+     * The default size of the world in both directions.
+     */
+    private final static int DEFAULT_SIZE = 1024;
+
+    /**
+     * The default probability of a living cell in percent.
+     */
+    private final static int DEFAULT_PROBABILITY = 30;
+
+    /**
+     * The default number of generations.
+     */
+    private final static long DEFAULT_GENERATIONS = 1000;
+
+    /**
+     * The number of nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The default probabilities of a sweep in percent.
+     */
+    private static final int[] DEFAULT_PROBABILITIES = { 10, 20, 30, 40, 50 };
+
+    /**
+     * The default number of runs per probability of a sweep.
+     */
+    private final static int DEFAULT_RUNS = 10;
+
+    /**
+     * The width of the world.
+     */
+    private int width = DEFAULT_SIZE;
+
+    /**
+     * The height of the world.
+     */
+    private int height = DEFAULT_SIZE;
+
+    /**
+     * The seed of the random world.
+     */
+    private long seed = System.nanoTime();
+
+    /**
+     * The probability of a living cell in percent.
+     */
+    private int probability = DEFAULT_PROBABILITY;
+
+    /**
+     * The file of the pattern in plaintext format, or <code>null</code> for
+     * a random world.
+     */
+    private String patternFile;
+
+    /**
+     * The number of generations to calculate.
+     */
+    private long generations = DEFAULT_GENERATIONS;
+
+    /**
+     * The engine which calculates the generations.
+     */
+    private EngineType engineType = EngineType.BITWISE;
+
+    /**
+     * The number of threads which calculate a generation.
+     */
+    private int threads = 1;
+
+    /**
+     * The rule of the game.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * Determines whether a parameter sweep runs instead of a single world.
+     */
+    private boolean isSweep;
+
+    /**
+     * The probabilities of the sweep in percent.
+     */
+    private int[] probabilities = DEFAULT_PROBABILITIES;
+
+    /**
+     * The number of runs per probability of the sweep.
+     */
+    private int runs = DEFAULT_RUNS;
+
+    /**
+     * Determines whether the number of threads was given.
+     */
+    private boolean isThreadsGiven;
+
+    /**
+     * The private constructor. The runner is created from the arguments.
+     */
+    private HeadlessRunner() {
+        super();
+    }
+
+    /**
+     * Determine whether the arguments select the headless run.
+     * @param args
+     *            the arguments of the command line
+     * @return <code>true</code> if the arguments contain {@link #HEADLESS}
+     *         or {@link #SWEEP}
+     */
+    public static boolean isHeadless(String[] args) {
+        for (String arg : args) {
+            if (HEADLESS.equals(arg) || SWEEP.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run the game as the arguments describe and print the results.
+     * @param args
+     *            the arguments of the command line
+     * @param out
+     *            the stream of the results
+     * @return the exit code, 0 if the run succeeded
+     */
+    public static int run(String[] args, PrintStream out) {
+        HeadlessRunner runner = new HeadlessRunner();
+        try {
+            runner.parse(args);
+            return runner.isSweep ? runner.sweep(out) : runner.run(out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (IOException e) {
+            System.err.println("Cannot read the pattern: " + e.getMessage());
+            return EXIT_USAGE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("The sweep was interrupted.");
+            return EXIT_INTERRUPTED;
+        }
+    }
+
+    /**
+     * Read the arguments.
+     * @param args
+     *            the arguments of the command line
+     * @throws IllegalArgumentException
+     *             if an argument is unknown or invalid
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (HEADLESS.equals(arg)) {
+                continue;
+            }
+            if (SWEEP.equals(arg)) {
+                isSweep = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of " + arg);
+            }
+            String value = args[++i];
+            if ("--width".equals(arg)) {
+                width = Integer.parseInt(value);
+            } else if ("--height".equals(arg)) {
+                height = Integer.parseInt(value);
+            } else if ("--seed".equals(arg)) {
+                seed = Long.parseLong(value);
+            } else if ("--probability".equals(arg)) {
+                probability = Integer.parseInt(value);
+            } else if ("--pattern".equals(arg)) {
+                patternFile = value;
+            } else if ("--generations".equals(arg)) {
+                generations = Long.parseLong(value);
+            } else if ("--engine".equals(arg)) {
+                engineType = EngineType.valueOf(value);
+            } else if ("--threads".equals(arg)) {
+                threads = Integer.parseInt(value);
+                isThreadsGiven = true;
+            } else if ("--probabilities".equals(arg)) {
+                probabilities = parseProbabilities(value);
+            } else if ("--runs".equals(arg)) {
+                runs = Integer.parseInt(value);
+            } else if ("--rule".equals(arg)) {
+                rule = Rule.parse(value);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (width < 1 || height < 1 || generations < 0) {
+            throw new IllegalArgumentException("Invalid world: " + width
+                    + " x " + height + ", " + generations + " generations");
+        }
+        if (runs < 0 || threads < 1) {
+            throw new IllegalArgumentException("Invalid sweep: " + runs
+                    + " runs, " + threads + " threads");
+        }
+    }
+
+    /**
+     * Read a comma separated list of probabilities.
+     * @param value
+     *            the list, like <code>10,20,30</code>
+     * @return the probabilities in percent
+     * @throws IllegalArgumentException
+     *             if a probability is not a number between 0 and 100
+     */
+    private static int[] parseProbabilities(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+            if (result[i] < 0 || result[i] > 100) {
+                throw new IllegalArgumentException("Invalid probability: "
+                        + result[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Run the parameter sweep and print its results as comma separated
+     * values. The seed of the sweep, the number of generations and, if
+     * given, the number of threads are taken from the arguments. Every world
+     * of the sweep is calculated by one thread.
+     * @param out
+     *            the stream of the results
+     * @return the exit code
+     * @throws InterruptedException
+     *             if the calling thread is interrupted
+     */
+    private int sweep(PrintStream out) throws InterruptedException {
+        ParameterSweep sweep =
+                new ParameterSweep(width, height, probabilities, runs);
+        sweep.setSeed(seed);
+        sweep.setMaxGenerations(generations);
+        if (isThreadsGiven) {
+            sweep.setThreads(threads);
+        }
+        Writer writer = new OutputStreamWriter(out);
+        try {
+            sweep.run(writer);
+        } catch (IOException e) {
+            System.err.println("Cannot write the results: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Create the world, calculate the generations and print the results.
+     * @param out
+     *            the stream of the results
+     * @return the exit code
+     * @throws IOException
+     *             if the pattern cannot be read
+     */
+    private int run(PrintStream out) throws IOException {
+        GameModel model = new GameModel(width, height);
+        try {
+            World world = model.getWorld();
+            world.setEngineType(engineType);
+            world.setParallelism(threads);
+            world.setRule(rule);
+            if (patternFile == null) {
+                world.random(probability, seed);
+            } else {
+                loadPattern(world, patternFile);
+            }
+
+            out.println(String.format(
+                    "%d x %d cells, %s engine, %d threads, %s", width,
+                    height, engineType, threads, rule));
+            long time = System.nanoTime();
+            long done = model.runBatch(generations);
+            time = System.nanoTime() - time;
+
+            double seconds = time / NANOS_PER_SECOND;
+            out.println(String.format(
+                    "%d generations in %.3f s: %.1f generations/s, "
+                            + "%.3g cells/s", done, seconds, done / seconds,
+                    done * (double) width * height / seconds));
+            PopulationStatistics statistics = world.getStatistics();
+            out.println(statistics);
+            Cycle cycle = model.getCycle();
+            if (cycle != null) {
+                out.println("Cycle: " + cycle);
+            }
+        } finally {
+            model.shutdown();
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Load a pattern in plaintext format into the middle of the world, see
+     * {@link PlaintextPattern}. The world is loaded with one call, so it is
+     * published and notifies its observers only once.
+     * @param world
+     *            the world
+     * @param fileName
+     *            the name of the pattern file
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit into the world
+     */
+    private static void loadPattern(World world, String fileName)
+            throws IOException {
+        PlaintextPattern pattern = new PlaintextPattern(new File(fileName));
+        world.loadCells(pattern.toRows(world.getWidth(), world.getHeight()));
+    }
+}
@@ -1,79 +1,298 @@
-package de.andreasbreer.gameoflife;
-
-import java.io.IOException;
-
-import org.apache.log4j.Logger;
-import org.apache.log4j.xml.DOMConfigurator;
-
-import de.andreasbreer.gameoflife.controller.GameController;
-import de.andreasbreer.gameoflife.model.GameModel;
-import de.andreasbreer.gameoflife.util.ApplicationProperties;
-import de.andreasbreer.gameoflife.util.PropertyName;
-import de.andreasbreer.gameoflife.view.GameView;
-
-/**
- * This class starts the application.
- * @author Andreas Breer
- */
-public class StartUp {
-    /**
-     * A logger for all kinds of info-messages, warnings and errors.
-     */
-    private static final Logger LOGGER = Logger.getLogger(StartUp.class);
-
-    /**
-     * The main method to start the application.
-     * @param args
-     *            not in use
-     * @throws IOException
-     */
-    public static void main(String[] args) {  	
-    	int worldWidth = 0;
-        int worldHeight = 0;
-    	int windowWidth = 0;
-        int windowHeight = 0;
-       	
-        
-        // Read the configuration and instantiate the logger.
-        DOMConfigurator.configureAndWatch("log4j.xml");
-
-        ApplicationProperties properties = ApplicationProperties.getInstance();
-
-        GameModel model = null;
-        
-        try {
-        	worldWidth =
-                    Integer.parseInt(properties
-                            .getProperty(PropertyName.WORLD_WIDTH));
-        	worldHeight =
-                    Integer.parseInt(properties
-                            .getProperty(PropertyName.WORLD_HEIGHT));
-        	model = new GameModel(worldWidth, worldHeight);
-        } catch (NumberFormatException e) {
-        	model = new GameModel();
-        }
-        
-        GameView view = null;
-
-        try {
-            windowWidth =
-                    Integer.parseInt(properties
-                            .getProperty(PropertyName.WINDOW_WIDTH));
-            windowHeight =
-                    Integer.parseInt(properties
-                            .getProperty(PropertyName.WINDOW_HEIGHT));
-            view = new GameView(model, windowWidth, windowHeight);
-        } catch (NumberFormatException e) {
-            view = new GameView(model);
-        }
-
-        new GameController(model, view);
-
-        LOGGER.info("The Application has started!");
-
-        // What happens with uncaught Exceptions?
-        Thread.setDefaultUncaughtExceptionHandler(new LoggingUncaughtExceptionHandler(
-                LOGGER));
-    }
-
-}
+package de.andreasbreer.gameoflife;
+
+import java.io.IOException;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.DailyRollingFileAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.xml.DOMConfigurator;
+
+import de.andreasbreer.gameoflife.controller.GameController;
+import de.andreasbreer.gameoflife.model.CycleAction;
+import de.andreasbreer.gameoflife.model.EngineType;
+import de.andreasbreer.gameoflife.model.ExternalWorld;
+import de.andreasbreer.gameoflife.model.GameModel;
+import de.andreasbreer.gameoflife.model.GameMonitor;
+import de.andreasbreer.gameoflife.model.Rule;
+import de.andreasbreer.gameoflife.model.StorageType;
+import de.andreasbreer.gameoflife.model.Topology;
+import de.andreasbreer.gameoflife.util.ApplicationProperties;
+import de.andreasbreer.gameoflife.util.PropertyName;
+import de.andreasbreer.gameoflife.view.GameView;
+
+/**
+ * This class starts the application.
+ * @author Andreas Breer
+ */
+public class StartUp {
+    static {
+        // log4j must not read log4j.xml from the class path by itself, main
+        // reads the configuration as the run needs it.
+        System.setProperty("log4j.defaultInitOverride", "true");
+    }
+
+    /**
+     * A logger for all kinds of info-messages, warnings and errors.
+     */
+    private static final Logger LOGGER = Logger.getLogger(StartUp.class);
+
+    /**
+     * The largest size of the view of an external world in both directions.
+     */
+    private static final int MAX_VIEW_SIZE = 512;
+
+    /**
+     * The probability of a living cell in percent of an external world,
+     * which cannot be drawn by hand.
+     */
+    private static final int EXTERNAL_PROBABILITY = 25;
+
+    /**
+     * The log file of the headless run, as in log4j.xml.
+     */
+    private static final String LOG_FILE = "log/log.log";
+
+    /**
+     * The date pattern of the rolled log files, as in log4j.xml.
+     */
+    private static final String LOG_DATE_PATTERN = "-yyyy-MM-dd'.log'";
+
+    /**
+     * The layout of the log messages, as in log4j.xml.
+     */
+    private static final String LOG_LAYOUT =
+            "%d{yyyy-MM-dd HH:mm:ss} %-5p %t[%c]: %m %n";
+
+    /**
+     * The main method to start the application. With the argument
+     * <code>--headless</code> the game runs without the user interface, see
+     * {@link HeadlessRunner}.
+     * @param args
+     *            the arguments of the headless run, otherwise not in use
+     * @throws IOException
+     */
+    public static void main(String[] args) {  	
+        if (HeadlessRunner.isHeadless(args)) {
+            // No class of the user interface is loaded on this path.
+            configureHeadlessLogging();
+            System.exit(HeadlessRunner.run(args, System.out));
+        }
+
+    	int worldWidth = 0;
+        int worldHeight = 0;
+    	int windowWidth = 0;
+        int windowHeight = 0;
+       	
+        
+        // Read the configuration and instantiate the logger.
+        DOMConfigurator.configureAndWatch("log4j.xml");
+
+        ApplicationProperties properties = ApplicationProperties.getInstance();
+
+        GameModel model = null;
+
+        StorageType storage = StorageType.HEAP;
+        String storageName =
+                properties.getProperty(PropertyName.WORLD_STORAGE);
+        if (storageName != null) {
+            try {
+                storage = StorageType.valueOf(storageName);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unknown storage: " + storageName
+                        + ", using the heap.");
+            }
+        }
+        
+        try {
+        	worldWidth =
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WORLD_WIDTH));
+        	worldHeight =
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WORLD_HEIGHT));
+            if (storage != StorageType.HEAP) {
+                // The world of the game only shows the external world.
+                model =
+                        new GameModel(Math.min(worldWidth, MAX_VIEW_SIZE),
+                                Math.min(worldHeight, MAX_VIEW_SIZE));
+            } else {
+                model = new GameModel(worldWidth, worldHeight);
+            }
+        } catch (NumberFormatException e) {
+        	model = new GameModel();
+            storage = StorageType.HEAP;
+        }
+
+        try {
+            model.getWorld().setParallelism(
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WORLD_THREADS)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("Calculating the generations on one thread.");
+        }
+
+        String engine = properties.getProperty(PropertyName.WORLD_ENGINE);
+        if (engine != null) {
+            try {
+                EngineType engineType = EngineType.valueOf(engine);
+                if (!engineType.isAvailable()) {
+                    LOGGER.warn("The engine " + engine
+                            + " is not available, using the bitwise engine.");
+                }
+                model.getWorld().setEngineType(engineType);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unknown engine: " + engine);
+            }
+        }
+
+        String rule = properties.getProperty(PropertyName.WORLD_RULE);
+        if (rule != null) {
+            try {
+                model.getWorld().setRule(Rule.parse(rule));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unknown rule: " + rule + ", using B3/S23.");
+            }
+        }
+
+        String topology = properties.getProperty(PropertyName.WORLD_TOPOLOGY);
+        if (topology != null) {
+            try {
+                model.getWorld().setTopology(Topology.valueOf(topology));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unknown topology: " + topology + ", using TORUS.");
+            }
+        }
+
+        try {
+            model.getWorld().setTemporalBlocking(
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WORLD_BLOCKING_DEPTH)),
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WORLD_BLOCKING_ROWS)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("Calculating one generation per sweep.");
+        }
+
+        if (storage != StorageType.HEAP) {
+            startExternalWorld(model, storage, worldWidth, worldHeight);
+        }
+
+        String cycleAction =
+                properties.getProperty(PropertyName.GAME_CYCLE_ACTION);
+        if (cycleAction != null) {
+            try {
+                model.setCycleAction(CycleAction.valueOf(cycleAction));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unknown cycle action: " + cycleAction);
+            }
+        }
+        
+        GameView view = null;
+
+        try {
+            windowWidth =
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WINDOW_WIDTH));
+            windowHeight =
+                    Integer.parseInt(properties
+                            .getProperty(PropertyName.WINDOW_HEIGHT));
+            view = new GameView(model, windowWidth, windowHeight);
+        } catch (NumberFormatException e) {
+            view = new GameView(model);
+        }
+
+        new GameController(model, view);
+
+        // Watch and control the game with JConsole.
+        GameMonitor.register(model);
+
+        LOGGER.info("The Application has started!");
+
+        // What happens with uncaught Exceptions?
+        Thread.setDefaultUncaughtExceptionHandler(new LoggingUncaughtExceptionHandler(
+                LOGGER));
+    }
+
+    /**
+     * Calculate an external world, see {@link StorageType}. The world of the
+     * game shows the external world, which is filled with random cells. If
+     * the external world cannot be created, the world of the game is
+     * calculated instead.
+     * @param model
+     *            the game
+     * @param storage
+     *            the type of the external world
+     * @param width
+     *            the width of the external world
+     * @param height
+     *            the height of the external world
+     */
+    private static void startExternalWorld(GameModel model,
+            StorageType storage, int width, int height) {
+        if (!storage.isPlane()
+                && model.getWorld().getTopology() != Topology.TORUS) {
+            LOGGER.warn("The external world is a torus.");
+        }
+        int workers = Runtime.getRuntime().availableProcessors();
+        try {
+            workers =
+                    Integer.parseInt(ApplicationProperties.getInstance()
+                            .getProperty(PropertyName.WORLD_WORKERS));
+        } catch (NumberFormatException e) {
+            LOGGER.info("Using one worker per processor.");
+        }
+
+        ExternalWorld externalWorld = null;
+        try {
+            externalWorld =
+                    storage.createWorld(width, height, model.getWorld()
+                            .getRule(), workers);
+            externalWorld.random(EXTERNAL_PROBABILITY, System.nanoTime());
+            model.setExternalWorld(externalWorld);
+        } catch (IOException e) {
+            LOGGER.error("Could not create the external world, calculating "
+                    + "the world on the heap.", e);
+            closeQuietly(externalWorld);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Could not create the external world: "
+                    + e.getMessage());
+            closeQuietly(externalWorld);
+        }
+    }
+
+    /**
+     * Close an external world which is not used.
+     * @param externalWorld
+     *            the world, or <code>null</code>
+     */
+    private static void closeQuietly(ExternalWorld externalWorld) {
+        if (externalWorld != null) {
+            try {
+                externalWorld.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not close the external world.", e);
+            }
+        }
+    }
+
+    /**
+     * Configure the logger of the headless run like log4j.xml, without
+     * reading the file. The DOMConfigurator sets the parameters of the
+     * appenders by bean introspection, which loads classes of java.beans
+     * and Swing. If the log file cannot be opened, the messages go to the
+     * standard error.
+     */
+    private static void configureHeadlessLogging() {
+        PatternLayout layout = new PatternLayout(LOG_LAYOUT);
+        try {
+            BasicConfigurator.configure(new DailyRollingFileAppender(layout,
+                    LOG_FILE, LOG_DATE_PATTERN));
+        } catch (IOException e) {
+            BasicConfigurator.configure(new ConsoleAppender(layout,
+                    ConsoleAppender.SYSTEM_ERR));
+            LOGGER.warn("Cannot open the log file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package de.andreasbreer.gameoflife.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+
+import de.andreasbreer.gameoflife.model.Cycle;
+import de.andreasbreer.gameoflife.model.CycleDetector;
+import de.andreasbreer.gameoflife.model.ProgressListener;
+import de.andreasbreer.gameoflife.model.World;
+
+/**
+ * This class runs many random worlds without the user interface, for Monte
+ * Carlo studies. For every probability a number of worlds is filled with
+ * random cells and calculated until it dies, enters a cycle or reaches the
+ * generation limit. The worlds are independent and are calculated by a pool
+ * with one thread per processor. The results are written as comma
+ * separated values as soon as a run is finished, and every line is flushed,
+ * so a long sweep can be watched and an aborted sweep keeps its results.
+ * <p>
+ * The seeds of the worlds are derived from the seed of the sweep, so a
+ * sweep can be repeated with the same results.
+ * @author Andreas Breer
+ */
+public class ParameterSweep {
+
+    /**
+     * The header of the comma separated results.
+     */
+    public static final String HEADER =
+            "probability,seed,outcome,lifetime,population,generations";
+
+    /**
+     * A logger for all kinds of info-messages, warnings and errors.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(ParameterSweep.class);
+
+    /**
+     * The default maximal number of generations of a run.
+     */
+    private final static long DEFAULT_MAX_GENERATIONS = 10000;
+
+    /**
+     * The default longest period which counts as stable.
+     */
+    private final static int DEFAULT_CYCLE_WINDOW = 64;
+
+    /**
+     * The width of the worlds.
+     */
+    private final int width;
+
+    /**
+     * The height of the worlds.
+     */
+    private final int height;
+
+    /**
+     * The probabilities of a living cell in percent.
+     */
+    private final int[] probabilities;
+
+    /**
+     * The number of runs per probability.
+     */
+    private final int runs;
+
+    /**
+     * The maximal number of generations of a run.
+     */
+    private long maxGenerations = DEFAULT_MAX_GENERATIONS;
+
+    /**
+     * The longest period which counts as stable.
+     */
+    private int cycleWindow = DEFAULT_CYCLE_WINDOW;
+
+    /**
+     * The seed from which the seeds of the worlds are derived.
+     */
+    private long seed = System.nanoTime();
+
+    /**
+     * The number of threads which calculate the worlds.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The constructor of this class using the dimension of the worlds, the
+     * probabilities and the number of runs.
+     * @param width
+     *            the width of the worlds
+     * @param height
+     *            the height of the worlds
+     * @param probabilities
+     *            the probabilities of a living cell in percent
+     * @param runs
+     *            the number of runs per probability
+     */
+    public ParameterSweep(int width, int height, int[] probabilities,
+            int runs) {
+        this.width = width;
+        this.height = height;
+        this.probabilities = probabilities.clone();
+        this.runs = runs;
+    }
+
+    /**
+     * Set the maximal number of generations of a run.
+     * @param maxGenerations
+     *            the number of generations
+     */
+    public void setMaxGenerations(long maxGenerations) {
+        this.maxGenerations = maxGenerations;
+    }
+
+    /**
+     * Set the longest period which counts as stable. Longer cycles run until
+     * the generation limit.
+     * @param cycleWindow
+     *            the longest period
+     */
+    public void setCycleWindow(int cycleWindow) {
+        this.cycleWindow = cycleWindow;
+    }
+
+    /**
+     * Set the seed from which the seeds of the worlds are derived.
+     * @param seed
+     *            the seed of the sweep
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set the number of threads which calculate the worlds.
+     * @param threads
+     *            the number of threads
+     * @throws IllegalArgumentException
+     *             if the number is less than one
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread is needed: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Run all worlds and write the results. The results are written in the
+     * order the runs finish, one line per run after the {@link #HEADER}.
+     * @param output
+     *            the writer of the results
+     * @return the throughput of the sweep
+     * @throws IOException
+     *             if the results cannot be written
+     * @throws InterruptedException
+     *             if the calling thread is interrupted
+     */
+    public SweepSummary run(Writer output) throws IOException,
+            InterruptedException {
+        long time = System.nanoTime();
+        output.write(HEADER);
+        output.write(System.lineSeparator());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<RunResult> completion =
+                new ExecutorCompletionService<RunResult>(executor);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int count = 0;
+        for (int probability : probabilities) {
+            for (int i = 0; i < runs; i++) {
+                completion.submit(new Run(probability, seeds.nextLong()));
+                count++;
+            }
+        }
+
+        long generations = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                RunResult result = completion.take().get();
+                generations += result.getGenerations();
+                output.write(result.toString());
+                output.write(System.lineSeparator());
+                output.flush();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A run failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        output.flush();
+
+        SweepSummary summary =
+                new SweepSummary(count, generations, System.nanoTime() - time);
+        LOGGER.info(summary);
+        return summary;
+    }
+
+    /**
+     * One run of a random world.
+     */
+    private final class Run implements Callable<RunResult> {
+
+        /**
+         * The probability of a living cell in percent.
+         */
+        private final int probability;
+
+        /**
+         * The seed of the random world.
+         */
+        private final long worldSeed;
+
+        /**
+         * The result of the run, once the world died or entered a cycle.
+         */
+        private RunResult result;
+
+        /**
+         * The constructor of this class using all fields.
+         * @param probability
+         *            the probability of a living cell in percent
+         * @param worldSeed
+         *            the seed of the random world
+         */
+        private Run(int probability, long worldSeed) {
+            this.probability = probability;
+            this.worldSeed = worldSeed;
+        }
+
+        /**
+         * Calculate the world until it dies, enters a cycle or reaches the
+         * generation limit. The generations are calculated by one
+         * {@link World#advance(long, ProgressListener)}, which is cancelled
+         * as soon as the outcome is known, so the world publishes its
+         * snapshot and notifies its observers only once per run.
+         * @return the result of the run
+         */
+        public RunResult call() {
+            final World world = new World(width, height);
+            world.random(probability, worldSeed);
+            final CycleDetector detector = new CycleDetector(cycleWindow);
+            detector.update(0, world.getFingerprint());
+
+            world.advance(maxGenerations, new ProgressListener() {
+                public void generationCalculated(long done, long total) {
+                    long population = world.getStatistics().getPopulation();
+                    if (population == 0) {
+                        result = new RunResult(probability, worldSeed,
+                                RunOutcome.DIED, done, 0, done);
+                        world.cancelAdvance();
+                        return;
+                    }
+                    Cycle cycle =
+                            detector.update(done, world.getFingerprint());
+                    if (cycle != null) {
+                        result = new RunResult(probability, worldSeed,
+                                RunOutcome.STABILIZED, cycle
+                                        .getEntryGeneration(), population,
+                                done);
+                        world.cancelAdvance();
+                    }
+                }
+            });
+            if (result != null) {
+                return result;
+            }
+            return new RunResult(probability, worldSeed,
+                    RunOutcome.LIMIT_REACHED, maxGenerations, world
+                            .getStatistics().getPopulation(), maxGenerations);
+        }
+    }
+}
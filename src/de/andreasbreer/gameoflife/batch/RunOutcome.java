@@ -0,0 +1,9 @@
+package de.andreasbreer.gameoflife.batch;
+
+/**
+ * The ways a run of a world can end.
+ * @author Andreas Breer
+ */
+public enum RunOutcome {
+    DIED, STABILIZED, LIMIT_REACHED;
+}
@@ -0,0 +1,123 @@
+package de.andreasbreer.gameoflife.batch;
+
+/**
+ * The result of one run of a parameter sweep.
+ * @author Andreas Breer
+ */
+public final class RunResult {
+
+    /**
+     * The probability of a living cell in percent.
+     */
+    private final int probability;
+
+    /**
+     * The seed of the random world.
+     */
+    private final long seed;
+
+    /**
+     * The way the run ended.
+     */
+    private final RunOutcome outcome;
+
+    /**
+     * The generation in which the world died or entered its cycle.
+     */
+    private final long lifetime;
+
+    /**
+     * The number of living cells at the end of the run.
+     */
+    private final long population;
+
+    /**
+     * The number of calculated generations.
+     */
+    private final long generations;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param probability
+     *            the probability of a living cell in percent
+     * @param seed
+     *            the seed of the random world
+     * @param outcome
+     *            the way the run ended
+     * @param lifetime
+     *            the generation in which the world died or entered its cycle
+     * @param population
+     *            the number of living cells at the end of the run
+     * @param generations
+     *            the number of calculated generations
+     */
+    RunResult(int probability, long seed, RunOutcome outcome, long lifetime,
+            long population, long generations) {
+        this.probability = probability;
+        this.seed = seed;
+        this.outcome = outcome;
+        this.lifetime = lifetime;
+        this.population = population;
+        this.generations = generations;
+    }
+
+    /**
+     * Get the probability of a living cell in percent.
+     * @return the probability
+     */
+    public int getProbability() {
+        return probability;
+    }
+
+    /**
+     * Get the seed of the random world.
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the way the run ended.
+     * @return the outcome
+     */
+    public RunOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Get the generation in which the world died or entered its cycle, or
+     * the last generation if the limit was reached.
+     * @return the lifetime
+     */
+    public long getLifetime() {
+        return lifetime;
+    }
+
+    /**
+     * Get the number of living cells at the end of the run.
+     * @return the population
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Get the number of calculated generations.
+     * @return the generations
+     */
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Get the result as line of comma separated values, in the order of
+     * {@link ParameterSweep#HEADER}.
+     * @return the line
+     */
+    @Override
+    public String toString() {
+        return String.format("%d,%d,%s,%d,%d,%d", probability, seed, outcome,
+                lifetime, population, generations);
+    }
+}
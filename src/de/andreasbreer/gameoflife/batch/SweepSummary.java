@@ -0,0 +1,96 @@
+package de.andreasbreer.gameoflife.batch;
+
+/**
+ * The throughput of a parameter sweep.
+ * @author Andreas Breer
+ */
+public final class SweepSummary {
+
+    /**
+     * The number of nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The number of finished runs.
+     */
+    private final long worlds;
+
+    /**
+     * The number of generations calculated by all runs.
+     */
+    private final long generations;
+
+    /**
+     * The nanoseconds the sweep took.
+     */
+    private final long elapsedTime;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param worlds
+     *            the number of finished runs
+     * @param generations
+     *            the number of generations calculated by all runs
+     * @param elapsedTime
+     *            the nanoseconds the sweep took
+     */
+    SweepSummary(long worlds, long generations, long elapsedTime) {
+        this.worlds = worlds;
+        this.generations = generations;
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * Get the number of finished runs.
+     * @return the number of worlds
+     */
+    public long getWorlds() {
+        return worlds;
+    }
+
+    /**
+     * Get the number of generations calculated by all runs.
+     * @return the number of generations
+     */
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Get the time the sweep took.
+     * @return the time in nanoseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Get the number of runs finished per second.
+     * @return the worlds per second
+     */
+    public double getWorldsPerSecond() {
+        return worlds * NANOS_PER_SECOND / Math.max(1, elapsedTime);
+    }
+
+    /**
+     * Get the number of generations calculated per second by all runs.
+     * @return the generations per second
+     */
+    public double getGenerationsPerSecond() {
+        return generations * NANOS_PER_SECOND / Math.max(1, elapsedTime);
+    }
+
+    /**
+     * Get a readable representation of the throughput.
+     * @return the throughput as string
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%d worlds, %d generations in %.3f s: %.1f worlds/s, "
+                        + "%.0f generations/s", worlds, generations,
+                elapsedTime / NANOS_PER_SECOND, getWorldsPerSecond(),
+                getGenerationsPerSecond());
+    }
+}
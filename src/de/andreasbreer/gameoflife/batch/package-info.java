@@ -0,0 +1,7 @@
+/**
+ * Headless runs of many worlds, without the user interface.
+ */
+/**
+ * @author Andreas Breer
+ */
+package de.andreasbreer.gameoflife.batch;
@@ -1,7 +1,7 @@
-/**
- * 
- */
-/**
- * @author breer
- */
+/**
+ * 
+ */
+/**
+ * @author breer
+ */
 package de.andreasbreer.gameoflife.controller;
\ No newline at end of file
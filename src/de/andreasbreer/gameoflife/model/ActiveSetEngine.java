@@ -0,0 +1,349 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This engine keeps the number of living neighbors of every cell and only
+ * evaluates the cells next to the cells which changed in the last
+ * generation. The counts are updated incrementally from the changed cells,
+ * so the cost of a generation depends on the activity instead of the area of
+ * the world. The cells are changed in place.
+ * <p>
+ * The counts cover the padded world, so the cells on the edges count their
+ * neighbors in the halo. Only the cells of the world are evaluated, the
+ * changed cells of the halo are reported by
+ * {@link #cellToggled(long[][], int, int)}.
+ * @author Andreas Breer
+ */
+class ActiveSetEngine implements GenerationEngine {
+
+    /**
+     * The initial capacity of the lists of cells.
+     */
+    private final static int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The number of living neighbors of every cell of the padded world,
+     * index y * (width + 2) + x.
+     */
+    private byte[] counts;
+
+    /**
+     * The width of the world the counts belong to, without the halo.
+     */
+    private int width;
+
+    /**
+     * The height of the world the counts belong to, without the halo.
+     */
+    private int height;
+
+    /**
+     * The width of the padded world.
+     */
+    private int paddedWidth;
+
+    /**
+     * The height of the padded world.
+     */
+    private int paddedHeight;
+
+    /**
+     * Determines whether the counts match the cells.
+     */
+    private boolean isValid;
+
+    /**
+     * The cells which changed in the last generation, index
+     * y * (width + 2) + x.
+     */
+    private int[] changed = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of cells which changed in the last generation.
+     */
+    private int changedCount;
+
+    /**
+     * The cells to evaluate in this generation.
+     */
+    private int[] candidates = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of cells to evaluate in this generation.
+     */
+    private int candidateCount;
+
+    /**
+     * One bit per cell, set if the cell is already a candidate.
+     */
+    private long[] marks;
+
+    /**
+     * Calculate the next generation of the cells in place.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            not used
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param pool
+     *            not used, the active cells are evaluated by the calling
+     *            thread
+     * @param changes
+     *            the changes which receive every changed cell
+     * @return the changed cells
+     */
+    public long[][] nextGeneration(long[][] cells, long[][] next, int width,
+            int height, Rule rule, ForkJoinPool pool, CellChanges changes) {
+        if (!isValid || this.width != width || this.height != height) {
+            initialize(cells, width, height);
+            evaluateAllCells(cells, rule);
+        } else {
+            collectCandidates();
+            evaluateCandidates(cells, rule);
+        }
+        applyChanges(cells, changes);
+        return cells;
+    }
+
+    /**
+     * The counts do not match the changed cells anymore.
+     */
+    public void reset() {
+        isValid = false;
+    }
+
+    /**
+     * Update the counts of the neighbors of a toggled cell and remember the
+     * cell as changed, so only its neighborhood is evaluated again.
+     * @param cells
+     *            the rows of the cells, with the cell already toggled
+     * @param x
+     *            the x-position of the cell, width and width + 1 are the
+     *            halo
+     * @param y
+     *            the y-position of the cell, height and height + 1 are the
+     *            halo
+     */
+    public void cellToggled(long[][] cells, int x, int y) {
+        if (!isValid) {
+            return;
+        }
+        addToNeighbors(x, y, BitRows.get(cells[y], x) ? 1 : -1);
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, 2 * changedCount);
+        }
+        changed[changedCount++] = y * paddedWidth + x;
+    }
+
+    /**
+     * Count the living neighbors of all cells of the padded world.
+     * @param cells
+     *            the padded rows of the cells
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     */
+    private void initialize(long[][] cells, int width, int height) {
+        this.width = width;
+        this.height = height;
+        paddedWidth = width + 2;
+        paddedHeight = height + 2;
+        int area = paddedWidth * paddedHeight;
+        if (counts == null || counts.length != area) {
+            counts = new byte[area];
+            marks = new long[BitRows.words(area)];
+        } else {
+            Arrays.fill(counts, (byte) 0);
+        }
+
+        for (int y = 0; y < paddedHeight; y++) {
+            for (int x = 0; x < paddedWidth; x++) {
+                if (BitRows.get(cells[y], x)) {
+                    addToNeighbors(x, y, 1);
+                }
+            }
+        }
+        changedCount = 0;
+        isValid = true;
+    }
+
+    /**
+     * Evaluate every cell of the world.
+     * @param cells
+     *            the rows of the cells
+     * @param rule
+     *            the rule of the game
+     */
+    private void evaluateAllCells(long[][] cells, Rule rule) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                evaluate(cells, rule, y * paddedWidth + x, x, y);
+            }
+        }
+    }
+
+    /**
+     * Collect the changed cells and their neighbors in the world as
+     * candidates.
+     */
+    private void collectCandidates() {
+        candidateCount = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int index = changed[i];
+            int x = index % paddedWidth;
+            int y = index / paddedWidth;
+            int left = (x == 0) ? paddedWidth - 1 : x - 1;
+            int right = (x == paddedWidth - 1) ? 0 : x + 1;
+            int up = (y == 0) ? paddedHeight - 1 : y - 1;
+            int down = (y == paddedHeight - 1) ? 0 : y + 1;
+            addCandidates(up, left, x, right);
+            addCandidates(y, left, x, right);
+            addCandidates(down, left, x, right);
+        }
+    }
+
+    /**
+     * Add three neighboring cells of a row to the candidates.
+     * @param y
+     *            the row
+     * @param left
+     *            the x-position of the left cell
+     * @param x
+     *            the x-position of the middle cell
+     * @param right
+     *            the x-position of the right cell
+     */
+    private void addCandidates(int y, int left, int x, int right) {
+        if (y < height) {
+            int row = y * paddedWidth;
+            addCandidate(row, left);
+            addCandidate(row, x);
+            addCandidate(row, right);
+        }
+    }
+
+    /**
+     * Add a cell to the candidates, unless it is already one or a cell of
+     * the halo.
+     * @param row
+     *            the index of the first cell of the row
+     * @param x
+     *            the x-position of the cell
+     */
+    private void addCandidate(int row, int x) {
+        if (x >= width) {
+            return;
+        }
+        int index = row + x;
+        long bit = 1L << index;
+        if ((marks[index >>> 6] & bit) == 0) {
+            marks[index >>> 6] |= bit;
+            if (candidateCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+            }
+            candidates[candidateCount++] = index;
+        }
+    }
+
+    /**
+     * Evaluate the candidates and remove their marks.
+     * @param cells
+     *            the rows of the cells
+     * @param rule
+     *            the rule of the game
+     */
+    private void evaluateCandidates(long[][] cells, Rule rule) {
+        changedCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int index = candidates[i];
+            marks[index >>> 6] &= ~(1L << index);
+            evaluate(cells, rule, index, index % paddedWidth,
+                    index / paddedWidth);
+        }
+    }
+
+    /**
+     * Evaluate a cell and remember it if its state changes.
+     * @param cells
+     *            the rows of the cells
+     * @param rule
+     *            the rule of the game
+     * @param index
+     *            the index of the cell
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     */
+    private void evaluate(long[][] cells, Rule rule, int index, int x,
+            int y) {
+        boolean isAlive = BitRows.get(cells[y], x);
+        boolean willLive = rule.nextState(isAlive, counts[index]);
+        if (willLive != isAlive) {
+            if (changedCount == changed.length) {
+                changed = Arrays.copyOf(changed, 2 * changedCount);
+            }
+            changed[changedCount++] = index;
+        }
+    }
+
+    /**
+     * Toggle the changed cells and update the counts of their neighbors.
+     * @param cells
+     *            the rows of the cells
+     * @param changes
+     *            the changes which receive every changed cell
+     */
+    private void applyChanges(long[][] cells, CellChanges changes) {
+        for (int i = 0; i < changedCount; i++) {
+            int index = changed[i];
+            int x = index % paddedWidth;
+            int y = index / paddedWidth;
+            // The last word of a row holds cells of the halo too.
+            int word = x >>> 6;
+            long mask =
+                    (word == BitRows.words(width) - 1) ? BitRows
+                            .lastWordMask(width) : -1L;
+            long before = cells[y][word] & mask;
+            BitRows.toggle(cells[y], x);
+            changes.addWord(y, word, before, cells[y][word] & mask);
+            addToNeighbors(x, y, BitRows.get(cells[y], x) ? 1 : -1);
+        }
+    }
+
+    /**
+     * Add a value to the counts of the eight neighbors of a cell. The padded
+     * world wraps around, so the neighbor left of the first cell is the cell
+     * width + 1 of the halo and the row above the first row is the row
+     * height + 1.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @param value
+     *            the value to add
+     */
+    private void addToNeighbors(int x, int y, int value) {
+        int left = (x == 0) ? paddedWidth - 1 : x - 1;
+        int right = (x == paddedWidth - 1) ? 0 : x + 1;
+        int up = ((y == 0) ? paddedHeight - 1 : y - 1) * paddedWidth;
+        int row = y * paddedWidth;
+        int down = ((y == paddedHeight - 1) ? 0 : y + 1) * paddedWidth;
+        counts[up + left] += value;
+        counts[up + x] += value;
+        counts[up + right] += value;
+        counts[row + left] += value;
+        counts[row + right] += value;
+        counts[down + left] += value;
+        counts[down + x] += value;
+        counts[down + right] += value;
+    }
+}
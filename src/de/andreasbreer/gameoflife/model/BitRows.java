@@ -0,0 +1,407 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * This class provides the operations on rows of cells, which are stored as
+ * bitmaps of <code>long</code> words. The bit <code>x % 64</code> of the word
+ * <code>x / 64</code> holds the state of the cell at position x. The unused
+ * bits of the last word are always zero.
+ * <p>
+ * A world keeps its rows padded with a halo, see {@link #createPadded(int,
+ * int)}: the rows of a world of width x height cells hold width + 2 cells,
+ * the cells width and width + 1 are the neighbors right of the last cell and
+ * left of the first cell. The row height is the row below the last row, the
+ * row height + 1 the row above the first row. The halo is written by
+ * {@link Halo} from the cells on the edges, so the engines never look at the
+ * topology.
+ * @author Andreas Breer
+ */
+final class BitRows {
+
+    /**
+     * The number of cells stored in one word.
+     */
+    static final int WORD_SIZE = 64;
+
+    /**
+     * The private constructor. This class only provides static methods.
+     */
+    private BitRows() {
+    }
+
+    /**
+     * Calculate the number of words needed for a row.
+     * @param width
+     *            the width of the row
+     * @return the number of words
+     */
+    static int words(int width) {
+        return (width + WORD_SIZE - 1) / WORD_SIZE;
+    }
+
+    /**
+     * Calculate the mask of the valid bits in the last word of a row.
+     * @param width
+     *            the width of the row
+     * @return the mask of the last word
+     */
+    static long lastWordMask(int width) {
+        int bits = width % WORD_SIZE;
+        return (bits == 0) ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Create the rows of an empty world.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @return the rows of dead cells
+     */
+    static long[][] create(int width, int height) {
+        return new long[height][words(width)];
+    }
+
+    /**
+     * Create the rows of an empty world padded with a halo.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @return the rows of dead cells and the halo
+     */
+    static long[][] createPadded(int width, int height) {
+        return create(width + 2, height + 2);
+    }
+
+    /**
+     * Create a deep copy of the rows.
+     * @param rows
+     *            the rows to copy
+     * @return the copy
+     */
+    static long[][] copy(long[][] rows) {
+        long[][] copy = new long[rows.length][];
+        for (int y = 0; y < rows.length; y++) {
+            copy[y] = rows[y].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Count the living cells of the rows.
+     * @param rows
+     *            the rows
+     * @return the number of living cells
+     */
+    static long population(long[][] rows) {
+        long population = 0;
+        for (long[] row : rows) {
+            for (long word : row) {
+                population += Long.bitCount(word);
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Get the state of the cell at position x.
+     * @param row
+     *            the row of the cell
+     * @param x
+     *            the x-position of the cell
+     * @return <code>true</code> if the cell is alive
+     */
+    static boolean get(long[] row, int x) {
+        return (row[x >>> 6] & (1L << x)) != 0;
+    }
+
+    /**
+     * Awake the cell at position x.
+     * @param row
+     *            the row of the cell
+     * @param x
+     *            the x-position of the cell
+     */
+    static void set(long[] row, int x) {
+        row[x >>> 6] |= 1L << x;
+    }
+
+    /**
+     * Toggle the state of the cell at position x.
+     * @param row
+     *            the row of the cell
+     * @param x
+     *            the x-position of the cell
+     */
+    static void toggle(long[] row, int x) {
+        row[x >>> 6] ^= 1L << x;
+    }
+
+    /**
+     * Shrink a row by a scale and add its cells to a smaller row. A cell of
+     * the smaller row is awake if any of the scale cells it stands for is
+     * alive, so single cells stay visible.
+     * @param row
+     *            the row to shrink
+     * @param width
+     *            the width of the row
+     * @param scale
+     *            the number of cells of the row per cell of the smaller row
+     * @param target
+     *            the smaller row, which receives the cells
+     */
+    static void addScaled(long[] row, int width, int scale, long[] target) {
+        int last = words(width) - 1;
+        for (int i = 0; i <= last; i++) {
+            long word = (i == last) ? row[i] & lastWordMask(width) : row[i];
+            if (scale == 1) {
+                target[i] |= word;
+                continue;
+            }
+            while (word != 0) {
+                int x = (i << 6) + Long.numberOfTrailingZeros(word);
+                set(target, x / scale);
+
+                // Skip the other cells of the same block.
+                int next = (x / scale + 1) * scale - (i << 6);
+                word = (next < WORD_SIZE) ? word & (-1L << next) : 0L;
+            }
+        }
+    }
+
+    /**
+     * Calculate the next generation of a row, 64 cells at a time. The rows
+     * wrap around at the width like a torus.
+     * @param above
+     *            the row above
+     * @param row
+     *            the row to calculate
+     * @param below
+     *            the row below
+     * @param next
+     *            the row which receives the next generation
+     * @param width
+     *            the width of the rows
+     * @param rule
+     *            the rule of the game
+     */
+    static void nextGeneration(long[] above, long[] row, long[] below,
+            long[] next, int width, Rule rule) {
+        for (int i = 0; i < row.length; i++) {
+            next[i] = nextGeneration(above, row, below, i, width, rule);
+        }
+    }
+
+    /**
+     * Calculate the next generation of a padded row, 64 cells at a time, and
+     * collect the changed words. The neighbors on the edges are read from
+     * the halo, the halo of the next generation is left to {@link Halo}.
+     * @param above
+     *            the padded row above
+     * @param row
+     *            the padded row to calculate
+     * @param below
+     *            the padded row below
+     * @param next
+     *            the padded row which receives the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param y
+     *            the index of the row, for the hash
+     * @param changes
+     *            the changes which receive the changed words
+     */
+    static void nextGeneration(long[] above, long[] row, long[] below,
+            long[] next, int width, Rule rule, int y, CellChanges changes) {
+        int last = words(width) - 1;
+        for (int i = 0; i < last; i++) {
+            long word = nextGeneration(above, row, below, i, width + 2, rule);
+            changes.addWord(y, i, row[i], word);
+            next[i] = word;
+        }
+        long mask = lastWordMask(width);
+        long word =
+                nextGeneration(above, row, below, last, width + 2, rule)
+                        & mask;
+        changes.addWord(y, last, row[last] & mask, word);
+        next[last] = word;
+    }
+
+    /**
+     * Calculate the next generation of one word of a row. The rows wrap
+     * around at the width like a torus.
+     * @param above
+     *            the row above
+     * @param row
+     *            the row to calculate
+     * @param below
+     *            the row below
+     * @param i
+     *            the index of the word to calculate
+     * @param width
+     *            the width of the rows
+     * @param rule
+     *            the rule of the game
+     * @return the next generation of the word
+     */
+    static long nextGeneration(long[] above, long[] row, long[] below, int i,
+            int width, Rule rule) {
+        int last = row.length - 1;
+        int lastBit = (width - 1) % WORD_SIZE;
+
+        long alive =
+                nextGeneration(west(above, i, last, lastBit), above[i],
+                        east(above, i, last, lastBit),
+                        west(row, i, last, lastBit), row[i],
+                        east(row, i, last, lastBit),
+                        west(below, i, last, lastBit), below[i],
+                        east(below, i, last, lastBit), rule);
+        return (i == last) ? alive & lastWordMask(width) : alive;
+    }
+
+    /**
+     * Calculate the next generation of a word from the words of the cells
+     * around it, with bitwise adders.
+     * @param aw
+     *            the north west neighbors
+     * @param a
+     *            the north neighbors
+     * @param ae
+     *            the north east neighbors
+     * @param cw
+     *            the west neighbors
+     * @param c
+     *            the cells to calculate
+     * @param ce
+     *            the east neighbors
+     * @param bw
+     *            the south west neighbors
+     * @param b
+     *            the south neighbors
+     * @param be
+     *            the south east neighbors
+     * @param rule
+     *            the rule of the game
+     * @return the next generation of the cells
+     */
+    static long nextGeneration(long aw, long a, long ae, long cw, long c,
+            long ce, long bw, long b, long be, Rule rule) {
+        // The horizontal sum of the three cells above (two bits).
+        long a1 = aw ^ a ^ ae;
+        long a2 = (aw & a) | (ae & (aw ^ a));
+
+        // The horizontal sum of the three cells below (two bits).
+        long b1 = bw ^ b ^ be;
+        long b2 = (bw & b) | (be & (bw ^ b));
+
+        // The sum of the left and right neighbor (two bits).
+        long c1 = cw ^ ce;
+        long c2 = cw & ce;
+
+        // Add the ones and carry into the twos.
+        long sum1 = a1 ^ b1 ^ c1;
+        long carry1 = (a1 & b1) | (c1 & (a1 ^ b1));
+
+        // Add the twos and the carry, the result is 0..4.
+        long t1 = a2 ^ b2 ^ c2;
+        long t2 = (a2 & b2) | (c2 & (a2 ^ b2));
+        long sum2 = t1 ^ carry1;
+        long carry2 = t1 & carry1;
+        long sum4 = t2 ^ carry2;
+        long sum8 = t2 & carry2;
+
+        if (rule.isConway()) {
+            // Survive with 2 or 3 neighbors, birth with 3 neighbors.
+            return sum2 & ~sum4 & ~sum8 & (sum1 | c);
+        }
+        return rule.getKernel().nextGeneration(c, sum1, sum2, sum4, sum8);
+    }
+
+    /**
+     * Calculate the next generation of a block of 64 x 64 cells. Row y of a
+     * block is the word y, the cell x is the bit x of the word.
+     * @param northWest
+     *            the block north west of the block
+     * @param north
+     *            the block north of the block
+     * @param northEast
+     *            the block north east of the block
+     * @param west
+     *            the block west of the block
+     * @param rows
+     *            the block to calculate
+     * @param east
+     *            the block east of the block
+     * @param southWest
+     *            the block south west of the block
+     * @param south
+     *            the block south of the block
+     * @param southEast
+     *            the block south east of the block
+     * @param next
+     *            the block which receives the next generation
+     * @param rule
+     *            the rule of the game
+     */
+    static void nextGeneration(long[] northWest, long[] north,
+            long[] northEast, long[] west, long[] rows, long[] east,
+            long[] southWest, long[] south, long[] southEast, long[] next,
+            Rule rule) {
+        int last = WORD_SIZE - 1;
+        for (int row = 0; row < WORD_SIZE; row++) {
+            long a = (row == 0) ? north[last] : rows[row - 1];
+            long aWest = (row == 0) ? northWest[last] : west[row - 1];
+            long aEast = (row == 0) ? northEast[last] : east[row - 1];
+            long b = (row == last) ? south[0] : rows[row + 1];
+            long bWest = (row == last) ? southWest[0] : west[row + 1];
+            long bEast = (row == last) ? southEast[0] : east[row + 1];
+            long c = rows[row];
+
+            // Shift the neighbors in, bit x holds the cell x - 1 or x + 1.
+            next[row] = nextGeneration(
+                    (a << 1) | (aWest >>> 63), a, (a >>> 1) | (aEast << 63),
+                    (c << 1) | (west[row] >>> 63), c,
+                    (c >>> 1) | (east[row] << 63),
+                    (b << 1) | (bWest >>> 63), b, (b >>> 1) | (bEast << 63),
+                    rule);
+        }
+    }
+
+    /**
+     * Get the word with the west neighbors of the cells of a word.
+     * @param row
+     *            the row
+     * @param i
+     *            the index of the word
+     * @param last
+     *            the index of the last word
+     * @param lastBit
+     *            the bit of the last cell in the last word
+     * @return the west neighbors, bit x holds the cell x - 1
+     */
+    private static long west(long[] row, int i, int last, int lastBit) {
+        long carry =
+                (i == 0) ? (row[last] >>> lastBit) & 1L : row[i - 1] >>> 63;
+        return (row[i] << 1) | carry;
+    }
+
+    /**
+     * Get the word with the east neighbors of the cells of a word.
+     * @param row
+     *            the row
+     * @param i
+     *            the index of the word
+     * @param last
+     *            the index of the last word
+     * @param lastBit
+     *            the bit of the last cell in the last word
+     * @return the east neighbors, bit x holds the cell x + 1
+     */
+    private static long east(long[] row, int i, int last, int lastBit) {
+        long carry =
+                (i == last) ? (row[0] & 1L) << lastBit : row[i + 1] << 63;
+        return (row[i] >>> 1) | carry;
+    }
+}
@@ -0,0 +1,39 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * This engine calculates 64 cells at a time with bitwise adders, see
+ * {@link BitRows#nextGeneration(long[], long[], long[], long[], int, Rule,
+ * int, CellChanges)}.
+ * @author Andreas Breer
+ */
+class BitwiseEngine extends RowBandEngine {
+
+    /**
+     * Calculate the next generation of a band of rows.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     * @param changes
+     *            the changes of the band, which receive every changed word
+     */
+    @Override
+    void calculateRows(long[][] cells, long[][] next, int width, int height,
+            Rule rule, int fromRow, int toRow, CellChanges changes) {
+        for (int y = fromRow; y < toRow; y++) {
+            long[] above = cells[(y == 0) ? height + 1 : y - 1];
+            BitRows.nextGeneration(above, cells[y], cells[y + 1], next[y],
+                    width, rule, y, changes);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The counters of the tile cache of an out-of-core world, accumulated over
+ * all generations.
+ * @author Andreas Breer
+ */
+public final class CacheStatistics {
+
+    /**
+     * The number of tiles found decompressed in the cache.
+     */
+    private final long hits;
+
+    /**
+     * The number of tiles which had to be decompressed.
+     */
+    private final long misses;
+
+    /**
+     * The number of compressed bytes kept in memory.
+     */
+    private final long compressedBytes;
+
+    /**
+     * The number of compressed bytes written to the scratch files.
+     */
+    private final long spilledBytes;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param hits
+     *            the number of tiles found in the cache
+     * @param misses
+     *            the number of tiles which had to be decompressed
+     * @param compressedBytes
+     *            the number of compressed bytes kept in memory
+     * @param spilledBytes
+     *            the number of bytes written to the scratch files
+     */
+    CacheStatistics(long hits, long misses, long compressedBytes,
+            long spilledBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.compressedBytes = compressedBytes;
+        this.spilledBytes = spilledBytes;
+    }
+
+    /**
+     * Get the number of tiles found decompressed in the cache.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of tiles which had to be decompressed.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of compressed bytes of the current generation kept in
+     * memory.
+     * @return the number of compressed bytes
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Get the number of compressed bytes written to the scratch files.
+     * @return the number of spilled bytes
+     */
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Get a readable representation of the counters.
+     * @return the counters as string
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%d hits, %d misses, %d bytes compressed, %d bytes spilled",
+                hits, misses, compressedBytes, spilledBytes);
+    }
+}
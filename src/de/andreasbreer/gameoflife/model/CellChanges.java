@@ -0,0 +1,92 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The changes of the cells from one generation to the next: the change of
+ * the Zobrist hash and the numbers of born and died cells. The engines add
+ * every word they calculate while they write it, so the changes are
+ * collected without another pass over the world. Every band of rows which is
+ * calculated by its own thread collects into its own changes, which are
+ * added up when the bands are joined.
+ * @author Andreas Breer
+ */
+final class CellChanges {
+
+    /**
+     * The exclusive or of the changes of the keys of the changed words.
+     */
+    private long hash;
+
+    /**
+     * The number of cells which awoke.
+     */
+    private long births;
+
+    /**
+     * The number of cells which died.
+     */
+    private long deaths;
+
+    /**
+     * Forget the collected changes.
+     */
+    void reset() {
+        hash = 0;
+        births = 0;
+        deaths = 0;
+    }
+
+    /**
+     * Collect the change of a word.
+     * @param y
+     *            the row of the word
+     * @param i
+     *            the index of the word in the row
+     * @param before
+     *            the cells of the word before
+     * @param after
+     *            the cells of the word after
+     */
+    void addWord(int y, int i, long before, long after) {
+        long changed = before ^ after;
+        if (changed != 0) {
+            hash ^= Zobrist.ofChange(y, i, before, after);
+            births += Long.bitCount(changed & after);
+            deaths += Long.bitCount(changed & before);
+        }
+    }
+
+    /**
+     * Add the changes collected by another band.
+     * @param other
+     *            the changes of the other band
+     */
+    void add(CellChanges other) {
+        hash ^= other.hash;
+        births += other.births;
+        deaths += other.deaths;
+    }
+
+    /**
+     * Get the exclusive or of the changes of the keys of the changed words.
+     * @return the change of the hash
+     */
+    long getHash() {
+        return hash;
+    }
+
+    /**
+     * Get the number of cells which awoke.
+     * @return the number of births
+     */
+    long getBirths() {
+        return births;
+    }
+
+    /**
+     * Get the number of cells which died.
+     * @return the number of deaths
+     */
+    long getDeaths() {
+        return deaths;
+    }
+}
@@ -1,9 +1,9 @@
-package de.andreasbreer.gameoflife.model;
-
-/**
- * The state of a cell.
- * @author Andreas Breer
- */
-public enum CellState {
-    ALIVE, DEAD, UNINITIALIZED
-}
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The state of a cell.
+ * @author Andreas Breer
+ */
+public enum CellState {
+    ALIVE, DEAD, UNINITIALIZED
+}
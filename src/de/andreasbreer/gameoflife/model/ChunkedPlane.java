@@ -0,0 +1,548 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.SplittableRandom;
+
+/**
+ * This class represents an unbounded plane. Unlike the world, the plane does
+ * not wrap around, so gliders fly away forever. The plane is stored in
+ * chunks of 64 x 64 cells, which are kept in a hash map by their chunk
+ * coordinates. A chunk is allocated when the activity reaches its border and
+ * released when it is empty, so the memory depends on the living area
+ * instead of the bounding rectangle.
+ * <p>
+ * The window of the plane is the rectangle at the origin which is filled
+ * with random cells and shown as an external world, see
+ * {@link ExternalWorld}. The cells which leave the window are calculated
+ * but not shown.
+ * @author Andreas Breer
+ */
+public class ChunkedPlane extends Observable implements ExternalWorld {
+
+    /**
+     * The size of a chunk in both directions. A row of a chunk is one word.
+     */
+    public static final int CHUNK_SIZE = BitRows.WORD_SIZE;
+
+    /**
+     * The chunks, keyed by their packed chunk coordinates.
+     */
+    private final Map<Long, Chunk> chunks = new HashMap<Long, Chunk>();
+
+    /**
+     * The width of the window.
+     */
+    private final int width;
+
+    /**
+     * The height of the window.
+     */
+    private final int height;
+
+    /**
+     * The number of calculated generations.
+     */
+    private long generation;
+
+    /**
+     * The rule which calculates the next generation.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The constructor of an empty plane, whose window is one chunk.
+     */
+    public ChunkedPlane() {
+        this(CHUNK_SIZE, CHUNK_SIZE);
+    }
+
+    /**
+     * The constructor of an empty plane using the size of the window.
+     * @param width
+     *            the width of the window
+     * @param height
+     *            the height of the window
+     */
+    public ChunkedPlane(int width, int height) {
+        super();
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * The constructor of this class using the field world. The living cells
+     * of the world are copied to the same positions of the plane, the rule
+     * of the world calculates the generations. The world is the window.
+     * @param world
+     *            the world to copy
+     * @throws IllegalArgumentException
+     *             if the rule of the world awakes cells without neighbors
+     */
+    public ChunkedPlane(World world) {
+        this(world.getWidth(), world.getHeight());
+        setRule(world.getRule());
+        long[][] rows = world.copyOfCells();
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < world.getWidth(); x++) {
+                if (BitRows.get(rows[y], x)) {
+                    setCellAlive(x, y, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the width of the window.
+     * @return the width of the window
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the window.
+     * @return the height of the window
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * This method fills the window with random cells, which only depend on
+     * the seed, all other cells die. The window gets the same cells as a
+     * {@link World} filled with the same probability and seed, see
+     * {@link World#random(int, long)}. As a band of the fill is as high as a
+     * chunk, every word of a band is a row of a chunk.
+     * @param probability
+     *            the probability in percent of a living cell
+     * @param seed
+     *            the seed of the random cells
+     */
+    public synchronized void random(int probability, long seed) {
+        chunks.clear();
+        SplittableRandom[] randoms = RandomFillTask.split(seed, height);
+        for (int fromRow = 0; fromRow < height; fromRow += CHUNK_SIZE) {
+            int toRow = Math.min(height, fromRow + CHUNK_SIZE);
+            long[][] band = BitRows.create(width, CHUNK_SIZE);
+            RandomFillTask.create(band, width, fromRow, toRow, probability,
+                    randoms).fillBands();
+            for (int i = 0; i < BitRows.words(width); i++) {
+                Chunk chunk = new Chunk(i, fromRow / CHUNK_SIZE);
+                for (int row = 0; row < CHUNK_SIZE; row++) {
+                    chunk.rows[row] = band[row][i];
+                }
+                if (!chunk.isEmpty()) {
+                    chunks.put(key(chunk.x, chunk.y), chunk);
+                }
+            }
+        }
+        generation = 0;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get the state of the cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return if the state of the cell at position x, y is ALIVE.
+     */
+    public synchronized boolean isCellAlive(long x, long y) {
+        int chunkX = chunkOf(x);
+        int chunkY = chunkOf(y);
+        Chunk chunk = chunks.get(key(chunkX, chunkY));
+        if (chunk == null) {
+            return false;
+        }
+        int row = (int) (y - (long) chunkY * CHUNK_SIZE);
+        long bit = 1L << (x - (long) chunkX * CHUNK_SIZE);
+        return (chunk.rows[row] & bit) != 0;
+    }
+
+    /**
+     * Set the state of the cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @param isAlive
+     *            the new state of the cell
+     */
+    public synchronized void setCellAlive(long x, long y, boolean isAlive) {
+        int chunkX = chunkOf(x);
+        int chunkY = chunkOf(y);
+        Chunk chunk = isAlive ? getOrCreateChunk(chunkX, chunkY)
+                : chunks.get(key(chunkX, chunkY));
+        if (chunk != null) {
+            int row = (int) (y - (long) chunkY * CHUNK_SIZE);
+            long bit = 1L << (x - (long) chunkX * CHUNK_SIZE);
+            chunk.rows[row] =
+                    isAlive ? chunk.rows[row] | bit : chunk.rows[row] & ~bit;
+            if (chunk.isEmpty()) {
+                chunks.remove(key(chunkX, chunkY));
+            }
+        }
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Toggle the state of the cell at x, y.
+     * @param x
+     *            the x position of the cell
+     * @param y
+     *            the y position of the cell
+     */
+    public synchronized void toggleStateofCell(long x, long y) {
+        setCellAlive(x, y, !isCellAlive(x, y));
+    }
+
+    /**
+     * Get the rule which calculates the next generation.
+     * @return the rule
+     */
+    public synchronized Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Set the rule which calculates the next generation.
+     * @param rule
+     *            the rule
+     * @throws IllegalArgumentException
+     *             if the rule awakes cells without neighbors, which would
+     *             fill the unbounded plane
+     */
+    public synchronized void setRule(Rule rule) {
+        if (rule.isBirthWithoutNeighbors()) {
+            throw new IllegalArgumentException("Rule not supported: " + rule);
+        }
+        this.rule = rule;
+    }
+
+    /**
+     * Get the number of allocated chunks.
+     * @return the number of chunks
+     */
+    public synchronized int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Get the number of living cells.
+     * @return the number of living cells
+     */
+    public synchronized long getPopulation() {
+        long population = 0;
+        for (Chunk chunk : chunks.values()) {
+            for (long row : chunk.rows) {
+                population += Long.bitCount(row);
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Get the number of calculated generations.
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Copy a window of the plane into a world.
+     * @param world
+     *            the world to write
+     * @param originX
+     *            the x-position of the plane shown at the left of the world
+     * @param originY
+     *            the y-position of the plane shown at the top of the world
+     */
+    public synchronized void copyTo(World world, long originX, long originY) {
+        long[][] rows = BitRows.create(world.getWidth(), world.getHeight());
+        for (Chunk chunk : chunks.values()) {
+            long chunkX = (long) chunk.x * CHUNK_SIZE - originX;
+            long chunkY = (long) chunk.y * CHUNK_SIZE - originY;
+            for (int row = 0; row < CHUNK_SIZE; row++) {
+                long y = chunkY + row;
+                if (chunk.rows[row] == 0 || y < 0 || y >= rows.length) {
+                    continue;
+                }
+                for (int bit = 0; bit < CHUNK_SIZE; bit++) {
+                    long x = chunkX + bit;
+                    if ((chunk.rows[row] & (1L << bit)) != 0 && x >= 0
+                            && x < world.getWidth()) {
+                        BitRows.set(rows[(int) y], (int) x);
+                    }
+                }
+            }
+        }
+        world.setCells(rows);
+    }
+
+    /**
+     * Copy the window into a view, which is at most as large as the window.
+     * A smaller view gets the window shrunk to its size, every cell of the
+     * view is alive if any cell of its block is alive.
+     * @param view
+     *            the world which shows the window
+     * @throws IllegalArgumentException
+     *             if the view is larger than the window
+     */
+    public synchronized void copyTo(World view) {
+        int viewWidth = view.getWidth();
+        int viewHeight = view.getHeight();
+        if (viewWidth > width || viewHeight > height) {
+            throw new IllegalArgumentException("The view of " + viewWidth
+                    + " x " + viewHeight + " cells is larger than the window.");
+        }
+        int scaleX = (width + viewWidth - 1) / viewWidth;
+        int scaleY = (height + viewHeight - 1) / viewHeight;
+
+        long[][] rows = BitRows.create(viewWidth, viewHeight);
+        int last = BitRows.words(width) - 1;
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.x < 0 || chunk.x > last || chunk.y < 0
+                    || (long) chunk.y * CHUNK_SIZE >= height) {
+                continue;
+            }
+            long mask = (chunk.x == last) ? BitRows.lastWordMask(width) : -1L;
+            for (int row = 0; row < CHUNK_SIZE; row++) {
+                int y = chunk.y * CHUNK_SIZE + row;
+                long word = (y < height) ? chunk.rows[row] & mask : 0L;
+                while (word != 0) {
+                    int x = (chunk.x << 6) + Long.numberOfTrailingZeros(word);
+                    BitRows.set(rows[y / scaleY], x / scaleX);
+                    word &= word - 1;
+                }
+            }
+        }
+        view.setCells(rows);
+    }
+
+    /**
+     * Release the chunks. The plane is empty afterwards.
+     */
+    public synchronized void close() {
+        chunks.clear();
+    }
+
+    /**
+     * Calculates and activates the next generation of the plane.
+     */
+    public synchronized void nextGeneration() {
+        allocateBorderChunks();
+
+        for (Chunk chunk : chunks.values()) {
+            calculateNextGeneration(chunk);
+        }
+
+        // Activate the next generation and release the empty chunks.
+        Iterator<Chunk> iterator = chunks.values().iterator();
+        while (iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+            long[] rows = chunk.rows;
+            chunk.rows = chunk.nextRows;
+            chunk.nextRows = rows;
+            if (chunk.isEmpty()) {
+                iterator.remove();
+            }
+        }
+
+        generation++;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Advance the world by a number of generations, one generation at a
+     * time. The advance stops early if the calling thread is interrupted.
+     * @param generations
+     *            the number of generations
+     * @return the number of calculated generations
+     */
+    public synchronized long advance(long generations) {
+        long advanced = 0;
+        while (advanced < generations
+                && !Thread.currentThread().isInterrupted()) {
+            nextGeneration();
+            advanced++;
+        }
+        return advanced;
+    }
+
+    /**
+     * Allocate the missing neighbors of all chunks with living cells at their
+     * border, so the activity can spread into them.
+     */
+    private void allocateBorderChunks() {
+        List<Chunk> borderChunks = new ArrayList<Chunk>();
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.isBorderAlive()) {
+                borderChunks.add(chunk);
+            }
+        }
+
+        for (Chunk chunk : borderChunks) {
+            for (int j = -1; j <= 1; j++) {
+                for (int i = -1; i <= 1; i++) {
+                    getOrCreateChunk(chunk.x + i, chunk.y + j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate the next generation of a chunk.
+     * @param chunk
+     *            the chunk
+     */
+    private void calculateNextGeneration(Chunk chunk) {
+        long[] north = rowsOf(chunk.x, chunk.y - 1);
+        long[] northWest = rowsOf(chunk.x - 1, chunk.y - 1);
+        long[] northEast = rowsOf(chunk.x + 1, chunk.y - 1);
+        long[] west = rowsOf(chunk.x - 1, chunk.y);
+        long[] east = rowsOf(chunk.x + 1, chunk.y);
+        long[] south = rowsOf(chunk.x, chunk.y + 1);
+        long[] southWest = rowsOf(chunk.x - 1, chunk.y + 1);
+        long[] southEast = rowsOf(chunk.x + 1, chunk.y + 1);
+
+        BitRows.nextGeneration(northWest, north, northEast, west,
+                chunk.rows, east, southWest, south, southEast, chunk.nextRows,
+                rule);
+    }
+
+    /**
+     * Get the rows of a chunk.
+     * @param chunkX
+     *            the x-coordinate of the chunk
+     * @param chunkY
+     *            the y-coordinate of the chunk
+     * @return the rows, empty rows if the chunk does not exist
+     */
+    private long[] rowsOf(int chunkX, int chunkY) {
+        Chunk chunk = chunks.get(key(chunkX, chunkY));
+        return (chunk != null) ? chunk.rows : Chunk.EMPTY_ROWS;
+    }
+
+    /**
+     * Get a chunk, allocate it if it does not exist.
+     * @param chunkX
+     *            the x-coordinate of the chunk
+     * @param chunkY
+     *            the y-coordinate of the chunk
+     * @return the chunk
+     */
+    private Chunk getOrCreateChunk(int chunkX, int chunkY) {
+        Long key = key(chunkX, chunkY);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(chunkX, chunkY);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Get the chunk coordinate of a cell coordinate.
+     * @param position
+     *            the coordinate of the cell
+     * @return the coordinate of the chunk
+     */
+    private static int chunkOf(long position) {
+        return (int) Math.floorDiv(position, (long) CHUNK_SIZE);
+    }
+
+    /**
+     * Pack the coordinates of a chunk into a key.
+     * @param chunkX
+     *            the x-coordinate of the chunk
+     * @param chunkY
+     *            the y-coordinate of the chunk
+     * @return the key
+     */
+    private static Long key(int chunkX, int chunkY) {
+        return Long.valueOf(((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL));
+    }
+
+    /**
+     * A chunk of 64 x 64 cells. The row y is the word y, the cell x is the
+     * bit x of the word.
+     */
+    private static final class Chunk {
+
+        /**
+         * The rows of a missing chunk.
+         */
+        private static final long[] EMPTY_ROWS = new long[CHUNK_SIZE];
+
+        /**
+         * The x-coordinate of this chunk.
+         */
+        private final int x;
+
+        /**
+         * The y-coordinate of this chunk.
+         */
+        private final int y;
+
+        /**
+         * The rows of the current generation.
+         */
+        private long[] rows = new long[CHUNK_SIZE];
+
+        /**
+         * The rows of the next generation.
+         */
+        private long[] nextRows = new long[CHUNK_SIZE];
+
+        /**
+         * The constructor using the coordinates of the chunk.
+         * @param x
+         *            the x-coordinate of the chunk
+         * @param y
+         *            the y-coordinate of the chunk
+         */
+        private Chunk(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * Determine whether no cell of this chunk is alive.
+         * @return <code>true</code> if the chunk is empty
+         */
+        private boolean isEmpty() {
+            for (long row : rows) {
+                if (row != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Determine whether a cell at the border of this chunk is alive.
+         * @return <code>true</code> if the border is alive
+         */
+        private boolean isBorderAlive() {
+            if (rows[0] != 0 || rows[CHUNK_SIZE - 1] != 0) {
+                return true;
+            }
+            for (long row : rows) {
+                if ((row & (1L | 1L << 63)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * A cycle the world entered: from the entry generation on, every generation
+ * repeats after the period. A period of one is a still life.
+ * @author Andreas Breer
+ */
+public final class Cycle {
+
+    /**
+     * The first generation of the cycle.
+     */
+    private final long entryGeneration;
+
+    /**
+     * The number of generations after which the world repeats.
+     */
+    private final long period;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param entryGeneration
+     *            the first generation of the cycle
+     * @param period
+     *            the number of generations after which the world repeats
+     */
+    Cycle(long entryGeneration, long period) {
+        this.entryGeneration = entryGeneration;
+        this.period = period;
+    }
+
+    /**
+     * Get the first generation of the cycle.
+     * @return the entry generation
+     */
+    public long getEntryGeneration() {
+        return entryGeneration;
+    }
+
+    /**
+     * Get the number of generations after which the world repeats.
+     * @return the period
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Get a readable representation of the cycle.
+     * @return the cycle as string
+     */
+    @Override
+    public String toString() {
+        return String.format("period %d entered at generation %d", period,
+                entryGeneration);
+    }
+}
@@ -0,0 +1,24 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * What the game does when the world entered a cycle.
+ * @author Andreas Breer
+ */
+public enum CycleAction {
+    /**
+     * Keep calculating the generations.
+     */
+    NONE,
+
+    /**
+     * Stop the game.
+     */
+    PAUSE,
+
+    /**
+     * Skip the remaining generations of a batch run, only the generations
+     * of the last incomplete period are calculated. The running game stops,
+     * like with {@link #PAUSE}.
+     */
+    FAST_FORWARD
+}
@@ -0,0 +1,97 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * This class detects when a world entered a cycle. It keeps the
+ * fingerprints of the last generations in a rolling window and reports a
+ * cycle as soon as a fingerprint repeats. Cycles with a period longer than
+ * the window are not detected.
+ * @author Andreas Breer
+ */
+public class CycleDetector {
+
+    /**
+     * The fingerprints of the last generations, a ring buffer.
+     */
+    private final long[] fingerprints;
+
+    /**
+     * The generations of the fingerprints.
+     */
+    private final long[] generations;
+
+    /**
+     * The number of fingerprints in the window.
+     */
+    private int count;
+
+    /**
+     * The index of the next fingerprint in the ring buffer.
+     */
+    private int next;
+
+    /**
+     * The detected cycle, or <code>null</code>.
+     */
+    private Cycle cycle;
+
+    /**
+     * The constructor of this class using the size of the window.
+     * @param window
+     *            the number of generations to remember, the longest period
+     *            which is detected
+     */
+    public CycleDetector(int window) {
+        fingerprints = new long[window];
+        generations = new long[window];
+    }
+
+    /**
+     * Forget all generations, for example after the world was changed by
+     * hand.
+     */
+    public void reset() {
+        count = 0;
+        next = 0;
+        cycle = null;
+    }
+
+    /**
+     * Add the fingerprint of a generation to the window.
+     * @param generation
+     *            the generation
+     * @param fingerprint
+     *            the fingerprint of the generation, see
+     *            {@link World#getFingerprint()}
+     * @return the cycle if it was detected by this generation, otherwise
+     *         <code>null</code>
+     */
+    public Cycle update(long generation, long fingerprint) {
+        if (cycle != null) {
+            return null;
+        }
+
+        // Search from the newest generation, so the shortest period is found.
+        for (int i = 1; i <= count; i++) {
+            int index = (next - i + fingerprints.length) % fingerprints.length;
+            if (fingerprints[index] == fingerprint) {
+                cycle = new Cycle(generations[index],
+                        generation - generations[index]);
+                return cycle;
+            }
+        }
+
+        fingerprints[next] = fingerprint;
+        generations[next] = generation;
+        next = (next + 1) % fingerprints.length;
+        count = Math.min(count + 1, fingerprints.length);
+        return null;
+    }
+
+    /**
+     * Get the detected cycle.
+     * @return the cycle, or <code>null</code> if no cycle was detected
+     */
+    public Cycle getCycle() {
+        return cycle;
+    }
+}
@@ -0,0 +1,460 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Observable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class represents a world which is calculated by worker processes.
+ * The world is split into horizontal strips, and every strip is owned by a
+ * {@link StripWorker} running in its own virtual machine. The workers
+ * exchange the rows at the edges of their strips with their neighbors over
+ * sockets, while this coordinator only starts the generations and gathers
+ * the cells. All sockets use the loopback interface, so the workers run on
+ * this machine.
+ * <p>
+ * The world is a torus. The workers fill their strips themselves, see
+ * {@link #random(int, long)}, and the cells are shown by copying them into a
+ * {@link World} of the size of the view, see {@link #copyTo(World)}. So the
+ * whole world is never held by this process.
+ * @author Andreas Breer
+ */
+public class DistributedWorld extends Observable implements ExternalWorld {
+
+    /**
+     * A logger for all kinds of info-messages, warnings and errors.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(DistributedWorld.class);
+
+    /**
+     * The seconds to wait for a worker to stop.
+     */
+    private static final int STOP_TIMEOUT = 10;
+
+    /**
+     * The width of the world.
+     */
+    private final int width;
+
+    /**
+     * The height of the world.
+     */
+    private final int height;
+
+    /**
+     * The first row of every strip, and the height as end of the last strip.
+     */
+    private final int[] stripRows;
+
+    /**
+     * The worker processes.
+     */
+    private final Process[] processes;
+
+    /**
+     * The connections to the workers.
+     */
+    private final Socket[] sockets;
+
+    /**
+     * The streams of the commands to the workers.
+     */
+    private final DataOutputStream[] commands;
+
+    /**
+     * The streams of the answers of the workers.
+     */
+    private final DataInputStream[] answers;
+
+    /**
+     * The number of calculated generations.
+     */
+    private long generation;
+
+    /**
+     * The times of the last generation.
+     */
+    private ExchangeStatistics statistics;
+
+    /**
+     * The constructor of this class using the fields width, height, rule and
+     * workers. The workers are started with empty strips.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param workers
+     *            the number of worker processes
+     * @throws IOException
+     *             if a worker cannot be started or connected
+     * @throws IllegalArgumentException
+     *             if the world has fewer rows than workers
+     */
+    public DistributedWorld(int width, int height, Rule rule, int workers)
+            throws IOException {
+        super();
+        this.width = width;
+        this.height = height;
+        if (workers < 1 || height < workers || width < 2) {
+            throw new IllegalArgumentException("Cannot split " + width
+                    + " x " + height + " into " + workers + " strips.");
+        }
+
+        stripRows = new int[workers + 1];
+        for (int i = 0; i <= workers; i++) {
+            stripRows[i] = (int) ((long) height * i / workers);
+        }
+        processes = new Process[workers];
+        sockets = new Socket[workers];
+        commands = new DataOutputStream[workers];
+        answers = new DataInputStream[workers];
+
+        try {
+            start(rule);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        statistics = new ExchangeStatistics(generation, 0, 0, 0);
+    }
+
+    /**
+     * The constructor of this class using the fields world and workers. The
+     * workers are started, and the rule and the cells of the world are
+     * distributed to them, one strip after the other.
+     * @param world
+     *            the world to copy
+     * @param workers
+     *            the number of worker processes
+     * @throws IOException
+     *             if a worker cannot be started or connected
+     * @throws IllegalArgumentException
+     *             if the world has fewer rows than workers or is not a torus
+     */
+    public DistributedWorld(World world, int workers) throws IOException {
+        this(world.getWidth(), world.getHeight(), world.getRule(), workers);
+        try {
+            if (world.getTopology() != Topology.TORUS) {
+                throw new IllegalArgumentException("Topology not supported: "
+                        + world.getTopology());
+            }
+            load(world);
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (IllegalArgumentException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Start the workers and connect them in a ring.
+     * @param rule
+     *            the rule of the game
+     * @throws IOException
+     *             if a worker cannot be started or connected
+     */
+    private void start(Rule rule) throws IOException {
+        String java =
+                System.getProperty("java.home") + File.separator + "bin"
+                        + File.separator + "java";
+        int[] haloPorts = new int[processes.length];
+        for (int i = 0; i < processes.length; i++) {
+            ProcessBuilder builder =
+                    new ProcessBuilder(java, "-cp",
+                            System.getProperty("java.class.path"),
+                            StripWorker.class.getName());
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            processes[i] = builder.start();
+
+            // The worker tells its ports on the first line.
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(processes[i]
+                            .getInputStream(), "US-ASCII"));
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Worker " + i + " did not start.");
+            }
+            String[] ports = line.trim().split(" ");
+            haloPorts[i] = Integer.parseInt(ports[1]);
+            sockets[i] =
+                    new Socket(InetAddress.getLoopbackAddress(), Integer
+                            .parseInt(ports[0]));
+            sockets[i].setTcpNoDelay(true);
+            commands[i] = StripWorker.output(sockets[i]);
+            answers[i] = StripWorker.input(sockets[i]);
+        }
+
+        for (int i = 0; i < processes.length; i++) {
+            commands[i].writeInt(StripWorker.SETUP);
+            commands[i].writeInt(width);
+            commands[i].writeInt(stripRows[i]);
+            commands[i].writeInt(stripRows[i + 1] - stripRows[i]);
+            commands[i].writeUTF(rule.toString());
+            commands[i].writeInt(haloPorts[(i + 1) % processes.length]);
+            commands[i].flush();
+        }
+        awaitDone();
+        LOGGER.info("Started " + processes.length + " workers for a world of "
+                + width + " x " + height + " cells.");
+    }
+
+    /**
+     * Send the rows of a world to the workers. Only the rows of one strip are
+     * copied at a time, and the world is locked meanwhile, so all strips are
+     * of the same generation.
+     * @param world
+     *            the world
+     * @throws IOException
+     *             if a worker cannot be reached
+     */
+    private void load(World world) throws IOException {
+        synchronized (world) {
+            for (int i = 0; i < processes.length; i++) {
+                commands[i].writeInt(StripWorker.LOAD);
+                for (long[] row : world.copyOfRows(stripRows[i],
+                        stripRows[i + 1])) {
+                    StripWorker.writeRow(commands[i], row);
+                }
+                commands[i].flush();
+            }
+        }
+        awaitDone();
+    }
+
+    /**
+     * Wait until every worker answered a command without result.
+     * @throws IOException
+     *             if a worker failed
+     */
+    private void awaitDone() throws IOException {
+        for (int i = 0; i < processes.length; i++) {
+            if (answers[i].readInt() != StripWorker.DONE) {
+                throw new IOException("Worker " + i + " failed.");
+            }
+        }
+    }
+
+    /**
+     * Get the width of the world.
+     * @return the width of the world
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the world.
+     * @return the height of the world
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the number of worker processes.
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return processes.length;
+    }
+
+    /**
+     * Get the number of calculated generations.
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the number of living cells. Every worker counts the cells of its
+     * own strip.
+     * @return the number of living cells
+     * @throws IOException
+     *             if a worker cannot be reached
+     */
+    public synchronized long getPopulation() throws IOException {
+        for (DataOutputStream command : commands) {
+            command.writeInt(StripWorker.COUNT);
+            command.flush();
+        }
+        long population = 0;
+        for (DataInputStream answer : answers) {
+            population += answer.readLong();
+        }
+        return population;
+    }
+
+    /**
+     * Get the times of the last generation.
+     * @return the times
+     */
+    public synchronized ExchangeStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Fill the world with random cells. Every worker fills its own strip, and
+     * the world gets the same cells as a {@link World} filled with the same
+     * probability and seed, see {@link World#random(int, long)}.
+     * @param probability
+     *            the probability of a living cell in percent
+     * @param seed
+     *            the seed of the random cells
+     * @throws IOException
+     *             if a worker cannot be reached
+     */
+    public synchronized void random(int probability, long seed)
+            throws IOException {
+        for (DataOutputStream command : commands) {
+            command.writeInt(StripWorker.FILL);
+            command.writeInt(probability);
+            command.writeLong(seed);
+            command.flush();
+        }
+        awaitDone();
+        generation = 0;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Calculates and activates the next generation of the world. The workers
+     * calculate their strips at the same time.
+     * @throws IOException
+     *             if a worker cannot be reached
+     */
+    public synchronized void nextGeneration() throws IOException {
+        long time = System.nanoTime();
+        for (DataOutputStream command : commands) {
+            command.writeInt(StripWorker.STEP);
+            command.flush();
+        }
+
+        long communicationTime = 0;
+        long computeTime = 0;
+        for (DataInputStream answer : answers) {
+            communicationTime = Math.max(communicationTime, answer.readLong());
+            computeTime = Math.max(computeTime, answer.readLong());
+        }
+        generation++;
+        statistics =
+                new ExchangeStatistics(generation, communicationTime,
+                        computeTime, System.nanoTime() - time);
+
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Advance the world by a number of generations, one generation at a
+     * time. The advance stops early if the calling thread is interrupted.
+     * @param generations
+     *            the number of generations
+     * @return the number of calculated generations
+     * @throws IOException
+     *             if a worker cannot be reached
+     */
+    public synchronized long advance(long generations) throws IOException {
+        long advanced = 0;
+        while (advanced < generations
+                && !Thread.currentThread().isInterrupted()) {
+            nextGeneration();
+            advanced++;
+        }
+        return advanced;
+    }
+
+    /**
+     * Gather the cells from the workers into a view. A view of the dimension
+     * of this world gets a copy of the cells, a smaller view gets the world
+     * shrunk to its size. The workers shrink their strips, so only the cells
+     * of the view are sent.
+     * @param view
+     *            the world which shows this world
+     * @throws IOException
+     *             if a worker cannot be reached
+     * @throws IllegalArgumentException
+     *             if the view is larger than this world
+     */
+    public synchronized void copyTo(World view) throws IOException {
+        int viewWidth = view.getWidth();
+        int viewHeight = view.getHeight();
+        if (viewWidth > width || viewHeight > height) {
+            throw new IllegalArgumentException("The view of " + viewWidth
+                    + " x " + viewHeight + " cells is larger than the world.");
+        }
+        int scaleX = (width + viewWidth - 1) / viewWidth;
+        int scaleY = (height + viewHeight - 1) / viewHeight;
+
+        for (DataOutputStream command : commands) {
+            command.writeInt(StripWorker.GATHER);
+            command.writeInt(scaleX);
+            command.writeInt(scaleY);
+            command.writeInt(viewWidth);
+            command.flush();
+        }
+        long[][] rows = BitRows.create(viewWidth, viewHeight);
+        long[] row = new long[BitRows.words(viewWidth)];
+        for (int i = 0; i < processes.length; i++) {
+            // A block of rows shared by two strips is sent by both workers.
+            int fromRow = stripRows[i] / scaleY;
+            int toRow = (stripRows[i + 1] - 1) / scaleY;
+            for (int y = fromRow; y <= toRow; y++) {
+                StripWorker.readRow(answers[i], row);
+                for (int j = 0; j < row.length; j++) {
+                    rows[y][j] |= row[j];
+                }
+            }
+        }
+        view.setCells(rows);
+    }
+
+    /**
+     * Stop the workers.
+     * @throws IOException
+     *             if a connection cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        for (int i = 0; i < processes.length; i++) {
+            if (commands[i] != null) {
+                try {
+                    commands[i].writeInt(StripWorker.STOP);
+                    commands[i].flush();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not stop worker " + i, e);
+                }
+                sockets[i].close();
+                commands[i] = null;
+            }
+        }
+
+        for (int i = 0; i < processes.length; i++) {
+            if (processes[i] != null) {
+                try {
+                    if (!processes[i].waitFor(STOP_TIMEOUT, TimeUnit.SECONDS)) {
+                        processes[i].destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    processes[i].destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+                processes[i] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The engines which calculate the next generation of a world.
+ * @author Andreas Breer
+ */
+public enum EngineType {
+    BITWISE, ACTIVE_SET, TILED, VECTOR, LOOKUP_TABLE;
+
+    /**
+     * The name of the module of the vector API.
+     */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Determine whether the engine of this type can run on this platform. The
+     * vector engine needs the module <code>jdk.incubator.vector</code>, which
+     * has to be added with <code>--add-modules jdk.incubator.vector</code>.
+     * @return <code>true</code> if the engine is available
+     */
+    public boolean isAvailable() {
+        if (this == VECTOR) {
+            return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+        }
+        return true;
+    }
+
+    /**
+     * Create a new engine of this type. If the engine is not available, the
+     * bitwise engine calculates the same generations one word at a time.
+     * @return the engine
+     */
+    GenerationEngine createEngine() {
+        switch (this) {
+        case ACTIVE_SET:
+            return new ActiveSetEngine();
+        case TILED:
+            return new TiledEngine();
+        case LOOKUP_TABLE:
+            return new LookupTableEngine();
+        case VECTOR:
+            return isAvailable() ? new VectorEngine() : new BitwiseEngine();
+        default:
+            return new BitwiseEngine();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The times of one generation of a distributed world. The workers calculate
+ * their strips at the same time, so the times are the maxima over the
+ * workers.
+ * @author Andreas Breer
+ */
+public final class ExchangeStatistics {
+
+    /**
+     * The generation of the world.
+     */
+    private final long generation;
+
+    /**
+     * The nanoseconds a worker spent exchanging the halo.
+     */
+    private final long communicationTime;
+
+    /**
+     * The nanoseconds a worker spent calculating its strip.
+     */
+    private final long computeTime;
+
+    /**
+     * The nanoseconds the coordinator waited for the generation.
+     */
+    private final long stepTime;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param generation
+     *            the generation of the world
+     * @param communicationTime
+     *            the nanoseconds a worker spent exchanging the halo
+     * @param computeTime
+     *            the nanoseconds a worker spent calculating its strip
+     * @param stepTime
+     *            the nanoseconds the coordinator waited for the generation
+     */
+    ExchangeStatistics(long generation, long communicationTime,
+            long computeTime, long stepTime) {
+        this.generation = generation;
+        this.communicationTime = communicationTime;
+        this.computeTime = computeTime;
+        this.stepTime = stepTime;
+    }
+
+    /**
+     * Get the generation of the world.
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the longest time a worker spent exchanging the halo, including the
+     * time it waited for its neighbors.
+     * @return the time in nanoseconds
+     */
+    public long getCommunicationTime() {
+        return communicationTime;
+    }
+
+    /**
+     * Get the longest time a worker spent calculating its strip.
+     * @return the time in nanoseconds
+     */
+    public long getComputeTime() {
+        return computeTime;
+    }
+
+    /**
+     * Get the time the coordinator waited for the generation, including the
+     * commands and answers.
+     * @return the time in nanoseconds
+     */
+    public long getStepTime() {
+        return stepTime;
+    }
+
+    /**
+     * Get a readable representation of the times.
+     * @return the times as string
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "generation %d: %d us communication, %d us compute, %d us step",
+                generation, communicationTime / 1000, computeTime / 1000,
+                stepTime / 1000);
+    }
+}
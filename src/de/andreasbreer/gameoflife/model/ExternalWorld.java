@@ -0,0 +1,87 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A world whose cells are not kept in a {@link World}, like a world which is
+ * calculated by worker processes. The game calculates its generations and
+ * shows them in its own world, which is a view of the external world, see
+ * {@link GameModel#setExternalWorld(ExternalWorld)}. The view may be smaller
+ * than the external world.
+ * @author Andreas Breer
+ */
+public interface ExternalWorld extends Closeable {
+
+    /**
+     * Get the width of the world.
+     * @return the width of the world
+     */
+    int getWidth();
+
+    /**
+     * Get the height of the world.
+     * @return the height of the world
+     */
+    int getHeight();
+
+    /**
+     * Get the number of generations calculated since the world was filled.
+     * @return the generation
+     */
+    long getGeneration();
+
+    /**
+     * Get the number of living cells of the whole world, not only of the
+     * part which is shown.
+     * @return the number of living cells
+     * @throws IOException
+     *             if the cells cannot be read
+     */
+    long getPopulation() throws IOException;
+
+    /**
+     * Fill the world with random cells, which only depend on the seed.
+     * @param probability
+     *            the probability of a living cell in percent
+     * @param seed
+     *            the seed of the random cells
+     * @throws IOException
+     *             if the cells cannot be written
+     */
+    void random(int probability, long seed) throws IOException;
+
+    /**
+     * Calculates and activates the next generation of the world.
+     * @throws IOException
+     *             if the cells cannot be read or written
+     */
+    void nextGeneration() throws IOException;
+
+    /**
+     * Advance the world by a number of generations. The world may calculate
+     * them in larger steps than one generation. The advance stops early if
+     * the calling thread is interrupted.
+     * @param generations
+     *            the number of generations
+     * @return the number of calculated generations, less than requested if
+     *         the calling thread was interrupted
+     * @throws IOException
+     *             if the cells cannot be read or written
+     */
+    long advance(long generations) throws IOException;
+
+    /**
+     * Copy the cells into a view, which is at most as large as this world. A
+     * smaller view gets the world shrunk to its size: every cell of the view
+     * stands for a block of cells and is alive if any cell of the block is
+     * alive.
+     * @param view
+     *            the world which shows this world
+     * @throws IOException
+     *             if the cells cannot be read
+     * @throws IllegalArgumentException
+     *             if the view is larger than this world
+     */
+    void copyTo(World view) throws IOException;
+}
@@ -1,159 +1,502 @@
-package de.andreasbreer.gameoflife.model;
-
-/**
- * This class represents the game itself.
- * @author Andreas Breer
- */
-public class GameModel implements Runnable {
-
-    /**
-     * The default value for the frame width.
-     */
-    private final static int DEFAULT_FRAME_WIDTH = 35;
-
-    /**
-     * The default value for the frame height.
-     */
-    private final static int DEFAULT_FRAME_HEIGHT = 35;
-
-    /**
-     * The default value for the frames per seconds.
-     */
-    private final static int DEFAULT_FRAMES_PER_SECOND = 15;
-
-    /**
-     * The state of this game.
-     */
-    private GameState state;
-
-    /**
-     * The frames that should calculate per seconds.
-     */
-    private int framesPerSecond;
-
-    /**
-     * The world to play on.
-     */
-    private World world;
-
-    /**
-     * The thread that calculates the next generation.
-     */
-    private Thread gameThread;
-
-    /**
-     * The constructor of this class.
-     */
-    public GameModel() {
-        this(DEFAULT_FRAME_WIDTH, DEFAULT_FRAME_HEIGHT);
-    }
-
-    /**
-     * The constructor of this class using the fields width and height.
-     * @param width
-     *            the width of the world
-     * @param height
-     *            the height of this world
-     */
-    public GameModel(int width, int height) {
-        this.state = GameState.INITIALIZE;
-        this.setFramesPerSecond(DEFAULT_FRAMES_PER_SECOND);
-        this.world = new World(width, height);
-        this.gameThread = new Thread(this);
-        this.gameThread.start();
-
-    }
-
-    /**
-     * Get the state of this game.
-     * @return the state of this game.
-     */
-    public synchronized GameState getState() {
-        return state;
-    }
-
-    /**
-     * Determine whether the game is running.
-     * @return <code>true</code> if the game is running
-     */
-    public synchronized boolean isRunnung() {
-        return (GameState.RUNNING.equals(state));
-    }
-
-    /**
-     * This method starts the game.
-     */
-    public synchronized void startGame() {
-        this.state = GameState.RUNNING;
-        synchronized (world) {
-            world.notify();
-        }
-    }
-
-    /**
-     * This method stops the game.
-     */
-    public synchronized void stopGame() {
-        this.state = GameState.STOPPED;
-    }
-
-    /**
-     * Get the frames per second.
-     * @return the frames per seconds
-     */
-    public synchronized int getFramesPerSecond() {
-        return framesPerSecond;
-    }
-
-    /**
-     * Set the frames per seconds.
-     * @param framesPerSecond
-     *            the frames per second
-     */
-    public synchronized void setFramesPerSecond(int framesPerSecond) {
-        this.framesPerSecond = framesPerSecond;
-    }
-
-    /**
-     * Get the world of this game.
-     * @return the world
-     */
-    public World getWorld() {
-        return world;
-    }
-
-    /**
-     * Run the thread to calculate the next generation.
-     */
-    public void run() {
-        while (!Thread.currentThread().isInterrupted()) {
-            // Wait when the game stopped.
-            synchronized (world) {
-                if (!isRunnung()) {
-                    try {
-                        world.wait();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
-
-            // Calculate the next generation.
-            long time = System.currentTimeMillis();
-            world.nextGeneration();
-            time = System.currentTimeMillis() - time;
-            long sleeptime = 1000 / framesPerSecond - time;
-
-            // Go to sleep for a while.
-            if (sleeptime > 0) {
-                try {
-                    Thread.sleep(sleeptime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
-
-    }
-
-}
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class represents the game itself.
+ * @author Andreas Breer
+ */
+public class GameModel implements Runnable {
+
+    /**
+     * A logger for all kinds of info-messages, warnings and errors.
+     */
+    private static final Logger LOGGER = Logger.getLogger(GameModel.class);
+
+    /**
+     * The default value for the frame width.
+     */
+    private final static int DEFAULT_FRAME_WIDTH = 35;
+
+    /**
+     * The default value for the frame height.
+     */
+    private final static int DEFAULT_FRAME_HEIGHT = 35;
+
+    /**
+     * The default value for the frames per seconds.
+     */
+    private final static int DEFAULT_FRAMES_PER_SECOND = 15;
+
+    /**
+     * The number of generations searched for a cycle.
+     */
+    private final static int DEFAULT_CYCLE_WINDOW = 64;
+
+    /**
+     * The number of generations and paints whose times are kept.
+     */
+    private final static int TIME_SAMPLES = 1024;
+
+    /**
+     * The number of nanoseconds per millisecond.
+     */
+    private final static long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * The state of this game.
+     */
+    private GameState state;
+
+    /**
+     * The frames that should calculate per seconds.
+     */
+    private int framesPerSecond;
+
+    /**
+     * The world to play on.
+     */
+    private World world;
+
+    /**
+     * The world which is calculated instead of the world to play on, or
+     * <code>null</code>. The world to play on then shows it.
+     */
+    private ExternalWorld externalWorld;
+
+    /**
+     * The thread that calculates the next generation.
+     */
+    private Thread gameThread;
+
+    /**
+     * The detector of cycles of the world.
+     */
+    private final CycleDetector cycleDetector = new CycleDetector(
+            DEFAULT_CYCLE_WINDOW);
+
+    /**
+     * The generation whose fingerprint was added to the cycle detector last.
+     */
+    private long lastGeneration = -1;
+
+    /**
+     * The modification count of the world when its fingerprint was added to
+     * the cycle detector last.
+     */
+    private long lastModification = -1;
+
+    /**
+     * What the game does when the world entered a cycle.
+     */
+    private CycleAction cycleAction = CycleAction.NONE;
+
+    /**
+     * The times to calculate the last generations.
+     */
+    private final TimeSamples stepTimes = new TimeSamples(TIME_SAMPLES);
+
+    /**
+     * The times between the starts of the last generations while the game
+     * was running.
+     */
+    private final TimeSamples frameTimes = new TimeSamples(TIME_SAMPLES);
+
+    /**
+     * The times to paint the world, added by the view.
+     */
+    private final TimeSamples paintTimes = new TimeSamples(TIME_SAMPLES);
+
+    /**
+     * The constructor of this class.
+     */
+    public GameModel() {
+        this(DEFAULT_FRAME_WIDTH, DEFAULT_FRAME_HEIGHT);
+    }
+
+    /**
+     * The constructor of this class using the fields width and height.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of this world
+     */
+    public GameModel(int width, int height) {
+        this.state = GameState.INITIALIZE;
+        this.setFramesPerSecond(DEFAULT_FRAMES_PER_SECOND);
+        this.world = new World(width, height);
+        this.gameThread = new Thread(this);
+        this.gameThread.start();
+
+    }
+
+    /**
+     * Get the state of this game.
+     * @return the state of this game.
+     */
+    public synchronized GameState getState() {
+        return state;
+    }
+
+    /**
+     * Determine whether the game is running.
+     * @return <code>true</code> if the game is running
+     */
+    public synchronized boolean isRunnung() {
+        return (GameState.RUNNING.equals(state));
+    }
+
+    /**
+     * This method starts the game.
+     */
+    public synchronized void startGame() {
+        this.state = GameState.RUNNING;
+        synchronized (world) {
+            world.notify();
+        }
+    }
+
+    /**
+     * This method stops the game.
+     */
+    public synchronized void stopGame() {
+        this.state = GameState.STOPPED;
+    }
+
+    /**
+     * Get the frames per second.
+     * @return the frames per seconds
+     */
+    public synchronized int getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    /**
+     * Set the frames per seconds.
+     * @param framesPerSecond
+     *            the frames per second
+     * @throws IllegalArgumentException
+     *             if the frames per second are less than one
+     */
+    public synchronized void setFramesPerSecond(int framesPerSecond) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException("Invalid frames per second: "
+                    + framesPerSecond);
+        }
+        this.framesPerSecond = framesPerSecond;
+    }
+
+    /**
+     * Get what the game does when the world entered a cycle.
+     * @return the action
+     */
+    public synchronized CycleAction getCycleAction() {
+        return cycleAction;
+    }
+
+    /**
+     * Set what the game does when the world entered a cycle.
+     * @param cycleAction
+     *            the action
+     */
+    public synchronized void setCycleAction(CycleAction cycleAction) {
+        this.cycleAction = cycleAction;
+    }
+
+    /**
+     * Get the cycle the world entered.
+     * @return the cycle, or <code>null</code> if no cycle was detected since
+     *         the world was changed
+     */
+    public Cycle getCycle() {
+        long modification = world.getModificationCount();
+        synchronized (cycleDetector) {
+            if (modification != lastModification) {
+                // The world was changed by hand since the cycle was found.
+                cycleDetector.reset();
+            }
+            return cycleDetector.getCycle();
+        }
+    }
+
+    /**
+     * Calculate a number of generations without notifying the observers in
+     * between. If the world enters a cycle and the cycle action is
+     * {@link CycleAction#PAUSE}, the run stops. With
+     * {@link CycleAction#FAST_FORWARD} only the generations of the last
+     * incomplete period are calculated, the others are skipped.
+     * @param generations
+     *            the number of generations
+     * @return the number of generations the world advanced
+     */
+    public long runBatch(long generations) {
+        ExternalWorld external = getExternalWorld();
+        if (external != null) {
+            return runExternalBatch(external, generations);
+        }
+
+        long start;
+        long fingerprint;
+        long modification;
+        synchronized (world) {
+            start = world.getGeneration();
+            fingerprint = world.getFingerprint();
+            modification = world.getModificationCount();
+        }
+        synchronized (cycleDetector) {
+            cycleDetector.reset();
+            lastGeneration = start;
+            lastModification = modification;
+            cycleDetector.update(start, fingerprint);
+        }
+
+        long done = world.advance(generations, new ProgressListener() {
+
+            /**
+             * Stop the advance when the world entered a cycle.
+             * @param done
+             *            the number of generations calculated so far
+             * @param total
+             *            the number of generations to calculate
+             */
+            public void generationCalculated(long done, long total) {
+                if (detectCycle() != null
+                        && getCycleAction() != CycleAction.NONE) {
+                    world.cancelAdvance();
+                }
+            }
+        });
+
+        Cycle cycle = getCycle();
+        if (cycle != null && done < generations
+                && getCycleAction() == CycleAction.FAST_FORWARD) {
+            long remaining = generations - done;
+            long rest = remaining % cycle.getPeriod();
+            world.advance(rest);
+            world.skipGenerations(remaining - rest);
+        }
+        return world.getGeneration() - start;
+    }
+
+    /**
+     * Calculate a number of generations of the external world in one
+     * advance, so HashLife can jump over them, and show the last one.
+     * @param external
+     *            the external world
+     * @param generations
+     *            the number of generations
+     * @return the number of generations the external world advanced
+     */
+    private long runExternalBatch(ExternalWorld external, long generations) {
+        long start = external.getGeneration();
+        try {
+            external.advance(generations);
+            external.copyTo(world);
+        } catch (IOException e) {
+            LOGGER.error("The external world failed.", e);
+        }
+        return external.getGeneration() - start;
+    }
+
+    /**
+     * Calculate the next generation of the external world and show it. The
+     * game stops if the external world fails.
+     * @param external
+     *            the external world
+     */
+    private void nextExternalGeneration(ExternalWorld external) {
+        try {
+            external.nextGeneration();
+            external.copyTo(world);
+        } catch (IOException e) {
+            LOGGER.error("The external world failed, the game stops.", e);
+            stopGame();
+        }
+    }
+
+    /**
+     * Add the current generation of the world to the cycle detector. With
+     * temporal blocking the world advances by up to the blocking depth at a
+     * time, so only these generations are seen and the detected period is a
+     * multiple of the real one.
+     * @return the cycle if the world just entered it, otherwise
+     *         <code>null</code>
+     */
+    private Cycle detectCycle() {
+        long generation;
+        long fingerprint;
+        long modification;
+        int depth;
+        synchronized (world) {
+            generation = world.getGeneration();
+            fingerprint = world.getFingerprint();
+            modification = world.getModificationCount();
+            depth = world.getBlockingDepth();
+        }
+        Cycle cycle;
+        synchronized (cycleDetector) {
+            long step = generation - lastGeneration;
+            if (modification != lastModification || step < 1
+                    || step > depth) {
+                // The world was changed by hand since the last generation.
+                cycleDetector.reset();
+            }
+            lastGeneration = generation;
+            lastModification = modification;
+            cycle = cycleDetector.update(generation, fingerprint);
+        }
+
+        if (cycle != null) {
+            LOGGER.info("The world entered a cycle: " + cycle);
+        }
+        return cycle;
+    }
+
+    /**
+     * Get the world of this game.
+     * @return the world
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the world which is calculated instead of the world of this game.
+     * @return the external world, or <code>null</code> if the world of this
+     *         game is calculated
+     */
+    public synchronized ExternalWorld getExternalWorld() {
+        return externalWorld;
+    }
+
+    /**
+     * Calculate an external world instead of the world of this game, for
+     * worlds which are too large for the heap or the view. The world of this
+     * game then shows the external world after every generation, shrunk to
+     * its size, and is not calculated itself. No cycles are detected.
+     * @param externalWorld
+     *            the external world, at least as large as the world of this
+     *            game, or <code>null</code> to calculate the world of this
+     *            game again
+     * @throws IOException
+     *             if the cells of the external world cannot be read
+     * @throws IllegalArgumentException
+     *             if the external world is smaller than the world of this
+     *             game
+     */
+    public void setExternalWorld(ExternalWorld externalWorld)
+            throws IOException {
+        // The world is locked without the lock of the game, as the thread of
+        // the game locks the game while it holds the lock of the world.
+        if (externalWorld != null) {
+            externalWorld.copyTo(world);
+        }
+        synchronized (this) {
+            this.externalWorld = externalWorld;
+        }
+    }
+
+    /**
+     * Get the times to calculate the last generations of the running game.
+     * @return the times
+     */
+    public TimeSamples getStepTimes() {
+        return stepTimes;
+    }
+
+    /**
+     * Get the times between the starts of the last generations of the
+     * running game. A pause is not counted.
+     * @return the times
+     */
+    public TimeSamples getFrameTimes() {
+        return frameTimes;
+    }
+
+    /**
+     * Get the times to paint the world. The view adds the times.
+     * @return the times
+     */
+    public TimeSamples getPaintTimes() {
+        return paintTimes;
+    }
+
+    /**
+     * Stop the thread which calculates the generations of the running game
+     * and wait until it ended. The game cannot be started again afterwards.
+     * A model which is not shown, like the model of a headless run, must be
+     * shut down, or its thread keeps the virtual machine alive.
+     */
+    public void shutdown() {
+        gameThread.interrupt();
+        try {
+            gameThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run the thread to calculate the next generation.
+     */
+    public void run() {
+        // The start of the last generation, 0 after a pause.
+        long lastStart = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            // Wait when the game stopped.
+            synchronized (world) {
+                if (!isRunnung()) {
+                    lastStart = 0;
+                    try {
+                        world.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+
+            // Calculate the next generation.
+            long start = System.nanoTime();
+            if (lastStart != 0) {
+                frameTimes.add(start - lastStart);
+            }
+            lastStart = start;
+            ExternalWorld external = getExternalWorld();
+            if (external != null) {
+                nextExternalGeneration(external);
+            } else {
+                world.nextGeneration();
+                if (detectCycle() != null
+                        && getCycleAction() != CycleAction.NONE) {
+                    stopGame();
+                }
+            }
+            long time = System.nanoTime() - start;
+            stepTimes.add(time);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format(
+                        "Generation calculated in %d us on %d threads",
+                        world.getLastGenerationTime() / 1000,
+                        world.getParallelism()));
+            }
+            long sleeptime =
+                    1000 / getFramesPerSecond() - time / NANOS_PER_MILLI;
+
+            // Go to sleep for a while.
+            if (sleeptime > 0) {
+                try {
+                    Thread.sleep(sleeptime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+    }
+
+}
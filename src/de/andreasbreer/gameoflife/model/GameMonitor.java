@@ -0,0 +1,199 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class exposes the metrics and the controls of a running game as a
+ * platform MBean, so the game can be watched and controlled with JConsole
+ * without a profiler. The MBean only reads the model, except for the
+ * operations and the frames per second.
+ * @author Andreas Breer
+ */
+public class GameMonitor implements GameMonitorMBean {
+
+    /**
+     * The name of the MBean of the game.
+     */
+    public static final String OBJECT_NAME =
+            "de.andreasbreer.gameoflife:type=GameModel";
+
+    /**
+     * A logger for all kinds of info-messages, warnings and errors.
+     */
+    private static final Logger LOGGER = Logger.getLogger(GameMonitor.class);
+
+    /**
+     * The number of nanoseconds per microsecond.
+     */
+    private static final long NANOS_PER_MICRO = 1000;
+
+    /**
+     * The number of nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The watched game.
+     */
+    private final GameModel model;
+
+    /**
+     * The constructor of this class using the field model.
+     * @param model
+     *            the watched game
+     */
+    public GameMonitor(GameModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Register a monitor of a game at the platform MBean server. A failure is
+     * logged, because the game runs without it.
+     * @param model
+     *            the watched game
+     * @return the monitor
+     */
+    public static GameMonitor register(GameModel model) {
+        GameMonitor monitor = new GameMonitor(model);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(monitor,
+                    new ObjectName(OBJECT_NAME));
+            LOGGER.info("Registered the MBean " + OBJECT_NAME);
+        } catch (JMException e) {
+            LOGGER.warn("Could not register the MBean " + OBJECT_NAME, e);
+        }
+        return monitor;
+    }
+
+    /**
+     * Get the state of the game.
+     * @return the name of the state
+     */
+    public String getState() {
+        return model.getState().name();
+    }
+
+    /**
+     * Get the generation of the world, which is the generation of the
+     * external world if the game calculates one.
+     * @return the generation
+     */
+    public long getGeneration() {
+        ExternalWorld external = model.getExternalWorld();
+        if (external != null) {
+            return external.getGeneration();
+        }
+        return model.getWorld().getGeneration();
+    }
+
+    /**
+     * Get the number of living cells. If the game calculates an external
+     * world, its cells are counted instead of the cells of the view.
+     * @return the population, -1 if the external world cannot be read
+     */
+    public long getPopulation() {
+        ExternalWorld external = model.getExternalWorld();
+        if (external != null) {
+            try {
+                return external.getPopulation();
+            } catch (IOException e) {
+                LOGGER.warn("Could not count the cells of the external world.",
+                        e);
+                return -1;
+            }
+        }
+        return model.getWorld().getStatistics().getPopulation();
+    }
+
+    /**
+     * Get the frames per second the game should calculate.
+     * @return the target frames per second
+     */
+    public int getFramesPerSecond() {
+        return model.getFramesPerSecond();
+    }
+
+    /**
+     * Set the frames per second the game should calculate.
+     * @param framesPerSecond
+     *            the target frames per second, at least 1
+     */
+    public void setFramesPerSecond(int framesPerSecond) {
+        model.setFramesPerSecond(framesPerSecond);
+        LOGGER.info("Frames per second set to " + framesPerSecond);
+    }
+
+    /**
+     * Get the frames per second the game calculated recently.
+     * @return the achieved frames per second, or 0 if the game is not running
+     */
+    public double getAchievedFramesPerSecond() {
+        double interval = model.getFrameTimes().getMean();
+        if (!model.isRunnung() || interval == 0) {
+            return 0;
+        }
+        return NANOS_PER_SECOND / interval;
+    }
+
+    /**
+     * Get the median time to calculate a generation.
+     * @return the time in microseconds
+     */
+    public long getStepTimeMedian() {
+        return model.getStepTimes().getPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Get the 99th percentile of the time to calculate a generation.
+     * @return the time in microseconds
+     */
+    public long getStepTime99thPercentile() {
+        return model.getStepTimes().getPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Get the longest time to calculate a generation.
+     * @return the time in microseconds
+     */
+    public long getStepTimeMax() {
+        return model.getStepTimes().getPercentile(100) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Get the median time to paint the world.
+     * @return the time in microseconds
+     */
+    public long getPaintTimeMedian() {
+        return model.getPaintTimes().getPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Get the longest time to paint the world.
+     * @return the time in microseconds
+     */
+    public long getPaintTimeMax() {
+        return model.getPaintTimes().getPercentile(100) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Start the game.
+     */
+    public void start() {
+        LOGGER.info("Game started by JMX");
+        model.startGame();
+    }
+
+    /**
+     * Stop the game.
+     */
+    public void stop() {
+        LOGGER.info("Game stopped by JMX");
+        model.stopGame();
+    }
+}
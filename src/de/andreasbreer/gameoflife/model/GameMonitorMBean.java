@@ -0,0 +1,87 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The management interface of a running game, shown by JConsole and other
+ * JMX clients. The times are given in microseconds and are taken over the
+ * last generations and paints, see {@link GameModel#getStepTimes()}.
+ * @author Andreas Breer
+ */
+public interface GameMonitorMBean {
+
+    /**
+     * Get the state of the game.
+     * @return the name of the state
+     */
+    String getState();
+
+    /**
+     * Get the generation of the world.
+     * @return the generation
+     */
+    long getGeneration();
+
+    /**
+     * Get the number of living cells.
+     * @return the population
+     */
+    long getPopulation();
+
+    /**
+     * Get the frames per second the game should calculate.
+     * @return the target frames per second
+     */
+    int getFramesPerSecond();
+
+    /**
+     * Set the frames per second the game should calculate.
+     * @param framesPerSecond
+     *            the target frames per second, at least 1
+     */
+    void setFramesPerSecond(int framesPerSecond);
+
+    /**
+     * Get the frames per second the game calculated recently.
+     * @return the achieved frames per second, or 0 if the game is not running
+     */
+    double getAchievedFramesPerSecond();
+
+    /**
+     * Get the median time to calculate a generation.
+     * @return the time in microseconds
+     */
+    long getStepTimeMedian();
+
+    /**
+     * Get the 99th percentile of the time to calculate a generation.
+     * @return the time in microseconds
+     */
+    long getStepTime99thPercentile();
+
+    /**
+     * Get the longest time to calculate a generation.
+     * @return the time in microseconds
+     */
+    long getStepTimeMax();
+
+    /**
+     * Get the median time to paint the world.
+     * @return the time in microseconds
+     */
+    long getPaintTimeMedian();
+
+    /**
+     * Get the longest time to paint the world.
+     * @return the time in microseconds
+     */
+    long getPaintTimeMax();
+
+    /**
+     * Start the game.
+     */
+    void start();
+
+    /**
+     * Stop the game.
+     */
+    void stop();
+}
@@ -1,9 +1,9 @@
-package de.andreasbreer.gameoflife.model;
-
-/**
- * The state of the game.
- * @author Andreas Breer
- */
-public enum GameState {
-    RUNNING, STOPPED, INITIALIZE
-}
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The state of the game.
+ * @author Andreas Breer
+ */
+public enum GameState {
+    RUNNING, STOPPED, INITIALIZE
+}
@@ -0,0 +1,59 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A strategy which calculates the next generation of the cells of a world.
+ * The cells are stored as rows of bitmaps padded with a halo, see
+ * {@link BitRows#createPadded(int, int)}. The engines read the neighbors on
+ * the edges from the halo and only write the cells of the world, the halo is
+ * written by {@link Halo}.
+ * @author Andreas Breer
+ */
+interface GenerationEngine {
+
+    /**
+     * Calculate the next generation of the cells.
+     * @param cells
+     *            the padded rows of the current generation
+     * @param next
+     *            the padded rows which may receive the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param pool
+     *            the pool of threads to calculate with, or <code>null</code>
+     *            if the calling thread calculates
+     * @param changes
+     *            the changes which receive every changed word, collected
+     *            while the words are calculated
+     * @return the rows of the next generation, either <code>next</code> or
+     *         <code>cells</code> which were changed in place
+     */
+    long[][] nextGeneration(long[][] cells, long[][] next, int width,
+            int height, Rule rule, ForkJoinPool pool, CellChanges changes);
+
+    /**
+     * Forget everything the engine knows about the cells. Called whenever the
+     * cells are changed outside of the engine.
+     */
+    void reset();
+
+    /**
+     * Take notice of a cell which was toggled outside of the engine, after
+     * the last generation. An engine which remembers the cells only forgets
+     * about the neighborhood of this cell.
+     * @param cells
+     *            the rows of the cells, with the cell already toggled
+     * @param x
+     *            the x-position of the cell, width and width + 1 are the
+     *            halo
+     * @param y
+     *            the y-position of the cell, height and height + 1 are the
+     *            halo
+     */
+    void cellToggled(long[][] cells, int x, int y);
+}
@@ -0,0 +1,146 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.Arrays;
+
+/**
+ * This class writes the halo around the padded rows of a world, see
+ * {@link BitRows#createPadded(int, int)}. The halo holds the neighbors of the
+ * cells on the edges as the topology joins the edges, so the engines read
+ * the neighbors of every cell without looking at the topology. Only the ring
+ * of the halo is written, and every cell of the halo which changed is
+ * reported to the engine, so the engine keeps what it knows about the cells.
+ * @author Andreas Breer
+ */
+final class Halo {
+
+    /**
+     * The topology which fills the halo.
+     */
+    private final Topology topology;
+
+    /**
+     * The buffer of a halo row.
+     */
+    private long[] row = new long[0];
+
+    /**
+     * The constructor of this class using all fields.
+     * @param topology
+     *            the topology which fills the halo
+     */
+    Halo(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Write the halo of the cells from the cells on the edges.
+     * @param cells
+     *            the padded rows of the world, whose halo is written
+     * @param previous
+     *            the padded rows with the halo before, either
+     *            <code>cells</code> or the rows of the last generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param engine
+     *            the engine which is told about the changed cells of the halo
+     */
+    void refresh(long[][] cells, long[][] previous, int width, int height,
+            GenerationEngine engine) {
+        // The halo rows below the last row and above the first row.
+        refreshRow(cells, previous, height, cells[0], width, engine);
+        refreshRow(cells, previous, height + 1, cells[height - 1], width,
+                engine);
+
+        // The halo columns right of the last column and left of the first
+        // column, with the corners of the halo rows.
+        boolean isWrapping = topology.isWrappingRows();
+        for (int y = 0; y < height + 2; y++) {
+            refreshCell(cells, previous, width, y,
+                    isWrapping && BitRows.get(cells[y], 0), engine);
+            refreshCell(cells, previous, width + 1, y,
+                    isWrapping && BitRows.get(cells[y], width - 1), engine);
+        }
+    }
+
+    /**
+     * Write the cells of a halo row from the row on the opposite edge. The
+     * cells of the halo columns in the row are kept.
+     * @param cells
+     *            the padded rows of the world
+     * @param previous
+     *            the padded rows with the halo before
+     * @param y
+     *            the index of the halo row
+     * @param source
+     *            the row on the opposite edge
+     * @param width
+     *            the width of the world, without the halo
+     * @param engine
+     *            the engine which is told about the changed cells
+     */
+    private void refreshRow(long[][] cells, long[][] previous, int y,
+            long[] source, int width, GenerationEngine engine) {
+        int words = BitRows.words(width);
+        long lastWordMask = BitRows.lastWordMask(width);
+        if (row.length != words) {
+            row = new long[words];
+        }
+        Arrays.fill(row, 0L);
+        if (topology.isWrappingColumns()) {
+            if (topology.isMirroringColumns()) {
+                for (int x = 0; x < width; x++) {
+                    if (BitRows.get(source, width - 1 - x)) {
+                        BitRows.set(row, x);
+                    }
+                }
+            } else {
+                System.arraycopy(source, 0, row, 0, words);
+                row[words - 1] &= lastWordMask;
+            }
+        }
+
+        // Read the halo before, which may be the same row, then write.
+        long[] before = previous[y];
+        long[] halo = cells[y];
+        for (int i = 0; i < words; i++) {
+            long mask = (i == words - 1) ? lastWordMask : -1L;
+            long changed = (row[i] ^ before[i]) & mask;
+            halo[i] = row[i] | (halo[i] & ~mask);
+            while (changed != 0) {
+                int bit = Long.numberOfTrailingZeros(changed);
+                engine.cellToggled(cells, (i << 6) + bit, y);
+                changed &= changed - 1;
+            }
+        }
+    }
+
+    /**
+     * Write a cell of a halo column.
+     * @param cells
+     *            the padded rows of the world
+     * @param previous
+     *            the padded rows with the halo before
+     * @param x
+     *            the x-position of the cell, width or width + 1
+     * @param y
+     *            the index of the row
+     * @param isAlive
+     *            the new state of the cell
+     * @param engine
+     *            the engine which is told about a changed cell
+     */
+    private static void refreshCell(long[][] cells, long[][] previous,
+            int x, int y, boolean isAlive, GenerationEngine engine) {
+        boolean wasAlive = BitRows.get(previous[y], x);
+        if (isAlive) {
+            BitRows.set(cells[y], x);
+        } else {
+            cells[y][x >>> 6] &= ~(1L << x);
+        }
+        if (isAlive != wasAlive) {
+            engine.cellToggled(cells, x, y);
+        }
+    }
+}
@@ -0,0 +1,783 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import de.andreasbreer.util.HashUtils;
+
+/**
+ * This class calculates generations with the HashLife algorithm of Bill
+ * Gosper. The plane is stored as a quadtree whose nodes are shared: every
+ * distinct square of cells exists only once in the node cache. Every node
+ * remembers the result of its center after a number of generations, so
+ * repeating structures are calculated only once and the generations can be
+ * advanced in exponential jumps.
+ * <p>
+ * Unlike the world, the plane of this class is unbounded. The cells are read
+ * from a world and written back into a world, cells outside the world are
+ * dropped. The results only equal the world's torus as long as no pattern
+ * reaches the border of the world.
+ * <p>
+ * The window of the plane is the rectangle at the origin which the cells
+ * were read into. It is filled with random cells and shown as an external
+ * world, see {@link ExternalWorld}.
+ * @author Andreas Breer
+ */
+public class HashLife implements ExternalWorld {
+
+    /**
+     * The default value for the maximal number of nodes in the cache before
+     * the unused nodes are released.
+     */
+    private final static int DEFAULT_MAX_CACHE_SIZE = 4000000;
+
+    /**
+     * The smallest level of the root. A node needs at least level 2 to
+     * calculate a successor.
+     */
+    private final static int MIN_ROOT_LEVEL = 3;
+
+    /**
+     * The level of the blocks whose rows fit into one word of the world.
+     */
+    private final static int WORD_LEVEL = 6;
+
+    /**
+     * The dead leaf.
+     */
+    private final Node dead = new Node(false);
+
+    /**
+     * The living leaf.
+     */
+    private final Node alive = new Node(true);
+
+    /**
+     * The rule which calculates the next generation.
+     */
+    private final Rule rule;
+
+    /**
+     * The width of the window.
+     */
+    private final int width;
+
+    /**
+     * The height of the window.
+     */
+    private final int height;
+
+    /**
+     * The cache of all distinct nodes. The key of every node is the node
+     * itself.
+     */
+    private Map<Node, Node> cache = new HashMap<Node, Node>();
+
+    /**
+     * The empty nodes, indexed by their level.
+     */
+    private Node[] emptyNodes = new Node[] { dead };
+
+    /**
+     * The maximal number of nodes in the cache before the unused nodes are
+     * released.
+     */
+    private int maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+    /**
+     * The root of the quadtree.
+     */
+    private Node root;
+
+    /**
+     * The x-position of the upper left cell of the root.
+     */
+    private long originX;
+
+    /**
+     * The y-position of the upper left cell of the root.
+     */
+    private long originY;
+
+    /**
+     * The number of generations calculated since the cells were read.
+     */
+    private long generation;
+
+    /**
+     * The constructor of this class using the field world. The living cells
+     * of the world are the initial state of the plane, the rule of the world
+     * calculates the generations.
+     * @param world
+     *            the world to read
+     * @throws IllegalArgumentException
+     *             if the rule of the world awakes cells without neighbors,
+     *             which would fill the unbounded plane
+     */
+    public HashLife(World world) {
+        this(world.getWidth(), world.getHeight(), world.getRule());
+        root = read(world.copyOfCells());
+    }
+
+    /**
+     * The constructor of an empty plane using the size of the window and
+     * the rule.
+     * @param width
+     *            the width of the window
+     * @param height
+     *            the height of the window
+     * @param rule
+     *            the rule which calculates the generations
+     * @throws IllegalArgumentException
+     *             if the rule awakes cells without neighbors, which would
+     *             fill the unbounded plane
+     */
+    public HashLife(int width, int height, Rule rule) {
+        if (rule.isBirthWithoutNeighbors()) {
+            throw new IllegalArgumentException("Rule not supported: " + rule);
+        }
+        this.width = width;
+        this.height = height;
+        this.rule = rule;
+        root = empty(rootLevel());
+    }
+
+    /**
+     * Get the width of the window.
+     * @return the width of the window
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the window.
+     * @return the height of the window
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the number of generations calculated since the cells were read.
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * This method fills the window with random cells, which only depend on
+     * the seed, all other cells die. The window gets the same cells as a
+     * {@link World} filled with the same probability and seed, see
+     * {@link World#random(int, long)}. The nodes of the cells before are
+     * released.
+     * @param probability
+     *            the probability in percent of a living cell
+     * @param seed
+     *            the seed of the random cells
+     */
+    public synchronized void random(int probability, long seed) {
+        long[][] rows = BitRows.create(width, height);
+        RandomFillTask.create(rows, width, height, probability, seed)
+                .fillBands();
+        releaseNodes();
+        root = read(rows);
+        originX = 0;
+        originY = 0;
+        generation = 0;
+    }
+
+    /**
+     * Calculates the next generation of the plane.
+     */
+    public void nextGeneration() {
+        advance(1);
+    }
+
+    /**
+     * Get the number of living cells on the plane.
+     * @return the number of living cells
+     */
+    public synchronized long getPopulation() {
+        return root.population;
+    }
+
+    /**
+     * Get the number of distinct nodes in the cache.
+     * @return the size of the node cache
+     */
+    public synchronized int getNodeCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Set the maximal number of nodes in the cache. When the cache grows
+     * beyond this size, all nodes which are not part of the current plane are
+     * released.
+     * @param maxCacheSize
+     *            the maximal size of the node cache
+     */
+    public synchronized void setMaxCacheSize(int maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Advance the plane by a number of generations. The number is split into
+     * jumps of powers of two. The advance stops between two jumps if the
+     * calling thread is interrupted.
+     * @param generations
+     *            the number of generations
+     * @return the number of calculated generations
+     */
+    public synchronized long advance(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException(
+                    "The generations must not be negative: " + generations);
+        }
+
+        long advanced = 0;
+        for (int exponent = 0; generations != 0
+                && !Thread.currentThread().isInterrupted(); exponent++) {
+            if ((generations & 1L) != 0) {
+                advancePowerOfTwo(exponent);
+                advanced += 1L << exponent;
+            }
+            generations >>>= 1;
+        }
+        return advanced;
+    }
+
+    /**
+     * Advance the plane by 2^exponent generations in one jump.
+     * @param exponent
+     *            the exponent of the number of generations
+     */
+    public synchronized void advancePowerOfTwo(int exponent) {
+        if (exponent < 0 || exponent > 61) {
+            throw new IllegalArgumentException(
+                    "The exponent must be between 0 and 61: " + exponent);
+        }
+
+        // The pattern has to stay inside the center after the jump.
+        while (root.level < exponent + 2 || !isPadded(root)) {
+            expand();
+        }
+        expand();
+
+        root = successor(root, exponent);
+        originX += 1L << (root.level - 1);
+        originY += 1L << (root.level - 1);
+        generation += 1L << exponent;
+
+        if (cache.size() > maxCacheSize) {
+            collectGarbage();
+        }
+    }
+
+    /**
+     * Write the cells of the window into a view, which is at most as large
+     * as the window. The cells outside of the window are dropped. A smaller
+     * view gets the window shrunk to its size, every cell of the view is
+     * alive if any cell of its block is alive.
+     * @param view
+     *            the world to write
+     * @throws IllegalArgumentException
+     *             if the view is larger than the window
+     */
+    public synchronized void copyTo(World view) {
+        int viewWidth = view.getWidth();
+        int viewHeight = view.getHeight();
+        if (viewWidth > width || viewHeight > height) {
+            throw new IllegalArgumentException("The view of " + viewWidth
+                    + " x " + viewHeight + " cells is larger than the window.");
+        }
+        long[][] rows = BitRows.create(width, height);
+        write(root, originX, originY, rows, width);
+        if (viewWidth < width || viewHeight < height) {
+            int scaleX = (width + viewWidth - 1) / viewWidth;
+            int scaleY = (height + viewHeight - 1) / viewHeight;
+            long[][] window = rows;
+            rows = BitRows.create(viewWidth, viewHeight);
+            for (int y = 0; y < height; y++) {
+                BitRows.addScaled(window[y], width, scaleX, rows[y / scaleY]);
+            }
+        }
+        view.setCells(rows);
+    }
+
+    /**
+     * Release the nodes. The plane is empty afterwards.
+     */
+    public synchronized void close() {
+        releaseNodes();
+        root = empty(rootLevel());
+        originX = 0;
+        originY = 0;
+    }
+
+    /**
+     * Get the smallest level of a root which holds the window.
+     * @return the level
+     */
+    private int rootLevel() {
+        int level = MIN_ROOT_LEVEL;
+        while ((1L << level) < Math.max(width, height)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Read the cells of the window into a root.
+     * @param rows
+     *            the rows of the window
+     * @return the root
+     */
+    private Node read(long[][] rows) {
+        return read(rows, width, rootLevel(), 0, 0);
+    }
+
+    /**
+     * Read a square of cells from the rows of a world.
+     * @param rows
+     *            the rows of the world
+     * @param width
+     *            the width of the world
+     * @param level
+     *            the level of the square
+     * @param x
+     *            the x-position of the upper left cell of the square
+     * @param y
+     *            the y-position of the upper left cell of the square
+     * @return the node of the square
+     */
+    private Node read(long[][] rows, int width, int level, long x, long y) {
+        if (x >= width || y >= rows.length) {
+            return empty(level);
+        }
+
+        if (level == 0) {
+            return BitRows.get(rows[(int) y], (int) x) ? alive : dead;
+        }
+
+        if (level == WORD_LEVEL && isEmptyBlock(rows, x, y)) {
+            return empty(level);
+        }
+
+        long half = 1L << (level - 1);
+        return join(read(rows, width, level - 1, x, y),
+                read(rows, width, level - 1, x + half, y),
+                read(rows, width, level - 1, x, y + half),
+                read(rows, width, level - 1, x + half, y + half));
+    }
+
+    /**
+     * Determine whether a block of 64 x 64 cells of a world is empty.
+     * @param rows
+     *            the rows of the world
+     * @param x
+     *            the x-position of the block, a multiple of 64
+     * @param y
+     *            the y-position of the block
+     * @return <code>true</code> if no cell of the block is alive
+     */
+    private static boolean isEmptyBlock(long[][] rows, long x, long y) {
+        int word = (int) (x / BitRows.WORD_SIZE);
+        int end = (int) Math.min(rows.length, y + BitRows.WORD_SIZE);
+        for (int row = (int) y; row < end; row++) {
+            if (rows[row][word] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the living cells of a node into the rows of a world.
+     * @param node
+     *            the node to write
+     * @param x
+     *            the x-position of the upper left cell of the node
+     * @param y
+     *            the y-position of the upper left cell of the node
+     * @param rows
+     *            the rows of the world
+     * @param width
+     *            the width of the world
+     */
+    private static void write(Node node, long x, long y, long[][] rows,
+            int width) {
+        long size = 1L << node.level;
+        if (node.population == 0 || x >= width || y >= rows.length
+                || x + size <= 0 || y + size <= 0) {
+            return;
+        }
+
+        if (node.level == 0) {
+            BitRows.set(rows[(int) y], (int) x);
+            return;
+        }
+
+        long half = size >>> 1;
+        write(node.nw, x, y, rows, width);
+        write(node.ne, x + half, y, rows, width);
+        write(node.sw, x, y + half, rows, width);
+        write(node.se, x + half, y + half, rows, width);
+    }
+
+    /**
+     * Determine whether all living cells of a node are inside its center.
+     * @param node
+     *            the node to check
+     * @return <code>true</code> if the border of the node is empty
+     */
+    private static boolean isPadded(Node node) {
+        return node.nw.se.population + node.ne.sw.population
+                + node.sw.ne.population + node.se.nw.population
+                == node.population;
+    }
+
+    /**
+     * Surround the root with empty space. The old root becomes the center of
+     * the new root.
+     */
+    private void expand() {
+        Node border = empty(root.level - 1);
+        root = join(join(border, border, border, root.nw),
+                join(border, border, root.ne, border),
+                join(border, root.sw, border, border),
+                join(root.se, border, border, border));
+        originX -= 1L << (root.level - 2);
+        originY -= 1L << (root.level - 2);
+    }
+
+    /**
+     * Get the empty node of a level.
+     * @param level
+     *            the level
+     * @return the empty node
+     */
+    private Node empty(int level) {
+        if (level >= emptyNodes.length) {
+            Node[] nodes = new Node[level + 1];
+            System.arraycopy(emptyNodes, 0, nodes, 0, emptyNodes.length);
+            for (int i = emptyNodes.length; i <= level; i++) {
+                Node child = nodes[i - 1];
+                nodes[i] = join(child, child, child, child);
+            }
+            emptyNodes = nodes;
+        }
+        return emptyNodes[level];
+    }
+
+    /**
+     * Get the distinct node with the given quadrants.
+     * @param nw
+     *            the north west quadrant
+     * @param ne
+     *            the north east quadrant
+     * @param sw
+     *            the south west quadrant
+     * @param se
+     *            the south east quadrant
+     * @return the node from the cache
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        Node node = new Node(nw, ne, sw, se);
+        Node cached = cache.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        cache.put(node, node);
+        return node;
+    }
+
+    /**
+     * Calculate the center of a node after 2^exponent generations.
+     * @param node
+     *            the node of level k
+     * @param exponent
+     *            the exponent of the generations, at most k - 2
+     * @return the center of level k - 1
+     */
+    private Node successor(Node node, int exponent) {
+        if (node.population == 0) {
+            return node.nw;
+        }
+
+        if (node.level == 2) {
+            return successorOfSmallestNode(node);
+        }
+
+        boolean fullStep = (exponent == node.level - 2);
+        if (fullStep && node.result != null) {
+            return node.result;
+        }
+        if (!fullStep && node.stepExponent == exponent) {
+            return node.stepResult;
+        }
+
+        // The nine overlapping sub squares, advanced by the first half of
+        // a full step or by the whole smaller step.
+        int subExponent = fullStep ? exponent - 1 : exponent;
+        Node n00 = successor(node.nw, subExponent);
+        Node n01 = successor(join(node.nw.ne, node.ne.nw, node.nw.se,
+                node.ne.sw), subExponent);
+        Node n02 = successor(node.ne, subExponent);
+        Node n10 = successor(join(node.nw.sw, node.nw.se, node.sw.nw,
+                node.sw.ne), subExponent);
+        Node n11 = successor(join(node.nw.se, node.ne.sw, node.sw.ne,
+                node.se.nw), subExponent);
+        Node n12 = successor(join(node.ne.sw, node.ne.se, node.se.nw,
+                node.se.ne), subExponent);
+        Node n20 = successor(node.sw, subExponent);
+        Node n21 = successor(join(node.sw.ne, node.se.nw, node.sw.se,
+                node.se.sw), subExponent);
+        Node n22 = successor(node.se, subExponent);
+
+        Node result;
+        if (fullStep) {
+            // The second half step: advance the four quadrants of the nine
+            // squares once more.
+            result = join(successor(join(n00, n01, n10, n11), exponent - 1),
+                    successor(join(n01, n02, n11, n12), exponent - 1),
+                    successor(join(n10, n11, n20, n21), exponent - 1),
+                    successor(join(n11, n12, n21, n22), exponent - 1));
+            node.result = result;
+        } else {
+            // The nine squares are already advanced, only take the centers.
+            result = join(join(n00.se, n01.sw, n10.ne, n11.nw),
+                    join(n01.se, n02.sw, n11.ne, n12.nw),
+                    join(n10.se, n11.sw, n20.ne, n21.nw),
+                    join(n11.se, n12.sw, n21.ne, n22.nw));
+            node.stepResult = result;
+            node.stepExponent = exponent;
+        }
+        return result;
+    }
+
+    /**
+     * Calculate the center of a node of 4 x 4 cells after one generation.
+     * @param node
+     *            the node of level 2
+     * @return the center of level 1
+     */
+    private Node successorOfSmallestNode(Node node) {
+        if (node.result != null) {
+            return node.result;
+        }
+
+        // Collect the 16 cells into a bitmap, bit 4 * y + x.
+        int bits = 0;
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                Node quadrant = (y < 2) ? ((x < 2) ? node.nw : node.ne)
+                        : ((x < 2) ? node.sw : node.se);
+                Node leaf = (y % 2 == 0) ? ((x % 2 == 0) ? quadrant.nw
+                        : quadrant.ne) : ((x % 2 == 0) ? quadrant.sw
+                        : quadrant.se);
+                if (leaf.population != 0) {
+                    bits |= 1 << (4 * y + x);
+                }
+            }
+        }
+
+        node.result = join(nextState(bits, 1, 1), nextState(bits, 2, 1),
+                nextState(bits, 1, 2), nextState(bits, 2, 2));
+        return node.result;
+    }
+
+    /**
+     * Calculate the next state of an inner cell of a 4 x 4 bitmap.
+     * @param bits
+     *            the bitmap, bit 4 * y + x
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return the next state as leaf
+     */
+    private Node nextState(int bits, int x, int y) {
+        int count = 0;
+        for (int j = -1; j <= 1; j++) {
+            for (int i = -1; i <= 1; i++) {
+                if ((i != 0 || j != 0)
+                        && (bits & (1 << (4 * (y + j) + x + i))) != 0) {
+                    count++;
+                }
+            }
+        }
+        boolean isAlive = (bits & (1 << (4 * y + x))) != 0;
+        return rule.nextState(isAlive, count) ? alive : dead;
+    }
+
+    /**
+     * Release all nodes from the cache which are not part of the current
+     * plane. The results of the remaining nodes are forgotten.
+     */
+    private void collectGarbage() {
+        int levels = emptyNodes.length;
+        releaseNodes();
+        empty(levels - 1);
+        root = intern(root, new IdentityHashMap<Node, Node>());
+    }
+
+    /**
+     * Release all nodes of the cache, the root is kept as it is.
+     */
+    private void releaseNodes() {
+        cache = new HashMap<Node, Node>();
+        emptyNodes = new Node[] { dead };
+    }
+
+    /**
+     * Copy a node and all of its children into the cache again.
+     * @param node
+     *            the node
+     * @param copies
+     *            the copies of the nodes already interned
+     * @return the copy of the node from the cache
+     */
+    private Node intern(Node node, Map<Node, Node> copies) {
+        if (node.level == 0) {
+            return node;
+        }
+        if (node.population == 0) {
+            return empty(node.level);
+        }
+        Node copy = copies.get(node);
+        if (copy == null) {
+            copy = join(intern(node.nw, copies), intern(node.ne, copies),
+                    intern(node.sw, copies), intern(node.se, copies));
+            copies.put(node, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * A square of 2^level x 2^level cells. Nodes with the same quadrants are
+     * equal, the quadrants are compared by identity.
+     */
+    private static final class Node {
+
+        /**
+         * The level of this node. A node of level 0 is a single cell.
+         */
+        private final int level;
+
+        /**
+         * The north west quadrant.
+         */
+        private final Node nw;
+
+        /**
+         * The north east quadrant.
+         */
+        private final Node ne;
+
+        /**
+         * The south west quadrant.
+         */
+        private final Node sw;
+
+        /**
+         * The south east quadrant.
+         */
+        private final Node se;
+
+        /**
+         * The number of living cells.
+         */
+        private final long population;
+
+        /**
+         * The hash value of this node.
+         */
+        private final int hash;
+
+        /**
+         * The center after 2^(level - 2) generations, or <code>null</code>
+         * if not calculated yet.
+         */
+        private Node result;
+
+        /**
+         * The center after 2^stepExponent generations, for steps smaller
+         * than the result.
+         */
+        private Node stepResult;
+
+        /**
+         * The exponent of the step result, or -1 if not calculated yet.
+         */
+        private int stepExponent = -1;
+
+        /**
+         * The constructor of a leaf.
+         * @param isAlive
+         *            the state of the cell
+         */
+        private Node(boolean isAlive) {
+            level = 0;
+            nw = null;
+            ne = null;
+            sw = null;
+            se = null;
+            population = isAlive ? 1 : 0;
+            hash = isAlive ? 1 : 0;
+        }
+
+        /**
+         * The constructor using the four quadrants.
+         * @param nw
+         *            the north west quadrant
+         * @param ne
+         *            the north east quadrant
+         * @param sw
+         *            the south west quadrant
+         * @param se
+         *            the south east quadrant
+         */
+        private Node(Node nw, Node ne, Node sw, Node se) {
+            this.level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.population =
+                    nw.population + ne.population + sw.population
+                            + se.population;
+            int hashCode = HashUtils.calcHashCode(level, nw.hash);
+            hashCode = HashUtils.calcHashCode(hashCode, ne.hash);
+            hashCode = HashUtils.calcHashCode(hashCode, sw.hash);
+            this.hash = HashUtils.calcHashCode(hashCode, se.hash);
+        }
+
+        /**
+         * Two nodes are equal if their quadrants are the same.
+         * @param other
+         *            the other object
+         * @return true if the two objects are equal
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Node)) {
+                return false;
+            }
+            final Node otherNode = (Node) other;
+            return (nw == otherNode.nw) && (ne == otherNode.ne)
+                    && (sw == otherNode.sw) && (se == otherNode.se);
+        }
+
+        /**
+         * Get the hash value of this node.
+         * @return the hash value
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This engine calculates the world in blocks of 2 x 2 cells. The next
+ * generation of a block only depends on the 4 x 4 cells around it, so the
+ * results of all 65536 neighborhoods are calculated once, when the class is
+ * loaded. Every block is then calculated by one table lookup instead of
+ * counting the neighbors of every cell.
+ * @author Andreas Breer
+ */
+class LookupTableEngine extends RowBandEngine {
+
+    /**
+     * The size of the neighborhood of a block.
+     */
+    private static final int NEIGHBORHOOD_SIZE = 4;
+
+    /**
+     * The next generation of the 2 x 2 center of every 4 x 4 neighborhood.
+     * Bit 4 * y + x of the index holds the cell x, y of the neighborhood.
+     * The result holds the cells (1, 1), (2, 1), (1, 2) and (2, 2) in the
+     * bits 0 to 3.
+     */
+    private static final byte[] TABLE = createTable(Rule.CONWAY);
+
+    /**
+     * The rule of the table in use.
+     */
+    private Rule tableRule = Rule.CONWAY;
+
+    /**
+     * The table in use, calculated again when the rule changes.
+     */
+    private byte[] table = TABLE;
+
+    /**
+     * Calculate the table of all neighborhoods.
+     * @param rule
+     *            the rule of the game
+     * @return the table
+     */
+    private static byte[] createTable(Rule rule) {
+        byte[] table = new byte[1 << (NEIGHBORHOOD_SIZE * NEIGHBORHOOD_SIZE)];
+        for (int neighborhood = 0; neighborhood < table.length;
+                neighborhood++) {
+            int result = 0;
+            for (int cell = 0; cell < 4; cell++) {
+                int x = 1 + cell % 2;
+                int y = 1 + cell / 2;
+                if (nextState(rule, neighborhood, x, y)) {
+                    result |= 1 << cell;
+                }
+            }
+            table[neighborhood] = (byte) result;
+        }
+        return table;
+    }
+
+    /**
+     * Calculate the next state of an inner cell of a neighborhood.
+     * @param rule
+     *            the rule of the game
+     * @param neighborhood
+     *            the 4 x 4 cells, bit 4 * y + x
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return <code>true</code> if the cell will be alive
+     */
+    private static boolean nextState(Rule rule, int neighborhood, int x,
+            int y) {
+        int count = 0;
+        for (int j = -1; j <= 1; j++) {
+            for (int i = -1; i <= 1; i++) {
+                if ((i != 0 || j != 0) && isAlive(neighborhood, x + i, y + j)) {
+                    count++;
+                }
+            }
+        }
+        return rule.nextState(isAlive(neighborhood, x, y), count);
+    }
+
+    /**
+     * Get the state of a cell of a neighborhood.
+     * @param neighborhood
+     *            the 4 x 4 cells, bit 4 * y + x
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return <code>true</code> if the cell is alive
+     */
+    private static boolean isAlive(int neighborhood, int x, int y) {
+        return (neighborhood & (1 << (NEIGHBORHOOD_SIZE * y + x))) != 0;
+    }
+
+    /**
+     * Select the table of the rule and calculate the next generation.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param pool
+     *            the pool of threads to calculate with, or <code>null</code>
+     *            if the calling thread calculates
+     * @param changes
+     *            the changes which receive every changed word
+     * @return the rows of the next generation
+     */
+    @Override
+    public long[][] nextGeneration(long[][] cells, long[][] next, int width,
+            int height, Rule rule, ForkJoinPool pool, CellChanges changes) {
+        if (!rule.equals(tableRule)) {
+            table = rule.isConway() ? TABLE : createTable(rule);
+            tableRule = rule;
+        }
+        return super.nextGeneration(cells, next, width, height, rule, pool,
+                changes);
+    }
+
+    /**
+     * Calculate the rows of blocks which start in a band of rows.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game, already in the table
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     * @param changes
+     *            the changes of the band, which receive every changed word
+     */
+    @Override
+    void calculateRows(long[][] cells, long[][] next, int width, int height,
+            Rule rule, int fromRow, int toRow, CellChanges changes) {
+        for (int y = (fromRow + 1) & ~1; y < toRow; y += 2) {
+            // The bottom row of the last block may be the halo below, then
+            // the row below it does not matter.
+            long[] above = cells[(y == 0) ? height + 1 : y - 1];
+            long[] top = cells[y];
+            long[] bottom = cells[y + 1];
+            long[] below = cells[y + 2];
+            long[] nextTop = next[y];
+            long[] nextBottom = (y + 1 < height) ? next[y + 1] : null;
+
+            long topWord = 0;
+            long bottomWord = 0;
+            for (int x = 0; x < width; x += 2) {
+                int neighborhood =
+                        fourCells(above, x - 1, width + 2)
+                                | fourCells(top, x - 1, width + 2) << 4
+                                | fourCells(bottom, x - 1, width + 2) << 8
+                                | fourCells(below, x - 1, width + 2) << 12;
+                int result = table[neighborhood];
+                topWord |= (long) (result & 3) << x;
+                bottomWord |= (long) ((result >>> 2) & 3) << x;
+
+                // Store the words when they are full or the row ends.
+                if ((x & 63) == 62 || x + 2 >= width) {
+                    long mask =
+                            (x + 2 >= width) ? BitRows.lastWordMask(width)
+                                    : -1L;
+                    int i = x >>> 6;
+                    changes.addWord(y, i, top[i] & mask, topWord & mask);
+                    nextTop[i] = topWord & mask;
+                    if (nextBottom != null) {
+                        changes.addWord(y + 1, i, bottom[i] & mask,
+                                bottomWord & mask);
+                        nextBottom[i] = bottomWord & mask;
+                    }
+                    topWord = 0;
+                    bottomWord = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get four neighboring cells of a padded row, the cell -1 is the halo
+     * left of the first cell.
+     * @param row
+     *            the padded row
+     * @param x
+     *            the x-position of the first cell, at least -1
+     * @param width
+     *            the width of the row with the halo
+     * @return the four cells in the bits 0 to 3
+     */
+    private static int fourCells(long[] row, int x, int width) {
+        if (x >= 0 && x + NEIGHBORHOOD_SIZE <= width) {
+            int word = x >>> 6;
+            int bit = x & 63;
+            long cells = row[word] >>> bit;
+            if (bit > 64 - NEIGHBORHOOD_SIZE) {
+                cells |= row[word + 1] << (64 - bit);
+            }
+            return (int) cells & 0xF;
+        }
+
+        // The cells wrap around.
+        int cells = 0;
+        for (int i = 0; i < NEIGHBORHOOD_SIZE; i++) {
+            int cellX = (x + i + width) % width;
+            if (BitRows.get(row, cellX)) {
+                cells |= 1 << i;
+            }
+        }
+        return cells;
+    }
+}
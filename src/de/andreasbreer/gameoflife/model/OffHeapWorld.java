@@ -0,0 +1,496 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Observable;
+import java.util.SplittableRandom;
+
+import org.apache.log4j.Logger;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+/**
+ * This class represents a world whose cells are stored outside of the heap.
+ * The rows are bitmaps like the rows of the {@link World}, but they are kept
+ * in direct buffers of up to 1 GiB each, so the world is neither limited by
+ * the heap nor by the length of an array, and the garbage collector never
+ * scans the cells.
+ * <p>
+ * The next generation is calculated in place, row by row: only the original
+ * states of the row above, the current row and the first row are kept on
+ * the heap, so the world needs no second buffer.
+ * <p>
+ * The direct buffers are limited by the option
+ * <code>-XX:MaxDirectMemorySize</code> of the virtual machine, which is the
+ * maximal heap size by default. A world larger than the heap needs a larger
+ * limit, the target <code>run</code> of the build sets it. The buffers are
+ * freed by {@link #close()}, otherwise only when the garbage collector finds
+ * them unreachable, which may take long as they are small on the heap.
+ * @author Andreas Breer
+ */
+public class OffHeapWorld extends Observable implements ExternalWorld {
+
+    /**
+     * A logger for all kinds of info-messages, warnings and errors.
+     */
+    private static final Logger LOGGER = Logger.getLogger(OffHeapWorld.class);
+
+    /**
+     * The maximal number of words of a buffer, 2^27 words are 1 GiB.
+     */
+    private final static int SEGMENT_WORDS = 1 << 27;
+
+    /**
+     * The width of the world.
+     */
+    private final int width;
+
+    /**
+     * The height of the world.
+     */
+    private final int height;
+
+    /**
+     * The number of words of a row.
+     */
+    private final int words;
+
+    /**
+     * The number of rows in a buffer.
+     */
+    private final int segmentRows;
+
+    /**
+     * The direct buffers, which are freed when the world is closed.
+     */
+    private final ByteBuffer[] buffers;
+
+    /**
+     * The buffers of the rows. Row y is stored in the buffer
+     * y / segmentRows.
+     */
+    private final LongBuffer[] segments;
+
+    /**
+     * Determines whether the buffers were freed.
+     */
+    private boolean isClosed;
+
+    /**
+     * The number of calculated generations.
+     */
+    private long generation;
+
+    /**
+     * The rule which calculates the next generation.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The constructor of this class using the fields width and height, to
+     * initialize the dimension of the world. All cells are dead.
+     * @param width
+     *            the width of the world, at least 2
+     * @param height
+     *            the height of the world, at least 2
+     * @throws IllegalArgumentException
+     *             if the world is narrower or lower than 2 cells, or larger
+     *             than the direct memory
+     */
+    public OffHeapWorld(int width, int height) {
+        super();
+        if (width < 2 || height < 2) {
+            throw new IllegalArgumentException("World too small: " + width
+                    + " x " + height);
+        }
+        this.width = width;
+        this.height = height;
+        words = BitRows.words(width);
+        segmentRows = Math.max(1, SEGMENT_WORDS / words);
+        buffers = new ByteBuffer[(height + segmentRows - 1) / segmentRows];
+        segments = new LongBuffer[buffers.length];
+        for (int i = 0; i < segments.length; i++) {
+            int rows = Math.min(segmentRows, height - i * segmentRows);
+            try {
+                buffers[i] =
+                        ByteBuffer.allocateDirect(rows * words * Long.BYTES)
+                                .order(ByteOrder.nativeOrder());
+            } catch (OutOfMemoryError e) {
+                close();
+                throw new IllegalArgumentException("The world of " + width
+                        + " x " + height + " cells needs "
+                        + (long) height * words * Long.BYTES
+                        + " bytes of direct memory, see the option "
+                        + "-XX:MaxDirectMemorySize.", e);
+            }
+            segments[i] = buffers[i].asLongBuffer();
+        }
+    }
+
+    /**
+     * The constructor of this class using the field world. The cells and the
+     * rule of the world are copied, one band of rows at a time.
+     * @param world
+     *            the world to copy
+     * @throws IllegalArgumentException
+     *             if the world is narrower or lower than 2 cells, or larger
+     *             than the direct memory
+     */
+    public OffHeapWorld(World world) {
+        this(world.getWidth(), world.getHeight());
+        synchronized (world) {
+            rule = world.getRule();
+            for (int y = 0; y < height; y += RandomFillTask.BAND_HEIGHT) {
+                long[][] rows =
+                        world.copyOfRows(y, Math.min(height, y
+                                + RandomFillTask.BAND_HEIGHT));
+                for (int i = 0; i < rows.length; i++) {
+                    writeRow(y + i, rows[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the width of the world.
+     * @return the width of the world
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the world.
+     * @return the height of the world
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the number of generations calculated since the world was filled.
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the rule which calculates the next generation.
+     * @return the rule
+     */
+    public synchronized Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Set the rule which calculates the next generation.
+     * @param rule
+     *            the rule
+     */
+    public synchronized void setRule(Rule rule) {
+        // Generate the kernel now instead of in the next generation.
+        rule.getKernel();
+        this.rule = rule;
+    }
+
+    /**
+     * This method fills the world with dead cells.
+     */
+    public synchronized void clear() {
+        checkOpen();
+        long[] row = new long[words];
+        for (int y = 0; y < height; y++) {
+            writeRow(y, row);
+        }
+        generation = 0;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * This method fills the world with random cells.
+     * @param probability
+     *            the probability in percent of a living cell
+     */
+    public void random(int probability) {
+        random(probability, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * This method fills the world with random cells, which only depend on
+     * the seed. The world gets the same cells as a {@link World} filled with
+     * the same probability and seed, see {@link World#random(int, long)}.
+     * The rows are filled on the heap one band at a time.
+     * @param probability
+     *            the probability in percent of a living cell
+     * @param seed
+     *            the seed of the random cells
+     */
+    public synchronized void random(int probability, long seed) {
+        checkOpen();
+        SplittableRandom[] randoms = RandomFillTask.split(seed, height);
+        long[][] band = BitRows.create(width, RandomFillTask.BAND_HEIGHT);
+        for (int y = 0; y < height; y += band.length) {
+            int toRow = Math.min(height, y + band.length);
+            RandomFillTask.create(band, width, y, toRow, probability,
+                    randoms).fillBands();
+            for (int i = y; i < toRow; i++) {
+                writeRow(i, band[i - y]);
+            }
+        }
+        generation = 0;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get the state of the cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return if the state of the cell at position x, y is ALIVE.
+     * @throws NoCellAtThisPositionException
+     */
+    public synchronized boolean isCellAlive(int x, int y)
+            throws NoCellAtThisPositionException {
+        checkOpen();
+        checkPosition(x, y);
+        return (readWord(y, x >>> 6) & (1L << x)) != 0;
+    }
+
+    /**
+     * Toggle the state of the cell at x, y.
+     * @param x
+     *            the x position of the cell
+     * @param y
+     *            the y position of the cell
+     * @throws NoCellAtThisPositionException
+     */
+    public synchronized void toggleStateofCell(int x, int y)
+            throws NoCellAtThisPositionException {
+        checkOpen();
+        checkPosition(x, y);
+        writeWord(y, x >>> 6, readWord(y, x >>> 6) ^ (1L << x));
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get the number of living cells.
+     * @return the number of living cells
+     */
+    public synchronized long getPopulation() {
+        checkOpen();
+        long population = 0;
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < words; i++) {
+                population += Long.bitCount(readWord(y, i));
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Copy the cells into a view. A view of the dimension of this world gets
+     * a copy of the cells, a smaller view gets the world shrunk to its size.
+     * Only the rows of the view are on the heap.
+     * @param view
+     *            the world which shows this world
+     * @throws IllegalArgumentException
+     *             if the view is larger than this world
+     */
+    public synchronized void copyTo(World view) {
+        checkOpen();
+        int viewWidth = view.getWidth();
+        int viewHeight = view.getHeight();
+        if (viewWidth > width || viewHeight > height) {
+            throw new IllegalArgumentException("The view of " + viewWidth
+                    + " x " + viewHeight + " cells is larger than the world.");
+        }
+        int scaleX = (width + viewWidth - 1) / viewWidth;
+        int scaleY = (height + viewHeight - 1) / viewHeight;
+
+        long[][] rows = BitRows.create(viewWidth, viewHeight);
+        long[] row = new long[words];
+        for (int y = 0; y < height; y++) {
+            readRow(y, row);
+            BitRows.addScaled(row, width, scaleX, rows[y / scaleY]);
+        }
+        view.setCells(rows);
+    }
+
+    /**
+     * Calculates and activates the next generation of the world.
+     */
+    public synchronized void nextGeneration() {
+        checkOpen();
+        long[] first = new long[words];
+        long[] above = new long[words];
+        long[] row = new long[words];
+        long[] below = new long[words];
+        long[] next = new long[words];
+
+        readRow(0, first);
+        readRow(height - 1, above);
+        for (int y = 0; y < height; y++) {
+            // The rows above are already overwritten, so the original states
+            // of the row above and the first row are kept.
+            readRow(y, row);
+            if (y == height - 1) {
+                System.arraycopy(first, 0, below, 0, words);
+            } else {
+                readRow(y + 1, below);
+            }
+            BitRows.nextGeneration(above, row, below, next, width, rule);
+            writeRow(y, next);
+
+            long[] previous = above;
+            above = row;
+            row = previous;
+        }
+        generation++;
+
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Advance the world by a number of generations, one generation at a
+     * time. The advance stops early if the calling thread is interrupted.
+     * @param generations
+     *            the number of generations
+     * @return the number of calculated generations
+     */
+    public synchronized long advance(long generations) {
+        long advanced = 0;
+        while (advanced < generations
+                && !Thread.currentThread().isInterrupted()) {
+            nextGeneration();
+            advanced++;
+        }
+        return advanced;
+    }
+
+    /**
+     * Free the direct buffers. The world cannot be used afterwards. Closing
+     * it again does nothing.
+     */
+    public synchronized void close() {
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] != null) {
+                free(buffers[i]);
+                buffers[i] = null;
+                segments[i] = null;
+            }
+        }
+        isClosed = true;
+    }
+
+    /**
+     * Free the memory of a direct buffer now. The cleaner of the buffer is
+     * only reachable through <code>sun.misc.Unsafe</code>. If it cannot be
+     * called, the memory is freed when the buffer is collected.
+     * @param buffer
+     *            the direct buffer, which must not be used afterwards
+     */
+    private static void free(ByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Method invokeCleaner =
+                    unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(field.get(null), buffer);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("The direct buffer is freed by the collector.", e);
+        }
+    }
+
+    /**
+     * This method checks whether the buffers are still there.
+     * @throws IllegalStateException
+     *             if the world was closed
+     */
+    private void checkOpen() {
+        if (isClosed) {
+            throw new IllegalStateException("The world was closed.");
+        }
+    }
+
+    /**
+     * Read a row into an array.
+     * @param y
+     *            the row
+     * @param row
+     *            the array which receives the words of the row
+     */
+    private void readRow(int y, long[] row) {
+        segments[y / segmentRows].get(offset(y), row, 0, words);
+    }
+
+    /**
+     * Write a row from an array.
+     * @param y
+     *            the row
+     * @param row
+     *            the words of the row
+     */
+    private void writeRow(int y, long[] row) {
+        segments[y / segmentRows].put(offset(y), row, 0, words);
+    }
+
+    /**
+     * Read a word of a row.
+     * @param y
+     *            the row
+     * @param i
+     *            the index of the word in the row
+     * @return the word
+     */
+    private long readWord(int y, int i) {
+        return segments[y / segmentRows].get(offset(y) + i);
+    }
+
+    /**
+     * Write a word of a row.
+     * @param y
+     *            the row
+     * @param i
+     *            the index of the word in the row
+     * @param word
+     *            the word
+     */
+    private void writeWord(int y, int i, long word) {
+        segments[y / segmentRows].put(offset(y) + i, word);
+    }
+
+    /**
+     * Get the index of the first word of a row in its buffer.
+     * @param y
+     *            the row
+     * @return the index of the first word
+     */
+    private int offset(int y) {
+        return (y % segmentRows) * words;
+    }
+
+    /**
+     * This method checks whether the position is part of the world or not.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @throws NoCellAtThisPositionException
+     */
+    private void checkPosition(int x, int y)
+            throws NoCellAtThisPositionException {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new NoCellAtThisPositionException(x, y);
+        }
+    }
+}
@@ -0,0 +1,688 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Observable;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+/**
+ * This class represents a world which may be larger than the memory. The
+ * world is split into tiles of 64 x 64 cells, which are stored compressed
+ * and spilled to a scratch file when the compressed tiles exceed a memory
+ * limit, see {@link TileStore}. Empty tiles take no space at all.
+ * <p>
+ * The next generation is calculated in a sweep over the rows of tiles. The
+ * tiles of the current generation are decompressed into a cache of bounded
+ * size, and the row of tiles after the next one is decompressed in the
+ * background while a row is calculated. The cache should hold at least three
+ * rows of tiles, so every tile is decompressed only once per generation.
+ * <p>
+ * The world is filled with random cells or a pattern one row of tiles at a
+ * time, so a world which does not fit into the memory is never held on the
+ * heap as a whole, not even while it is filled. The game shows the world
+ * shrunk to its own world, see {@link ExternalWorld}.
+ * @author Andreas Breer
+ */
+public class OutOfCoreWorld extends Observable implements ExternalWorld {
+
+    /**
+     * The size of a tile in both directions.
+     */
+    public static final int TILE_SIZE = BitRows.WORD_SIZE;
+
+    /**
+     * The default maximal number of compressed bytes in memory.
+     */
+    public static final long DEFAULT_MEMORY_LIMIT = 64L << 20;
+
+    /**
+     * The number of rows of tiles in the default cache: the rows above, at
+     * and below the row which is calculated and the prefetched row.
+     */
+    private static final int DEFAULT_CACHE_ROWS = 4;
+
+    /**
+     * The rows of an empty tile.
+     */
+    private static final long[] EMPTY_TILE = new long[TileStore.TILE_WORDS];
+
+    /**
+     * The width of the world.
+     */
+    private final int width;
+
+    /**
+     * The height of the world.
+     */
+    private final int height;
+
+    /**
+     * The number of tiles in a row of tiles.
+     */
+    private final int columns;
+
+    /**
+     * The number of rows of tiles.
+     */
+    private final int rows;
+
+    /**
+     * The maximal number of decompressed tiles of a generation.
+     */
+    private final int cacheSize;
+
+    /**
+     * The maximal number of compressed bytes of a generation in memory.
+     */
+    private final long memoryLimit;
+
+    /**
+     * The directory of the scratch files.
+     */
+    private final File directory;
+
+    /**
+     * The thread which decompresses the tiles ahead of the sweep.
+     */
+    private final ExecutorService prefetcher = Executors
+            .newSingleThreadExecutor(new ThreadFactory() {
+
+                /**
+                 * Create a daemon thread, which does not keep the
+                 * application alive.
+                 * @param runnable
+                 *            the task of the thread
+                 * @return the thread
+                 */
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "tile-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    /**
+     * The tiles of the current generation.
+     */
+    private TileStore tiles;
+
+    /**
+     * The empty store which receives the next tiles. The stores of the
+     * current and the next generation take turns, so the world creates only
+     * two scratch files.
+     */
+    private TileStore spare;
+
+    /**
+     * The rule which calculates the next generation.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The number of calculated generations.
+     */
+    private long generation;
+
+    /**
+     * The cache hits of the generations before.
+     */
+    private long hits;
+
+    /**
+     * The cache misses of the generations before.
+     */
+    private long misses;
+
+    /**
+     * The spilled bytes of the generations before.
+     */
+    private long spilledBytes;
+
+    /**
+     * The constructor of this class using the dimension of the world and the
+     * limits of the memory. All cells are dead.
+     * @param width
+     *            the width of the world, a multiple of {@link #TILE_SIZE}
+     * @param height
+     *            the height of the world, a multiple of {@link #TILE_SIZE}
+     * @param cacheSize
+     *            the maximal number of decompressed tiles
+     * @param memoryLimit
+     *            the maximal number of compressed bytes in memory, the
+     *            other tiles are spilled to a scratch file
+     * @param directory
+     *            the directory of the scratch files, <code>null</code> for
+     *            the default temporary directory
+     * @throws IllegalArgumentException
+     *             if the dimension is not a multiple of the tile size
+     */
+    public OutOfCoreWorld(int width, int height, int cacheSize,
+            long memoryLimit, File directory) {
+        super();
+        if (width <= 0 || height <= 0 || width % TILE_SIZE != 0
+                || height % TILE_SIZE != 0) {
+            throw new IllegalArgumentException("Not a multiple of "
+                    + TILE_SIZE + ": " + width + " x " + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.columns = width / TILE_SIZE;
+        this.rows = height / TILE_SIZE;
+        this.cacheSize = cacheSize;
+        this.memoryLimit = memoryLimit;
+        this.directory = directory;
+        tiles = new TileStore(cacheSize, memoryLimit, directory);
+        spare = new TileStore(cacheSize, memoryLimit, directory);
+    }
+
+    /**
+     * The constructor of this class using the dimension of the world. The
+     * cache holds four rows of tiles, at most
+     * {@link #DEFAULT_MEMORY_LIMIT} compressed bytes are kept in memory and
+     * the scratch files are written to the default temporary directory. All
+     * cells are dead.
+     * @param width
+     *            the width of the world, a multiple of {@link #TILE_SIZE}
+     * @param height
+     *            the height of the world, a multiple of {@link #TILE_SIZE}
+     * @throws IllegalArgumentException
+     *             if the dimension is not a multiple of the tile size
+     */
+    public OutOfCoreWorld(int width, int height) {
+        this(width, height, DEFAULT_CACHE_ROWS * (width / TILE_SIZE),
+                DEFAULT_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * The constructor of this class using the field world. The cells and the
+     * rule of the world are copied.
+     * @param world
+     *            the world to copy, its dimension must be a multiple of
+     *            {@link #TILE_SIZE}
+     * @param cacheSize
+     *            the maximal number of decompressed tiles
+     * @param memoryLimit
+     *            the maximal number of compressed bytes in memory
+     * @param directory
+     *            the directory of the scratch files, <code>null</code> for
+     *            the default temporary directory
+     * @throws IOException
+     *             if the scratch file cannot be written
+     */
+    public OutOfCoreWorld(World world, int cacheSize, long memoryLimit,
+            File directory) throws IOException {
+        this(world.getWidth(), world.getHeight(), cacheSize, memoryLimit,
+                directory);
+        rule = world.getRule();
+        long[][] cells = world.copyOfCells();
+        for (int tileY = 0; tileY < rows; tileY++) {
+            putTiles(tiles, tileY, cells, tileY * TILE_SIZE);
+        }
+    }
+
+    /**
+     * Get the width of the world.
+     * @return the width of the world
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the world.
+     * @return the height of the world
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the number of calculated generations.
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the rule which calculates the next generation.
+     * @return the rule
+     */
+    public synchronized Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Set the rule which calculates the next generation.
+     * @param rule
+     *            the rule
+     */
+    public synchronized void setRule(Rule rule) {
+        // Generate the kernel now instead of in the next generation.
+        rule.getKernel();
+        this.rule = rule;
+    }
+
+    /**
+     * Get the counters of the tile cache.
+     * @return the counters of all generations
+     */
+    public synchronized CacheStatistics getCacheStatistics() {
+        return new CacheStatistics(hits + tiles.getHits(),
+                misses + tiles.getMisses(), tiles.getCompressedBytes(),
+                spilledBytes + tiles.getSpilledBytes());
+    }
+
+    /**
+     * This method fills the world with random cells, which only depend on
+     * the seed. The world gets the same cells as a {@link World} filled with
+     * the same probability and seed, see {@link World#random(int, long)}.
+     * The cells are drawn one row of tiles at a time and the tiles of the
+     * row are stored before the next row is drawn.
+     * @param probability
+     *            the probability in percent of a living cell
+     * @param seed
+     *            the seed of the random cells
+     * @throws IOException
+     *             if the scratch file cannot be written
+     */
+    public synchronized void random(int probability, long seed)
+            throws IOException {
+        SplittableRandom[] randoms = RandomFillTask.split(seed, height);
+        long[][] band = BitRows.create(width, TILE_SIZE);
+        TileStore next = spare;
+        try {
+            for (int tileY = 0; tileY < rows; tileY++) {
+                int fromRow = tileY * TILE_SIZE;
+                RandomFillTask.create(band, width, fromRow,
+                        fromRow + TILE_SIZE, probability, randoms)
+                        .fillBands();
+                putTiles(next, tileY, band, 0);
+            }
+        } catch (IOException e) {
+            next.clear();
+            throw e;
+        }
+        replaceTiles(next);
+        generation = 0;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Load a pattern in plaintext format into the middle of the world, all
+     * other cells are dead, see {@link PlaintextPattern}. The file is read
+     * twice, once for the size of the pattern and once for its cells, which
+     * are stored one row of tiles at a time, so the pattern may be as large
+     * as the world.
+     * @param file
+     *            the pattern file
+     * @throws IOException
+     *             if the file cannot be read or the scratch file cannot be
+     *             written
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit into the world
+     */
+    public synchronized void loadPattern(File file) throws IOException {
+        PlaintextPattern pattern = new PlaintextPattern(file);
+        pattern.checkFits(width, height);
+        int left = pattern.getLeft(width);
+        int top = pattern.getTop(height);
+        int patternHeight = pattern.getHeight();
+        long[][] band = BitRows.create(width, TILE_SIZE);
+        TileStore next = spare;
+        BufferedReader reader = pattern.open();
+        try {
+            for (int tileY = 0; tileY < rows; tileY++) {
+                for (int row = 0; row < TILE_SIZE; row++) {
+                    Arrays.fill(band[row], 0L);
+                    int y = tileY * TILE_SIZE + row;
+                    if (y < top || y >= top + patternHeight) {
+                        continue;
+                    }
+                    PlaintextPattern.addLine(PlaintextPattern.readLine(reader),
+                            band[row], left, width);
+                }
+                putTiles(next, tileY, band, 0);
+            }
+        } catch (IOException e) {
+            next.clear();
+            throw e;
+        } finally {
+            reader.close();
+        }
+        replaceTiles(next);
+        generation = 0;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get the state of the cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return if the state of the cell at position x, y is ALIVE.
+     * @throws NoCellAtThisPositionException
+     * @throws IOException
+     *             if the scratch file cannot be read
+     */
+    public synchronized boolean isCellAlive(int x, int y)
+            throws NoCellAtThisPositionException, IOException {
+        checkPosition(x, y);
+        long[] tile = tiles.get((y / TILE_SIZE) * columns + x / TILE_SIZE);
+        return tile != null && (tile[y % TILE_SIZE] & (1L << x)) != 0;
+    }
+
+    /**
+     * Toggle the state of the cell at x, y.
+     * @param x
+     *            the x position of the cell
+     * @param y
+     *            the y position of the cell
+     * @throws NoCellAtThisPositionException
+     * @throws IOException
+     *             if the scratch file cannot be read or written
+     */
+    public synchronized void toggleStateofCell(int x, int y)
+            throws NoCellAtThisPositionException, IOException {
+        checkPosition(x, y);
+        int index = (y / TILE_SIZE) * columns + x / TILE_SIZE;
+        long[] tile = tiles.get(index);
+        tile = (tile != null) ? tile.clone() : new long[TileStore.TILE_WORDS];
+        tile[y % TILE_SIZE] ^= 1L << x;
+        tiles.put(index, tile);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get the number of living cells.
+     * @return the number of living cells
+     * @throws IOException
+     *             if the scratch file cannot be read
+     */
+    public synchronized long getPopulation() throws IOException {
+        long population = 0;
+        for (int index = 0; index < columns * rows; index++) {
+            long[] tile = tiles.get(index);
+            if (tile != null) {
+                for (long word : tile) {
+                    population += Long.bitCount(word);
+                }
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Copy the cells into a view. A view of the dimension of this world gets
+     * a copy of the cells, a smaller view gets the world shrunk to its size.
+     * Only the rows of the view and one row of tiles are on the heap.
+     * @param view
+     *            the world which shows this world
+     * @throws IOException
+     *             if the scratch file cannot be read
+     * @throws IllegalArgumentException
+     *             if the view is larger than this world
+     */
+    public synchronized void copyTo(World view) throws IOException {
+        int viewWidth = view.getWidth();
+        int viewHeight = view.getHeight();
+        if (viewWidth > width || viewHeight > height) {
+            throw new IllegalArgumentException("The view of " + viewWidth
+                    + " x " + viewHeight + " cells is larger than the world.");
+        }
+        int scaleX = (width + viewWidth - 1) / viewWidth;
+        int scaleY = (height + viewHeight - 1) / viewHeight;
+
+        long[][] cells = BitRows.create(viewWidth, viewHeight);
+        long[][] band = BitRows.create(width, TILE_SIZE);
+        for (int tileY = 0; tileY < rows; tileY++) {
+            for (int tileX = 0; tileX < columns; tileX++) {
+                long[] tile = tiles.get(tileY * columns + tileX);
+                for (int row = 0; row < TILE_SIZE; row++) {
+                    band[row][tileX] = (tile != null) ? tile[row] : 0L;
+                }
+            }
+            for (int row = 0; row < TILE_SIZE; row++) {
+                int y = tileY * TILE_SIZE + row;
+                BitRows.addScaled(band[row], width, scaleX,
+                        cells[y / scaleY]);
+            }
+        }
+        view.setCells(cells);
+    }
+
+    /**
+     * Calculates and activates the next generation of the world.
+     * @throws IOException
+     *             if a scratch file cannot be read or written
+     */
+    public synchronized void nextGeneration() throws IOException {
+        TileStore next = spare;
+        try {
+            long[] result = new long[TileStore.TILE_WORDS];
+            for (int tileY = 0; tileY < rows; tileY++) {
+                Future<?> prefetch = prefetch((tileY + 2) % rows);
+                for (int tileX = 0; tileX < columns; tileX++) {
+                    if (calculateTile(tileX, tileY, result)) {
+                        next.put(tileY * columns + tileX, result);
+                    }
+                }
+                await(prefetch);
+            }
+        } catch (IOException e) {
+            next.clear();
+            throw e;
+        }
+
+        // The next generation becomes the current one.
+        replaceTiles(next);
+        generation++;
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Advance the world by a number of generations, one generation at a
+     * time. The advance stops early if the calling thread is interrupted.
+     * @param generations
+     *            the number of generations
+     * @return the number of calculated generations
+     * @throws IOException
+     *             if a scratch file cannot be read or written
+     */
+    public synchronized long advance(long generations) throws IOException {
+        long advanced = 0;
+        while (advanced < generations
+                && !Thread.currentThread().isInterrupted()) {
+            nextGeneration();
+            advanced++;
+        }
+        return advanced;
+    }
+
+    /**
+     * Release the tiles, delete the scratch files and stop the thread of
+     * the prefetch.
+     * @throws IOException
+     *             if a scratch file cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        prefetcher.shutdownNow();
+        try {
+            tiles.close();
+        } finally {
+            spare.close();
+        }
+    }
+
+    /**
+     * Replace the tiles of the world, keeping the counters of the tiles
+     * before. The tiles before are cleared and receive the next tiles.
+     * @param next
+     *            the new tiles, the spare store
+     * @throws IOException
+     *             if the scratch file of the tiles before cannot be
+     *             truncated
+     */
+    private void replaceTiles(TileStore next) throws IOException {
+        hits += tiles.getHits();
+        misses += tiles.getMisses();
+        spilledBytes += tiles.getSpilledBytes();
+        TileStore previous = tiles;
+        tiles = next;
+        spare = previous;
+        previous.clear();
+    }
+
+    /**
+     * Store a row of tiles cut from rows of cells.
+     * @param store
+     *            the store of the tiles
+     * @param tileY
+     *            the row of tiles
+     * @param cells
+     *            the rows of cells
+     * @param firstRow
+     *            the row of the cells which is the first row of the tiles
+     * @throws IOException
+     *             if the scratch file cannot be written
+     */
+    private void putTiles(TileStore store, int tileY, long[][] cells,
+            int firstRow) throws IOException {
+        long[] tile = new long[TileStore.TILE_WORDS];
+        for (int tileX = 0; tileX < columns; tileX++) {
+            for (int row = 0; row < TILE_SIZE; row++) {
+                tile[row] = cells[firstRow + row][tileX];
+            }
+            store.put(tileY * columns + tileX, tile);
+        }
+    }
+
+    /**
+     * Calculate the next generation of a tile.
+     * @param tileX
+     *            the column of the tile
+     * @param tileY
+     *            the row of the tile
+     * @param result
+     *            the words which receive the next generation
+     * @return <code>true</code> if the next generation is not empty
+     * @throws IOException
+     *             if the scratch file cannot be read
+     */
+    private boolean calculateTile(int tileX, int tileY, long[] result)
+            throws IOException {
+        int west = (tileX == 0) ? columns - 1 : tileX - 1;
+        int east = (tileX == columns - 1) ? 0 : tileX + 1;
+        int north = (tileY == 0) ? rows - 1 : tileY - 1;
+        int south = (tileY == rows - 1) ? 0 : tileY + 1;
+
+        long[][] neighborhood = new long[][] {
+                tiles.get(north * columns + west),
+                tiles.get(north * columns + tileX),
+                tiles.get(north * columns + east),
+                tiles.get(tileY * columns + west),
+                tiles.get(tileY * columns + tileX),
+                tiles.get(tileY * columns + east),
+                tiles.get(south * columns + west),
+                tiles.get(south * columns + tileX),
+                tiles.get(south * columns + east) };
+
+        // An empty neighborhood stays empty, unless cells awake without
+        // neighbors.
+        boolean isEmpty = true;
+        for (int i = 0; i < neighborhood.length; i++) {
+            if (neighborhood[i] == null) {
+                neighborhood[i] = EMPTY_TILE;
+            } else {
+                isEmpty = false;
+            }
+        }
+        if (isEmpty && !rule.isBirthWithoutNeighbors()) {
+            return false;
+        }
+
+        BitRows.nextGeneration(neighborhood[0], neighborhood[1],
+                neighborhood[2], neighborhood[3], neighborhood[4],
+                neighborhood[5], neighborhood[6], neighborhood[7],
+                neighborhood[8], result, rule);
+        return !TileStore.isEmpty(result);
+    }
+
+    /**
+     * Decompress a row of tiles of the current generation in the
+     * background.
+     * @param tileY
+     *            the row of tiles
+     * @return the future of the prefetch
+     */
+    private Future<?> prefetch(final int tileY) {
+        final TileStore store = tiles;
+        return prefetcher.submit(new Runnable() {
+
+            /**
+             * Get every tile of the row, so it is in the cache.
+             */
+            public void run() {
+                try {
+                    for (int tileX = 0; tileX < columns; tileX++) {
+                        store.get(tileY * columns + tileX);
+                    }
+                } catch (IOException e) {
+                    // The sweep reads the tile again and reports the error.
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait until a prefetch is finished, so the prefetch does not run ahead
+     * of the sweep. The wait is not cut short by an interrupt, because the
+     * store of the prefetch is cleared and reused after the sweep.
+     * @param prefetch
+     *            the future of the prefetch
+     */
+    private static void await(Future<?> prefetch) {
+        boolean isInterrupted = false;
+        while (!prefetch.isDone()) {
+            try {
+                prefetch.get();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            } catch (ExecutionException e) {
+                // The sweep reads the tiles itself.
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This method checks whether the position is part of the world or not.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @throws NoCellAtThisPositionException
+     */
+    private void checkPosition(int x, int y)
+            throws NoCellAtThisPositionException {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new NoCellAtThisPositionException(x, y);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * A pattern file in plaintext format. Lines starting with <code>!</code> are
+ * comments, <code>O</code> or <code>*</code> is a living cell and any other
+ * character a dead cell. The size of the pattern is read when the pattern is
+ * created, the cells are read when they are written into the rows of a
+ * world, so the lines of the pattern are never kept in memory.
+ * @author Andreas Breer
+ */
+public final class PlaintextPattern {
+
+    /**
+     * The pattern file.
+     */
+    private final File file;
+
+    /**
+     * The width of the pattern, the length of its longest line.
+     */
+    private final int width;
+
+    /**
+     * The height of the pattern, the number of its lines.
+     */
+    private final int height;
+
+    /**
+     * The constructor of this class using the pattern file, whose size is
+     * read.
+     * @param file
+     *            the pattern file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public PlaintextPattern(File file) throws IOException {
+        this.file = file;
+        int lines = 0;
+        int columns = 0;
+        BufferedReader reader = open();
+        try {
+            String line;
+            while ((line = readLine(reader)) != null) {
+                columns = Math.max(columns, line.length());
+                lines++;
+            }
+        } finally {
+            reader.close();
+        }
+        this.width = columns;
+        this.height = lines;
+    }
+
+    /**
+     * Get the width of the pattern.
+     * @return the width of the pattern
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the pattern.
+     * @return the height of the pattern
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Create the rows of a world with the pattern in its middle, all other
+     * cells are dead. The rows are loaded with
+     * {@link World#loadCells(long[][])}.
+     * @param worldWidth
+     *            the width of the world
+     * @param worldHeight
+     *            the height of the world
+     * @return the rows of the world
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit into the world
+     */
+    public long[][] toRows(int worldWidth, int worldHeight)
+            throws IOException {
+        checkFits(worldWidth, worldHeight);
+        long[][] rows = BitRows.create(worldWidth, worldHeight);
+        int left = getLeft(worldWidth);
+        int top = getTop(worldHeight);
+        BufferedReader reader = open();
+        try {
+            for (int y = top; y < top + height; y++) {
+                addLine(readLine(reader), rows[y], left, worldWidth);
+            }
+        } finally {
+            reader.close();
+        }
+        return rows;
+    }
+
+    /**
+     * Check that the pattern fits into a world.
+     * @param worldWidth
+     *            the width of the world
+     * @param worldHeight
+     *            the height of the world
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit into the world
+     */
+    void checkFits(int worldWidth, int worldHeight) {
+        if (width > worldWidth || height > worldHeight) {
+            throw new IllegalArgumentException("The pattern of " + width
+                    + " x " + height + " cells does not fit into the world.");
+        }
+    }
+
+    /**
+     * Get the x-position of the first column of the pattern in the middle
+     * of a world.
+     * @param worldWidth
+     *            the width of the world
+     * @return the x-position
+     */
+    int getLeft(int worldWidth) {
+        return (worldWidth - width) / 2;
+    }
+
+    /**
+     * Get the y-position of the first line of the pattern in the middle of
+     * a world.
+     * @param worldHeight
+     *            the height of the world
+     * @return the y-position
+     */
+    int getTop(int worldHeight) {
+        return (worldHeight - height) / 2;
+    }
+
+    /**
+     * Open the pattern file.
+     * @return the reader of the file
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    BufferedReader open() throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(
+                file), "UTF-8"));
+    }
+
+    /**
+     * Read the next line of a pattern, skipping the comments.
+     * @param reader
+     *            the reader of the pattern file
+     * @return the line, or <code>null</code> at the end of the file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    static String readLine(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.startsWith("!")) {
+            line = reader.readLine();
+        }
+        return line;
+    }
+
+    /**
+     * Set the living cells of a line of the pattern in a row of a world.
+     * @param line
+     *            the line, or <code>null</code> if the file became shorter
+     *            since its size was read, which leaves the row as it is
+     * @param row
+     *            the row of the world
+     * @param left
+     *            the x-position of the first column of the pattern
+     * @param worldWidth
+     *            the width of the world
+     */
+    static void addLine(String line, long[] row, int left, int worldWidth) {
+        for (int x = 0; line != null && x < line.length()
+                && left + x < worldWidth; x++) {
+            if (line.charAt(x) == 'O' || line.charAt(x) == '*') {
+                BitRows.set(row, left + x);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The population of a world and the numbers of cells which awoke and died
+ * in the last generation. The engines count the born and died cells of every
+ * word they write, per band of rows, and the world adds the counts of the
+ * bands to the population after every generation, so the statistics cost no
+ * pass over the cells of their own.
+ * @author Andreas Breer
+ */
+public final class PopulationStatistics {
+
+    /**
+     * The generation of the world.
+     */
+    private final long generation;
+
+    /**
+     * The number of living cells.
+     */
+    private final long population;
+
+    /**
+     * The number of cells which awoke in the last generation.
+     */
+    private final long births;
+
+    /**
+     * The number of cells which died in the last generation.
+     */
+    private final long deaths;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param generation
+     *            the generation of the world
+     * @param population
+     *            the number of living cells
+     * @param births
+     *            the number of cells which awoke in the last generation
+     * @param deaths
+     *            the number of cells which died in the last generation
+     */
+    PopulationStatistics(long generation, long population, long births,
+            long deaths) {
+        this.generation = generation;
+        this.population = population;
+        this.births = births;
+        this.deaths = deaths;
+    }
+
+    /**
+     * Get the generation of the world.
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the number of living cells.
+     * @return the number of living cells
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Get the number of cells which awoke in the last generation.
+     * @return the number of births
+     */
+    public long getBirths() {
+        return births;
+    }
+
+    /**
+     * Get the number of cells which died in the last generation.
+     * @return the number of deaths
+     */
+    public long getDeaths() {
+        return deaths;
+    }
+
+    /**
+     * Get a readable representation of the counters.
+     * @return the counters as string
+     */
+    @Override
+    public String toString() {
+        return String.format("generation %d: %d alive, %d born, %d died",
+                generation, population, births, deaths);
+    }
+}
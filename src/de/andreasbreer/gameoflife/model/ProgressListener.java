@@ -0,0 +1,20 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * A listener which is told about the progress of a long calculation, like
+ * {@link World#advance(long, ProgressListener)}. The listener is called by
+ * the calculating thread while the world is locked, so it must be fast and
+ * must not change the world.
+ * @author Andreas Breer
+ */
+public interface ProgressListener {
+
+    /**
+     * A generation was calculated.
+     * @param done
+     *            the number of generations calculated so far
+     * @param total
+     *            the number of generations to calculate
+     */
+    void generationCalculated(long done, long total);
+}
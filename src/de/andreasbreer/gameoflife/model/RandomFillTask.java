@@ -0,0 +1,306 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This task fills bands of rows with random cells. Every band of
+ * {@link #BAND_HEIGHT} rows draws from its own random generator, split from
+ * the generator of the seed in the order of the bands, so the cells only
+ * depend on the seed and not on the threads which fill the bands. A strip of
+ * rows can be filled on its own and gets the same cells as in the filled
+ * world. Every task collects the changes of the words it fills, so the hash
+ * and the population of the world are updated without another pass over the
+ * cells.
+ * <p>
+ * A word of 64 cells is combined from up to 16 random words, one for every
+ * binary digit of the probability, so a cell costs at most a quarter of a
+ * draw, and a probability of 50 percent costs one draw per word.
+ * @author Andreas Breer
+ */
+class RandomFillTask extends RecursiveAction {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of rows of a band.
+     */
+    static final int BAND_HEIGHT = 64;
+
+    /**
+     * The number of binary digits of the probability.
+     */
+    private static final int PRECISION = 16;
+
+    /**
+     * The rows to fill.
+     */
+    private final long[][] rows;
+
+    /**
+     * The width of the world, without the halo.
+     */
+    private final int width;
+
+    /**
+     * The first row to fill, which is the first of the rows.
+     */
+    private final int fromRow;
+
+    /**
+     * The row after the last row to fill.
+     */
+    private final int toRow;
+
+    /**
+     * The probability of a living cell in units of 2^-16.
+     */
+    private final int fraction;
+
+    /**
+     * The random generators of the bands.
+     */
+    private final SplittableRandom[] randoms;
+
+    /**
+     * The first band to fill.
+     */
+    private final int fromBand;
+
+    /**
+     * The band after the last band to fill.
+     */
+    private final int toBand;
+
+    /**
+     * The changes of the cells of the bands.
+     */
+    private final CellChanges changes = new CellChanges();
+
+    /**
+     * The constructor of this class using all fields.
+     * @param rows
+     *            the rows to fill, starting with the first row to fill
+     * @param width
+     *            the width of the world, without the halo
+     * @param fromRow
+     *            the first row to fill
+     * @param toRow
+     *            the row after the last row to fill
+     * @param fraction
+     *            the probability of a living cell in units of 2^-16
+     * @param randoms
+     *            the random generators of the bands
+     * @param fromBand
+     *            the first band to fill
+     * @param toBand
+     *            the band after the last band to fill
+     */
+    private RandomFillTask(long[][] rows, int width, int fromRow, int toRow,
+            int fraction, SplittableRandom[] randoms, int fromBand,
+            int toBand) {
+        this.rows = rows;
+        this.width = width;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.fraction = fraction;
+        this.randoms = randoms;
+        this.fromBand = fromBand;
+        this.toBand = toBand;
+    }
+
+    /**
+     * Create the task which fills all rows of the world. The halo of the
+     * rows is left as it is.
+     * @param rows
+     *            the padded rows to fill
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param probability
+     *            the probability of a living cell in percent
+     * @param seed
+     *            the seed of the random generators
+     * @return the task
+     */
+    static RandomFillTask create(long[][] rows, int width, int height,
+            int probability, long seed) {
+        return create(rows, width, 0, height, probability, seed);
+    }
+
+    /**
+     * Create the task which fills a strip of the rows of the world. The
+     * cells of the strip are the same as if the whole world was filled with
+     * the seed, so the strips can be filled by different processes.
+     * @param rows
+     *            the rows of the strip, the first of them is the row fromRow
+     *            of the world
+     * @param width
+     *            the width of the world, without the halo
+     * @param fromRow
+     *            the first row of the strip
+     * @param toRow
+     *            the row after the last row of the strip
+     * @param probability
+     *            the probability of a living cell in percent
+     * @param seed
+     *            the seed of the random generators
+     * @return the task
+     */
+    static RandomFillTask create(long[][] rows, int width, int fromRow,
+            int toRow, int probability, long seed) {
+        return create(rows, width, fromRow, toRow, probability, split(seed,
+                toRow));
+    }
+
+    /**
+     * Create the task which fills a strip of the rows of the world with the
+     * random generators of the bands. A world which is filled strip by strip
+     * in one process splits the generators only once. The strips must start
+     * at a band, as the generators are not kept in step.
+     * @param rows
+     *            the rows of the strip, the first of them is the row fromRow
+     *            of the world
+     * @param width
+     *            the width of the world, without the halo
+     * @param fromRow
+     *            the first row of the strip
+     * @param toRow
+     *            the row after the last row of the strip
+     * @param probability
+     *            the probability of a living cell in percent
+     * @param randoms
+     *            the random generators of the bands, see
+     *            {@link #split(long, int)}
+     * @return the task
+     */
+    static RandomFillTask create(long[][] rows, int width, int fromRow,
+            int toRow, int probability, SplittableRandom[] randoms) {
+        int fraction =
+                (int) Math.round(Math.max(0, Math.min(100, probability))
+                        * (double) (1 << PRECISION) / 100);
+        return new RandomFillTask(rows, width, fromRow, toRow, fraction,
+                randoms, fromRow / BAND_HEIGHT,
+                (toRow + BAND_HEIGHT - 1) / BAND_HEIGHT);
+    }
+
+    /**
+     * Split the random generators of the bands from the generator of the
+     * seed, in the order of the bands.
+     * @param seed
+     *            the seed of the random generators
+     * @param height
+     *            the height of the world
+     * @return the random generators, one per band
+     */
+    static SplittableRandom[] split(long seed, int height) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] randoms =
+                new SplittableRandom[(height + BAND_HEIGHT - 1)
+                        / BAND_HEIGHT];
+        for (int band = 0; band < randoms.length; band++) {
+            randoms[band] = random.split();
+        }
+        return randoms;
+    }
+
+    /**
+     * Get the changes of the cells of the bands, after the task is done.
+     * @return the changes
+     */
+    CellChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Fill the bands or split them into two halves and add up their
+     * changes.
+     */
+    @Override
+    protected void compute() {
+        if (toBand - fromBand <= 1) {
+            fillBands();
+        } else {
+            int middle = (fromBand + toBand) >>> 1;
+            RandomFillTask upper =
+                    new RandomFillTask(rows, width, fromRow, toRow,
+                            fraction, randoms, fromBand, middle);
+            RandomFillTask lower =
+                    new RandomFillTask(rows, width, fromRow, toRow,
+                            fraction, randoms, middle, toBand);
+            invokeAll(upper, lower);
+            changes.add(upper.getChanges());
+            changes.add(lower.getChanges());
+        }
+    }
+
+    /**
+     * Fill the bands of this task in the calling thread.
+     */
+    void fillBands() {
+        for (int band = fromBand; band < toBand; band++) {
+            fillBand(band);
+        }
+    }
+
+    /**
+     * Fill the rows of a band.
+     * @param band
+     *            the band
+     */
+    private void fillBand(int band) {
+        SplittableRandom random = randoms[band];
+        long lastWordMask = BitRows.lastWordMask(width);
+        int last = BitRows.words(width) - 1;
+        int lastRow = Math.min(toRow, (band + 1) * BAND_HEIGHT);
+        for (int y = band * BAND_HEIGHT; y < lastRow; y++) {
+            if (y < fromRow) {
+                // The row belongs to another strip, its cells are drawn to
+                // keep the generator in step and dropped.
+                for (int i = 0; i <= last; i++) {
+                    randomWord(random);
+                }
+                continue;
+            }
+            long[] row = rows[y - fromRow];
+            for (int i = 0; i < last; i++) {
+                long word = randomWord(random);
+                changes.addWord(y, i, row[i], word);
+                row[i] = word;
+            }
+            long word = randomWord(random) & lastWordMask;
+            changes.addWord(y, last, row[last] & lastWordMask, word);
+            row[last] = word | (row[last] & ~lastWordMask);
+        }
+    }
+
+    /**
+     * Draw 64 cells, every cell is alive with the probability.
+     * @param random
+     *            the random generator
+     * @return the cells
+     */
+    private long randomWord(SplittableRandom random) {
+        if (fraction == 0) {
+            return 0L;
+        }
+        if (fraction == 1 << PRECISION) {
+            return -1L;
+        }
+
+        // From the lowest digit of the probability to the highest, a digit
+        // of one halves the chance of a dead cell and a digit of zero halves
+        // the chance of a living cell.
+        long word = 0L;
+        for (int digit = Integer.numberOfTrailingZeros(fraction);
+                digit < PRECISION; digit++) {
+            long bits = random.nextLong();
+            word = ((fraction >>> digit) & 1) != 0 ? word | bits : word & bits;
+        }
+        return word;
+    }
+}
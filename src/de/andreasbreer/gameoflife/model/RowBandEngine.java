@@ -0,0 +1,98 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An engine which calculates every row independently from the other rows of
+ * the next generation. The rows are calculated in bands, which are split
+ * between the threads of the pool.
+ * @author Andreas Breer
+ */
+abstract class RowBandEngine implements GenerationEngine {
+
+    /**
+     * The number of bands per thread, so the threads can balance the load.
+     */
+    private final static int BANDS_PER_THREAD = 4;
+
+    /**
+     * Calculate the next generation in bands of rows. Every band collects
+     * its own changes, which are added up when the bands are joined.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param pool
+     *            the pool of threads to calculate with, or <code>null</code>
+     *            if the calling thread calculates
+     * @param changes
+     *            the changes which receive every changed word
+     * @return the rows of the next generation
+     */
+    public long[][] nextGeneration(long[][] cells, long[][] next, int width,
+            int height, Rule rule, ForkJoinPool pool, CellChanges changes) {
+        if (pool == null) {
+            calculateRows(cells, next, width, height, rule, 0, height,
+                    changes);
+        } else {
+            int bandHeight =
+                    Math.max(1, height
+                            / (BANDS_PER_THREAD * pool.getParallelism()));
+            RowBandTask task =
+                    new RowBandTask(this, cells, next, width, height, rule,
+                            0, height, bandHeight);
+            pool.invoke(task);
+            changes.add(task.getChanges());
+        }
+        return next;
+    }
+
+    /**
+     * The rows of the next generation only depend on the current generation,
+     * so there is nothing to forget.
+     */
+    public void reset() {
+    }
+
+    /**
+     * The rows of the next generation only depend on the current generation,
+     * so a toggled cell changes nothing.
+     * @param cells
+     *            the rows of the cells
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     */
+    public void cellToggled(long[][] cells, int x, int y) {
+    }
+
+    /**
+     * Calculate the next generation of a band of rows.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     * @param changes
+     *            the changes of the band, which receive every changed word
+     */
+    abstract void calculateRows(long[][] cells, long[][] next, int width,
+            int height, Rule rule, int fromRow, int toRow,
+            CellChanges changes);
+}
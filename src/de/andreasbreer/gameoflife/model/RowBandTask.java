@@ -0,0 +1,133 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This task calculates the next generation of a band of rows. The band is
+ * split in halves until it is small enough, so the halves can be stolen by
+ * the other threads of the fork join pool.
+ * @author Andreas Breer
+ */
+class RowBandTask extends RecursiveAction {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The engine which calculates the rows.
+     */
+    private final RowBandEngine engine;
+
+    /**
+     * The rows of the current generation.
+     */
+    private final long[][] cells;
+
+    /**
+     * The rows which receive the next generation.
+     */
+    private final long[][] next;
+
+    /**
+     * The width of the world.
+     */
+    private final int width;
+
+    /**
+     * The height of the world.
+     */
+    private final int height;
+
+    /**
+     * The rule of the game.
+     */
+    private final Rule rule;
+
+    /**
+     * The first row of the band.
+     */
+    private final int fromRow;
+
+    /**
+     * The row after the last row of the band.
+     */
+    private final int toRow;
+
+    /**
+     * The maximal height of a band which is calculated without splitting.
+     */
+    private final int bandHeight;
+
+    /**
+     * The changes of the cells of the band.
+     */
+    private final CellChanges changes = new CellChanges();
+
+    /**
+     * The constructor of this class using all fields.
+     * @param engine
+     *            the engine which calculates the rows
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     * @param bandHeight
+     *            the maximal height of a band which is not split
+     */
+    RowBandTask(RowBandEngine engine, long[][] cells, long[][] next,
+            int width, int height, Rule rule, int fromRow, int toRow,
+            int bandHeight) {
+        this.engine = engine;
+        this.cells = cells;
+        this.next = next;
+        this.width = width;
+        this.height = height;
+        this.rule = rule;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.bandHeight = bandHeight;
+    }
+
+    /**
+     * Get the changes of the cells of the band, after the task is done.
+     * @return the changes
+     */
+    CellChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Calculate the band or split it into two halves and add up their
+     * changes.
+     */
+    @Override
+    protected void compute() {
+        if (toRow - fromRow <= bandHeight) {
+            engine.calculateRows(cells, next, width, height, rule, fromRow,
+                    toRow, changes);
+        } else {
+            int middle = (fromRow + toRow) >>> 1;
+            RowBandTask upper =
+                    new RowBandTask(engine, cells, next, width, height, rule,
+                            fromRow, middle, bandHeight);
+            RowBandTask lower =
+                    new RowBandTask(engine, cells, next, width, height, rule,
+                            middle, toRow, bandHeight);
+            invokeAll(upper, lower);
+            changes.add(upper.getChanges());
+            changes.add(lower.getChanges());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This task copies rows into the rows of a world and collects the changes of
+ * the copied words on the way, so the hash and the population of the world
+ * are updated by the threads which copy and not by another pass over the
+ * cells. The rows are split in halves until a band is small enough.
+ * @author Andreas Breer
+ */
+class RowCopyTask extends RecursiveAction {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximal height of a band which is copied without splitting.
+     */
+    static final int BAND_HEIGHT = 64;
+
+    /**
+     * The rows to copy.
+     */
+    private final long[][] source;
+
+    /**
+     * The rows which receive the copy.
+     */
+    private final long[][] target;
+
+    /**
+     * The width of the world.
+     */
+    private final int width;
+
+    /**
+     * The first row of the band.
+     */
+    private final int fromRow;
+
+    /**
+     * The row after the last row of the band.
+     */
+    private final int toRow;
+
+    /**
+     * The changes of the cells of the band.
+     */
+    private final CellChanges changes = new CellChanges();
+
+    /**
+     * The constructor of this class using all fields.
+     * @param source
+     *            the rows to copy
+     * @param target
+     *            the padded rows which receive the copy, whose halo is left
+     *            as it is
+     * @param width
+     *            the width of the world, without the halo
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     */
+    RowCopyTask(long[][] source, long[][] target, int width, int fromRow,
+            int toRow) {
+        this.source = source;
+        this.target = target;
+        this.width = width;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Get the changes of the cells of the band, after the task is done.
+     * @return the changes
+     */
+    CellChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Copy the band or split it into two halves and add up their changes.
+     */
+    @Override
+    protected void compute() {
+        if (toRow - fromRow <= BAND_HEIGHT) {
+            copyRows();
+        } else {
+            int middle = (fromRow + toRow) >>> 1;
+            RowCopyTask upper =
+                    new RowCopyTask(source, target, width, fromRow, middle);
+            RowCopyTask lower =
+                    new RowCopyTask(source, target, width, middle, toRow);
+            invokeAll(upper, lower);
+            changes.add(upper.getChanges());
+            changes.add(lower.getChanges());
+        }
+    }
+
+    /**
+     * Copy the rows of this task in the calling thread.
+     */
+    void copyRows() {
+        int last = BitRows.words(width) - 1;
+        long mask = BitRows.lastWordMask(width);
+        for (int y = fromRow; y < toRow; y++) {
+            long[] from = source[y];
+            long[] to = target[y];
+            for (int i = 0; i < last; i++) {
+                changes.addWord(y, i, to[i], from[i]);
+                to[i] = from[i];
+            }
+            long word = from[last] & mask;
+            changes.addWord(y, last, to[last] & mask, word);
+            to[last] = word | (to[last] & ~mask);
+        }
+    }
+}
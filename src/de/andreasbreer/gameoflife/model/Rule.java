@@ -0,0 +1,266 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.Locale;
+
+/**
+ * A rule of a life-like cellular automaton in B/S notation, for example
+ * <code>B3/S23</code> for Conway's Game of Life. The digits after B are the
+ * numbers of living neighbors which awake a dead cell, the digits after S
+ * are the numbers which let a living cell survive. The rule is evaluated by
+ * looking up a mask of 18 entries, 9 for dead and 9 for living cells.
+ * @author Andreas Breer
+ */
+public final class Rule {
+
+    /**
+     * The rule of Conway's Game of Life.
+     */
+    public static final Rule CONWAY = new Rule(1 << 3, 1 << 2 | 1 << 3);
+
+    /**
+     * The mask of Conway's Game of Life.
+     */
+    private static final int CONWAY_MASK = 1 << 3 | (1 << 2 | 1 << 3) << 9;
+
+    /**
+     * The number of possible neighbor counts, 0 to 8.
+     */
+    static final int COUNTS = 9;
+
+    /**
+     * The bit count of the mask for a dead cell and the bit
+     * <code>9 + count</code> for a living cell is set, if the cell lives in
+     * the next generation.
+     */
+    private final int mask;
+
+    /**
+     * The 18 entries of the mask as words of all ones or all zeros, for the
+     * bitwise calculation.
+     */
+    private final long[] wordMasks = new long[2 * COUNTS];
+
+    /**
+     * Determines whether this is the rule of Conway's Game of Life.
+     */
+    private final boolean isConway;
+
+    /**
+     * The kernel generated for this rule, <code>null</code> until it is
+     * needed.
+     */
+    private RuleKernel kernel;
+
+    /**
+     * The constructor using the bitmaps of the birth and survival counts.
+     * @param birth
+     *            bit count is set if a dead cell with count neighbors awakes
+     * @param survival
+     *            bit count is set if a living cell with count neighbors
+     *            survives
+     */
+    private Rule(int birth, int survival) {
+        this.mask = birth | survival << COUNTS;
+        for (int i = 0; i < wordMasks.length; i++) {
+            wordMasks[i] = ((mask >>> i) & 1) != 0 ? -1L : 0L;
+        }
+        this.isConway = (mask == CONWAY_MASK);
+    }
+
+    /**
+     * Parse a rule in B/S notation, like <code>B3/S23</code>,
+     * <code>B36/S23</code> or <code>B2/S</code>. The case and the order of
+     * the two parts do not matter.
+     * @param notation
+     *            the rule in B/S notation
+     * @return the rule
+     * @throws IllegalArgumentException
+     *             if the notation is not valid
+     */
+    public static Rule parse(String notation) {
+        if (notation == null) {
+            throw new IllegalArgumentException("No rule given.");
+        }
+
+        String[] parts = notation.trim().toUpperCase(Locale.ROOT).split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Not a B/S rule: " + notation);
+        }
+
+        int birth = -1;
+        int survival = -1;
+        for (String part : parts) {
+            if (part.startsWith("B") && birth < 0) {
+                birth = parseCounts(part, notation);
+            } else if (part.startsWith("S") && survival < 0) {
+                survival = parseCounts(part, notation);
+            } else {
+                throw new IllegalArgumentException("Not a B/S rule: "
+                        + notation);
+            }
+        }
+
+        Rule rule = new Rule(birth, survival);
+        return rule.isConway ? CONWAY : rule;
+    }
+
+    /**
+     * Parse the digits of a part of a rule.
+     * @param part
+     *            the part, starting with B or S
+     * @param notation
+     *            the whole rule, for the error message
+     * @return the bitmap of the counts
+     */
+    private static int parseCounts(String part, String notation) {
+        int counts = 0;
+        for (int i = 1; i < part.length(); i++) {
+            int count = part.charAt(i) - '0';
+            if (count < 0 || count >= COUNTS) {
+                throw new IllegalArgumentException("Not a B/S rule: "
+                        + notation);
+            }
+            counts |= 1 << count;
+        }
+        return counts;
+    }
+
+    /**
+     * Calculate the next state of a cell.
+     * @param isAlive
+     *            the current state of the cell
+     * @param count
+     *            the number of living neighbors
+     * @return <code>true</code> if the cell lives in the next generation
+     */
+    public boolean nextState(boolean isAlive, int count) {
+        return ((mask >>> (isAlive ? COUNTS + count : count)) & 1) != 0;
+    }
+
+    /**
+     * Calculate the next generation of 64 cells from the bit-sliced counts
+     * of their neighbors.
+     * @param cells
+     *            the current generation of the cells
+     * @param sum1
+     *            bit 0 of the counts
+     * @param sum2
+     *            bit 1 of the counts
+     * @param sum4
+     *            bit 2 of the counts
+     * @param sum8
+     *            bit 3 of the counts
+     * @return the next generation of the cells
+     */
+    long nextGeneration(long cells, long sum1, long sum2, long sum4,
+            long sum8) {
+        long result = 0;
+        for (int count = 0; count < COUNTS; count++) {
+            long equals = ((count & 1) != 0 ? sum1 : ~sum1)
+                    & ((count & 2) != 0 ? sum2 : ~sum2)
+                    & ((count & 4) != 0 ? sum4 : ~sum4)
+                    & ((count & 8) != 0 ? sum8 : ~sum8);
+            result |= equals & ((cells & wordMasks[COUNTS + count])
+                    | (~cells & wordMasks[count]));
+        }
+        return result;
+    }
+
+    /**
+     * Get the kernel generated for this rule. The kernel calculates the same
+     * as {@link #nextGeneration(long, long, long, long, long)}, with the mask
+     * compiled into its code.
+     * @return the kernel
+     */
+    RuleKernel getKernel() {
+        RuleKernel result = kernel;
+        if (result == null) {
+            result = RuleKernels.get(this);
+            kernel = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get an entry of the mask as a word.
+     * @param isAlive
+     *            the state of the cell
+     * @param count
+     *            the number of living neighbors
+     * @return all ones if the cell lives in the next generation, otherwise 0
+     */
+    long getWordMask(boolean isAlive, int count) {
+        return wordMasks[isAlive ? COUNTS + count : count];
+    }
+
+    /**
+     * Determine whether this is the rule of Conway's Game of Life.
+     * @return <code>true</code> for B3/S23
+     */
+    public boolean isConway() {
+        return isConway;
+    }
+
+    /**
+     * Determine whether a dead cell without living neighbors awakes. With
+     * such a rule an empty area does not stay empty.
+     * @return <code>true</code> if the rule contains B0
+     */
+    public boolean isBirthWithoutNeighbors() {
+        return (mask & 1) != 0;
+    }
+
+    /**
+     * Get the mask of the rule. Bit count is set if a dead cell with count
+     * neighbors awakes, bit <code>9 + count</code> is set if a living cell
+     * with count neighbors survives.
+     * @return the mask
+     */
+    int getMask() {
+        return mask;
+    }
+
+    /**
+     * Get the rule in B/S notation.
+     * @return the rule as string
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("B");
+        for (int count = 0; count < COUNTS; count++) {
+            if (nextState(false, count)) {
+                builder.append(count);
+            }
+        }
+        builder.append("/S");
+        for (int count = 0; count < COUNTS; count++) {
+            if (nextState(true, count)) {
+                builder.append(count);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A implementation of the equals method for a rule object.
+     * @param other
+     *            the other object
+     * @return true if the two rules are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        return mask == ((Rule) other).mask;
+    }
+
+    /**
+     * Calculate a hash value for this rule.
+     * @return the hash value
+     */
+    @Override
+    public int hashCode() {
+        return mask;
+    }
+}
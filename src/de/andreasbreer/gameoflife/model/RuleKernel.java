@@ -0,0 +1,26 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * A kernel calculates the next generation of 64 cells from the bit-sliced
+ * counts of their neighbors, for one rule of the game.
+ * @author Andreas Breer
+ */
+interface RuleKernel {
+
+    /**
+     * Calculate the next generation of 64 cells.
+     * @param cells
+     *            the current generation of the cells
+     * @param sum1
+     *            bit 0 of the counts
+     * @param sum2
+     *            bit 1 of the counts
+     * @param sum4
+     *            bit 2 of the counts
+     * @param sum8
+     *            bit 3 of the counts
+     * @return the next generation of the cells
+     */
+    long nextGeneration(long cells, long sum1, long sum2, long sum4,
+            long sum8);
+}
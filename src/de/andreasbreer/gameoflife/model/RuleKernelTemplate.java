@@ -0,0 +1,162 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * The template of the generated kernels. The class file of this class is
+ * defined again as a hidden class for every rule, with the 18 entries of the
+ * mask of the rule as class data. The entries are constants of the hidden
+ * class, so the JIT compiler reduces the calculation to the boolean logic of
+ * the rule.
+ * <p>
+ * This class must never be loaded by its own name, it can only be
+ * initialized as a hidden class, see {@link RuleKernels}.
+ * @author Andreas Breer
+ */
+final class RuleKernelTemplate implements RuleKernel {
+
+    /**
+     * A dead cell with 0 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH0 = entry(0);
+
+    /**
+     * A dead cell with 1 living neighbor awakes (all ones) or not (0).
+     */
+    private static final long BIRTH1 = entry(1);
+
+    /**
+     * A dead cell with 2 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH2 = entry(2);
+
+    /**
+     * A dead cell with 3 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH3 = entry(3);
+
+    /**
+     * A dead cell with 4 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH4 = entry(4);
+
+    /**
+     * A dead cell with 5 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH5 = entry(5);
+
+    /**
+     * A dead cell with 6 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH6 = entry(6);
+
+    /**
+     * A dead cell with 7 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH7 = entry(7);
+
+    /**
+     * A dead cell with 8 living neighbors awakes (all ones) or not (0).
+     */
+    private static final long BIRTH8 = entry(8);
+
+    /**
+     * A living cell with 0 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL0 = entry(9);
+
+    /**
+     * A living cell with 1 living neighbor survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL1 = entry(10);
+
+    /**
+     * A living cell with 2 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL2 = entry(11);
+
+    /**
+     * A living cell with 3 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL3 = entry(12);
+
+    /**
+     * A living cell with 4 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL4 = entry(13);
+
+    /**
+     * A living cell with 5 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL5 = entry(14);
+
+    /**
+     * A living cell with 6 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL6 = entry(15);
+
+    /**
+     * A living cell with 7 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL7 = entry(16);
+
+    /**
+     * A living cell with 8 living neighbors survives (all ones) or not (0).
+     */
+    private static final long SURVIVAL8 = entry(17);
+
+    /**
+     * Read an entry of the mask from the class data of the hidden class.
+     * @param index
+     *            the index of the entry
+     * @return the entry, all ones or 0
+     */
+    private static long entry(int index) {
+        try {
+            return MethodHandles.classDataAt(MethodHandles.lookup(),
+                    ConstantDescs.DEFAULT_NAME, Long.class, index)
+                    .longValue();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Calculate the next generation of 64 cells with the constant mask.
+     * @param cells
+     *            the current generation of the cells
+     * @param sum1
+     *            bit 0 of the counts
+     * @param sum2
+     *            bit 1 of the counts
+     * @param sum4
+     *            bit 2 of the counts
+     * @param sum8
+     *            bit 3 of the counts
+     * @return the next generation of the cells
+     */
+    public long nextGeneration(long cells, long sum1, long sum2, long sum4,
+            long sum8) {
+        long dead = ~cells;
+        long not1 = ~sum1;
+        long not2 = ~sum2;
+        long low0 = not1 & not2;
+        long low1 = sum1 & not2;
+        long low2 = not1 & sum2;
+        long low3 = sum1 & sum2;
+        long high0 = ~sum4 & ~sum8;
+        long high4 = sum4;
+
+        // Every count selects the entry of the dead or the living cells.
+        return (low0 & high0 & ((dead & BIRTH0) | (cells & SURVIVAL0)))
+                | (low1 & high0 & ((dead & BIRTH1) | (cells & SURVIVAL1)))
+                | (low2 & high0 & ((dead & BIRTH2) | (cells & SURVIVAL2)))
+                | (low3 & high0 & ((dead & BIRTH3) | (cells & SURVIVAL3)))
+                | (low0 & high4 & ((dead & BIRTH4) | (cells & SURVIVAL4)))
+                | (low1 & high4 & ((dead & BIRTH5) | (cells & SURVIVAL5)))
+                | (low2 & high4 & ((dead & BIRTH6) | (cells & SURVIVAL6)))
+                | (low3 & high4 & ((dead & BIRTH7) | (cells & SURVIVAL7)))
+                | (sum8 & ((dead & BIRTH8) | (cells & SURVIVAL8)));
+    }
+}
@@ -0,0 +1,157 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This class generates a kernel for every rule at runtime. The class file of
+ * {@link RuleKernelTemplate} is defined as a new hidden class whose
+ * constants are the mask of the rule. The kernels are cached by the notation
+ * of the rule, so switching between rules generates every kernel only once.
+ * If a kernel cannot be generated, the mask of the rule is looked up instead.
+ * @author Andreas Breer
+ */
+final class RuleKernels {
+
+    /**
+     * The logger of this class.
+     */
+    private final static Logger LOGGER = Logger.getLogger(RuleKernels.class);
+
+    /**
+     * The kernels, keyed by the notation of their rules.
+     */
+    private final static ConcurrentMap<String, RuleKernel> KERNELS =
+            new ConcurrentHashMap<String, RuleKernel>();
+
+    /**
+     * The class file of the template, read when the first kernel is
+     * generated.
+     */
+    private static byte[] template;
+
+    /**
+     * This class has only static methods.
+     */
+    private RuleKernels() {
+        super();
+    }
+
+    /**
+     * Get the kernel of a rule, generate it if it does not exist.
+     * @param rule
+     *            the rule
+     * @return the kernel
+     */
+    static RuleKernel get(Rule rule) {
+        String notation = rule.toString();
+        RuleKernel kernel = KERNELS.get(notation);
+        if (kernel == null) {
+            kernel = create(rule);
+            RuleKernel existing = KERNELS.putIfAbsent(notation, kernel);
+            if (existing != null) {
+                kernel = existing;
+            }
+        }
+        return kernel;
+    }
+
+    /**
+     * Generate the kernel of a rule.
+     * @param rule
+     *            the rule
+     * @return the kernel
+     */
+    private static RuleKernel create(Rule rule) {
+        List<Long> entries = new ArrayList<Long>();
+        for (boolean isAlive : new boolean[] { false, true }) {
+            for (int count = 0; count < Rule.COUNTS; count++) {
+                entries.add(Long.valueOf(rule.getWordMask(isAlive, count)));
+            }
+        }
+
+        try {
+            MethodHandles.Lookup lookup =
+                    MethodHandles.lookup().defineHiddenClassWithClassData(
+                            template(), entries, true);
+            return (RuleKernel) lookup.lookupClass().getDeclaredConstructor()
+                    .newInstance();
+        } catch (IOException e) {
+            LOGGER.warn("Could not generate the kernel of " + rule, e);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Could not generate the kernel of " + rule, e);
+        }
+        return new TableKernel(rule);
+    }
+
+    /**
+     * Get the class file of the template.
+     * @return the bytes of the class file
+     * @throws IOException
+     *             if the class file cannot be read
+     */
+    private static synchronized byte[] template() throws IOException {
+        if (template == null) {
+            String name = RuleKernelTemplate.class.getSimpleName() + ".class";
+            InputStream input =
+                    RuleKernelTemplate.class.getResourceAsStream(name);
+            if (input == null) {
+                throw new IOException("Class file not found: " + name);
+            }
+            try {
+                template = input.readAllBytes();
+            } finally {
+                input.close();
+            }
+        }
+        return template;
+    }
+
+    /**
+     * The kernel of a rule which could not be generated. It looks up the
+     * mask of the rule.
+     */
+    private static final class TableKernel implements RuleKernel {
+
+        /**
+         * The rule of the kernel.
+         */
+        private final Rule rule;
+
+        /**
+         * The constructor of this class using the field rule.
+         * @param rule
+         *            the rule of the kernel
+         */
+        private TableKernel(Rule rule) {
+            this.rule = rule;
+        }
+
+        /**
+         * Calculate the next generation of 64 cells with the mask of the
+         * rule.
+         * @param cells
+         *            the current generation of the cells
+         * @param sum1
+         *            bit 0 of the counts
+         * @param sum2
+         *            bit 1 of the counts
+         * @param sum4
+         *            bit 2 of the counts
+         * @param sum8
+         *            bit 3 of the counts
+         * @return the next generation of the cells
+         */
+        public long nextGeneration(long cells, long sum1, long sum2,
+                long sum4, long sum8) {
+            return rule.nextGeneration(cells, sum1, sum2, sum4, sum8);
+        }
+    }
+}
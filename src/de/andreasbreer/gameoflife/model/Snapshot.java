@@ -0,0 +1,106 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An immutable copy of one generation of a world. Snapshots are published by
+ * the world after every change and can be read by any thread without
+ * locking, see {@link World#getSnapshot()}.
+ * <p>
+ * The buffers of the snapshots are reused. A reader should call
+ * {@link #release()} when it is done, so the buffer can receive a later
+ * generation. A snapshot which is never released stays valid, its buffer is
+ * just not reused. Every call of {@link World#getSnapshot()} returns its own
+ * snapshot, so releasing it twice does no harm.
+ * @author Andreas Breer
+ */
+public final class Snapshot {
+
+    /**
+     * The buffer of the generation.
+     */
+    private final SnapshotBuffer buffer;
+
+    /**
+     * Determines whether this snapshot was released.
+     */
+    private final AtomicBoolean isReleased = new AtomicBoolean();
+
+    /**
+     * The constructor of this class using the field buffer. The caller
+     * registered this snapshot as reader of the buffer.
+     * @param buffer
+     *            the buffer of the generation
+     */
+    Snapshot(SnapshotBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Get the width of the world.
+     * @return the width of the world
+     */
+    public int getWidth() {
+        return buffer.getWidth();
+    }
+
+    /**
+     * Get the height of the world.
+     * @return the height of the world
+     */
+    public int getHeight() {
+        return buffer.getHeight();
+    }
+
+    /**
+     * Get the generation of the world.
+     * @return the generation
+     */
+    public long getGeneration() {
+        return buffer.getGeneration();
+    }
+
+    /**
+     * Get the state of the cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return <code>true</code> if the cell is alive, <code>false</code> if
+     *         it is dead or outside of the world
+     */
+    public boolean isCellAlive(int x, int y) {
+        if (x < 0 || x >= buffer.getWidth() || y < 0
+                || y >= buffer.getHeight()) {
+            return false;
+        }
+        return BitRows.get(buffer.getRows()[y], x);
+    }
+
+    /**
+     * Get the number of living cells.
+     * @return the number of living cells
+     */
+    public long getPopulation() {
+        return BitRows.population(buffer.getRows());
+    }
+
+    /**
+     * Tell the world that this snapshot is not read anymore, so its buffer
+     * can be reused. The snapshot must not be read after it is released.
+     * Only the first call releases the buffer, later calls are ignored.
+     */
+    public void release() {
+        if (isReleased.compareAndSet(false, true)) {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Determine whether this snapshot was released.
+     * @return <code>true</code> if {@link #release()} was called
+     */
+    public boolean isReleased() {
+        return isReleased.get();
+    }
+}
@@ -0,0 +1,136 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reused buffer of one generation of a world. The buffer counts its
+ * readers, so the world only writes into a buffer nobody reads. Every reader
+ * gets its own {@link Snapshot} of the buffer, which releases its reader
+ * once.
+ * @author Andreas Breer
+ */
+final class SnapshotBuffer {
+
+    /**
+     * The state of a buffer the world is writing.
+     */
+    private static final int WRITING = -1;
+
+    /**
+     * The width of the world.
+     */
+    private final int width;
+
+    /**
+     * The height of the world.
+     */
+    private final int height;
+
+    /**
+     * The bitmaps of the rows, like the rows of the world.
+     */
+    private final long[][] rows;
+
+    /**
+     * The generation of the world.
+     */
+    private long generation;
+
+    /**
+     * The number of readers of this buffer, or {@link #WRITING} while the
+     * world writes into it.
+     */
+    private final AtomicInteger state = new AtomicInteger(WRITING);
+
+    /**
+     * The constructor of this class using the dimension of the world. The
+     * new buffer is claimed by the world.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     */
+    SnapshotBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rows = BitRows.create(width, height);
+    }
+
+    /**
+     * Get the width of the world.
+     * @return the width of the world
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the world.
+     * @return the height of the world
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the generation of the world.
+     * @return the generation
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the rows of this buffer.
+     * @return the rows, which must not be changed
+     */
+    long[][] getRows() {
+        return rows;
+    }
+
+    /**
+     * Try to register a reader.
+     * @return <code>true</code> if the buffer can be read,
+     *         <code>false</code> if the world claimed it
+     */
+    boolean tryAcquire() {
+        int readers = state.get();
+        return readers != WRITING && state.compareAndSet(readers, readers + 1);
+    }
+
+    /**
+     * Unregister a reader. Every {@link Snapshot} calls this method at most
+     * once, so the count cannot fall below zero.
+     */
+    void release() {
+        state.decrementAndGet();
+    }
+
+    /**
+     * Try to claim the buffer for writing.
+     * @return <code>true</code> if no reader holds this buffer
+     */
+    boolean tryClaim() {
+        return state.compareAndSet(0, WRITING);
+    }
+
+    /**
+     * Copy the cells of a world into the claimed buffer and make it readable.
+     * @param cells
+     *            the padded rows of the world, at least with the dimension of
+     *            this buffer
+     * @param generation
+     *            the generation of the world
+     */
+    void write(long[][] cells, long generation) {
+        this.generation = generation;
+        // The rows of the world are padded, the halo is left out.
+        long lastWordMask = BitRows.lastWordMask(width);
+        for (int y = 0; y < height; y++) {
+            long[] row = rows[y];
+            System.arraycopy(cells[y], 0, row, 0, row.length);
+            row[row.length - 1] &= lastWordMask;
+        }
+        state.set(0);
+    }
+}
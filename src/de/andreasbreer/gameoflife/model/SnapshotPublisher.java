@@ -0,0 +1,87 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * This class publishes the snapshots of a world through a volatile
+ * reference. Three buffers are reused in turn: one holds the latest
+ * snapshot, the others are read by slow readers or receive the next
+ * generation. The world never waits for a reader: if all buffers are read, a
+ * new buffer replaces one of them. The readers never lock.
+ * @author Andreas Breer
+ */
+final class SnapshotPublisher {
+
+    /**
+     * The number of reused buffers.
+     */
+    private static final int BUFFERS = 3;
+
+    /**
+     * The reused buffers.
+     */
+    private final SnapshotBuffer[] buffers = new SnapshotBuffer[BUFFERS];
+
+    /**
+     * The buffer of the latest published generation.
+     */
+    private volatile SnapshotBuffer latest;
+
+    /**
+     * The index of the buffer to replace if all buffers are read.
+     */
+    private int replace;
+
+    /**
+     * Publish a copy of the cells of a world. Only one thread may publish at
+     * a time, the world calls this method while it holds its lock.
+     * @param cells
+     *            the rows of the world
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param generation
+     *            the generation of the world
+     */
+    void publish(long[][] cells, int width, int height, long generation) {
+        SnapshotBuffer target = null;
+        for (int i = 0; i < BUFFERS && target == null; i++) {
+            SnapshotBuffer buffer = buffers[i];
+            if (buffer != null && buffer != latest
+                    && buffer.getWidth() == width
+                    && buffer.getHeight() == height && buffer.tryClaim()) {
+                target = buffer;
+            }
+        }
+
+        if (target == null) {
+            // All buffers are read or have another dimension.
+            target = new SnapshotBuffer(width, height);
+            if (buffers[replace] == latest) {
+                replace = (replace + 1) % BUFFERS;
+            }
+            buffers[replace] = target;
+            replace = (replace + 1) % BUFFERS;
+        }
+
+        target.write(cells, generation);
+        latest = target;
+    }
+
+    /**
+     * Get the latest snapshot and register the caller as its reader.
+     * @return a new snapshot of the latest buffer, which should be released
+     *         after reading
+     */
+    Snapshot acquire() {
+        while (true) {
+            SnapshotBuffer buffer = latest;
+            if (buffer.tryAcquire()) {
+                if (buffer == latest) {
+                    return new Snapshot(buffer);
+                }
+                // A newer generation was published meanwhile.
+                buffer.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+
+/**
+ * The places where the cells of the world of a game are kept. Only the
+ * cells on the heap are calculated by the world of the game itself, the
+ * others are kept in an {@link ExternalWorld}, which the world of the game
+ * shows, see {@link GameModel#setExternalWorld(ExternalWorld)}. The
+ * {@link ChunkedPlane} of PLANE and the {@link HashLife} of HASHLIFE are
+ * unbounded planes, whose window at the origin has the size of the world.
+ * The {@link OutOfCoreWorld} of OUT_OF_CORE keeps its cells compressed and
+ * spills them to a scratch file, so its dimension must be a multiple of
+ * {@link OutOfCoreWorld#TILE_SIZE}.
+ * @author Andreas Breer
+ */
+public enum StorageType {
+    HEAP, OFF_HEAP, DISTRIBUTED, PLANE, HASHLIFE, OUT_OF_CORE;
+
+    /**
+     * Determine whether the cells are kept on an unbounded plane instead of
+     * a torus.
+     * @return <code>true</code> for PLANE and HASHLIFE
+     */
+    public boolean isPlane() {
+        return this == PLANE || this == HASHLIFE;
+    }
+
+    /**
+     * Create an empty external world of this type.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param workers
+     *            the number of worker processes of a distributed world
+     * @return the external world, or <code>null</code> for the heap
+     * @throws IOException
+     *             if the workers cannot be started
+     * @throws IllegalArgumentException
+     *             if the world cannot be stored this way
+     */
+    public ExternalWorld createWorld(int width, int height, Rule rule,
+            int workers) throws IOException {
+        switch (this) {
+        case OFF_HEAP:
+            OffHeapWorld offHeapWorld = new OffHeapWorld(width, height);
+            offHeapWorld.setRule(rule);
+            return offHeapWorld;
+        case DISTRIBUTED:
+            return new DistributedWorld(width, height, rule, workers);
+        case PLANE:
+            ChunkedPlane plane = new ChunkedPlane(width, height);
+            plane.setRule(rule);
+            return plane;
+        case HASHLIFE:
+            return new HashLife(width, height, rule);
+        case OUT_OF_CORE:
+            OutOfCoreWorld outOfCoreWorld = new OutOfCoreWorld(width, height);
+            outOfCoreWorld.setRule(rule);
+            return outOfCoreWorld;
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A worker process of a {@link DistributedWorld}. The worker owns a
+ * horizontal strip of the world and calculates its generations. Before every
+ * generation it sends its first row to the worker above and its last row to
+ * the worker below, and receives their rows as halo, so every worker only
+ * talks to its two neighbors. The workers form a ring, so the world is a
+ * torus. The halo is received by another thread while the rows are sent, so
+ * no worker waits for a neighbor to read while the neighbor waits for it to
+ * read, however large the rows are.
+ * <p>
+ * The worker fills its strip with random cells itself and sends the strip
+ * shrunk to the size of the view, so the coordinator never holds the whole
+ * world.
+ * <p>
+ * The worker listens on two ports of the loopback interface, one for the
+ * coordinator and one for the worker above, and prints both ports on the
+ * first line of its standard output.
+ * @author Andreas Breer
+ */
+public final class StripWorker {
+
+    /**
+     * The command to set up the strip and connect the neighbors.
+     */
+    static final int SETUP = 1;
+
+    /**
+     * The command to load the rows of the strip.
+     */
+    static final int LOAD = 2;
+
+    /**
+     * The command to fill the strip with random cells.
+     */
+    static final int FILL = 6;
+
+    /**
+     * The command to calculate the next generation.
+     */
+    static final int STEP = 3;
+
+    /**
+     * The command to send the rows of the strip, shrunk to the size of a
+     * view.
+     */
+    static final int GATHER = 4;
+
+    /**
+     * The command to send the number of living cells of the strip.
+     */
+    static final int COUNT = 7;
+
+    /**
+     * The command to stop the worker.
+     */
+    static final int STOP = 5;
+
+    /**
+     * The answer to a command without result.
+     */
+    static final int DONE = 0;
+
+    /**
+     * The stream of the commands of the coordinator.
+     */
+    private final DataInputStream control;
+
+    /**
+     * The stream of the answers to the coordinator.
+     */
+    private final DataOutputStream answers;
+
+    /**
+     * The socket which accepts the worker above.
+     */
+    private final ServerSocket haloServer;
+
+    /**
+     * The stream from the worker above.
+     */
+    private DataInputStream fromAbove;
+
+    /**
+     * The stream to the worker above.
+     */
+    private DataOutputStream toAbove;
+
+    /**
+     * The stream from the worker below.
+     */
+    private DataInputStream fromBelow;
+
+    /**
+     * The stream to the worker below.
+     */
+    private DataOutputStream toBelow;
+
+    /**
+     * The thread which receives the halo while the rows are sent, so large
+     * rows cannot block the workers.
+     */
+    private final ExecutorService receiver =
+            Executors.newSingleThreadExecutor();
+
+    /**
+     * The width of the world.
+     */
+    private int width;
+
+    /**
+     * The row of the world which is the first row of the strip.
+     */
+    private int firstRow;
+
+    /**
+     * The rule of the game.
+     */
+    private Rule rule;
+
+    /**
+     * The rows of the strip.
+     */
+    private long[][] rows;
+
+    /**
+     * The rows which receive the next generation.
+     */
+    private long[][] next;
+
+    /**
+     * The last row of the worker above.
+     */
+    private long[] haloAbove;
+
+    /**
+     * The first row of the worker below.
+     */
+    private long[] haloBelow;
+
+    /**
+     * The constructor of this class using the connection to the coordinator.
+     * @param coordinator
+     *            the socket of the coordinator
+     * @param haloServer
+     *            the socket which accepts the worker above
+     * @throws IOException
+     *             if the streams cannot be opened
+     */
+    private StripWorker(Socket coordinator, ServerSocket haloServer)
+            throws IOException {
+        this.control = input(coordinator);
+        this.answers = output(coordinator);
+        this.haloServer = haloServer;
+    }
+
+    /**
+     * The main method of the worker process.
+     * @param args
+     *            not in use
+     * @throws IOException
+     *             if the connection to the coordinator or a neighbor fails
+     */
+    public static void main(String[] args) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        ServerSocket controlServer = new ServerSocket(0, 1, loopback);
+        ServerSocket haloServer = new ServerSocket(0, 1, loopback);
+        System.out.println(controlServer.getLocalPort() + " "
+                + haloServer.getLocalPort());
+        System.out.flush();
+
+        Socket coordinator = controlServer.accept();
+        controlServer.close();
+        try {
+            new StripWorker(coordinator, haloServer).run();
+        } finally {
+            coordinator.close();
+            haloServer.close();
+        }
+    }
+
+    /**
+     * Execute the commands of the coordinator until it stops the worker.
+     * @throws IOException
+     *             if the connection to the coordinator or a neighbor fails
+     */
+    private void run() throws IOException {
+        try {
+            while (true) {
+                int command = control.readInt();
+                switch (command) {
+                case SETUP:
+                    setUp();
+                    answers.writeInt(DONE);
+                    break;
+                case LOAD:
+                    for (long[] row : rows) {
+                        readRow(control, row);
+                    }
+                    answers.writeInt(DONE);
+                    break;
+                case FILL:
+                    fill();
+                    answers.writeInt(DONE);
+                    break;
+                case STEP:
+                    step();
+                    break;
+                case GATHER:
+                    gather();
+                    break;
+                case COUNT:
+                    answers.writeLong(BitRows.population(rows));
+                    break;
+                case STOP:
+                    return;
+                default:
+                    throw new IOException("Unknown command: " + command);
+                }
+                answers.flush();
+            }
+        } finally {
+            receiver.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the dimension and the position of the strip and the rule, and
+     * connect the neighbors.
+     * @throws IOException
+     *             if a neighbor cannot be connected
+     */
+    private void setUp() throws IOException {
+        width = control.readInt();
+        firstRow = control.readInt();
+        int height = control.readInt();
+        rule = Rule.parse(control.readUTF());
+        int belowPort = control.readInt();
+
+        rows = BitRows.create(width, height);
+        next = BitRows.create(width, height);
+        haloAbove = new long[BitRows.words(width)];
+        haloBelow = new long[BitRows.words(width)];
+
+        // The connection to the worker below is accepted by its halo socket
+        // without waiting, so every worker can connect before it accepts.
+        Socket below =
+                new Socket(InetAddress.getLoopbackAddress(), belowPort);
+        below.setTcpNoDelay(true);
+        fromBelow = input(below);
+        toBelow = output(below);
+        Socket above = haloServer.accept();
+        above.setTcpNoDelay(true);
+        fromAbove = input(above);
+        toAbove = output(above);
+    }
+
+    /**
+     * Fill the strip with random cells. The probability and the seed are read
+     * from the coordinator, and the strip gets the cells it has in a world
+     * filled with the seed.
+     * @throws IOException
+     *             if the probability and the seed cannot be read
+     */
+    private void fill() throws IOException {
+        int probability = control.readInt();
+        long seed = control.readLong();
+        RandomFillTask.create(rows, width, firstRow, firstRow + rows.length,
+                probability, seed).fillBands();
+    }
+
+    /**
+     * Send the rows of the strip shrunk to the size of a view. The scales
+     * and the width of the view are read from the coordinator. A row of the
+     * view is sent for every block of rows which has a row in the strip, so
+     * the coordinator adds up the rows of the blocks which are shared by two
+     * strips.
+     * @throws IOException
+     *             if the rows cannot be sent
+     */
+    private void gather() throws IOException {
+        int scaleX = control.readInt();
+        int scaleY = control.readInt();
+        long[] viewRow = new long[BitRows.words(control.readInt())];
+        int viewY = firstRow / scaleY;
+        for (int y = 0; y < rows.length; y++) {
+            if ((firstRow + y) / scaleY != viewY) {
+                writeRow(answers, viewRow);
+                Arrays.fill(viewRow, 0L);
+                viewY = (firstRow + y) / scaleY;
+            }
+            BitRows.addScaled(rows[y], width, scaleX, viewRow);
+        }
+        writeRow(answers, viewRow);
+    }
+
+    /**
+     * Exchange the halo and calculate the next generation of the strip. The
+     * answer holds the nanoseconds spent exchanging and calculating.
+     * @throws IOException
+     *             if the halo cannot be exchanged
+     */
+    private void step() throws IOException {
+        long time = System.nanoTime();
+        Future<Void> received = receiver.submit(new Callable<Void>() {
+
+            /**
+             * Receive the halo from the workers above and below.
+             * @return nothing
+             * @throws IOException
+             *             if the halo cannot be received
+             */
+            public Void call() throws IOException {
+                readRow(fromAbove, haloAbove);
+                readRow(fromBelow, haloBelow);
+                return null;
+            }
+        });
+        writeRow(toBelow, rows[rows.length - 1]);
+        toBelow.flush();
+        writeRow(toAbove, rows[0]);
+        toAbove.flush();
+        try {
+            received.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while receiving the halo", e);
+        } catch (ExecutionException e) {
+            throw new IOException("The halo could not be received", e
+                    .getCause());
+        }
+        long communicationTime = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        for (int y = 0; y < rows.length; y++) {
+            long[] above = (y == 0) ? haloAbove : rows[y - 1];
+            long[] below = (y == rows.length - 1) ? haloBelow : rows[y + 1];
+            BitRows.nextGeneration(above, rows[y], below, next[y], width,
+                    rule);
+        }
+        long[][] current = rows;
+        rows = next;
+        next = current;
+        long computeTime = System.nanoTime() - time;
+
+        answers.writeLong(communicationTime);
+        answers.writeLong(computeTime);
+    }
+
+    /**
+     * Open a buffered input stream of a socket.
+     * @param socket
+     *            the socket
+     * @return the stream
+     * @throws IOException
+     *             if the stream cannot be opened
+     */
+    static DataInputStream input(Socket socket) throws IOException {
+        return new DataInputStream(new BufferedInputStream(
+                socket.getInputStream()));
+    }
+
+    /**
+     * Open a buffered output stream of a socket.
+     * @param socket
+     *            the socket
+     * @return the stream
+     * @throws IOException
+     *             if the stream cannot be opened
+     */
+    static DataOutputStream output(Socket socket) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                socket.getOutputStream()));
+    }
+
+    /**
+     * Write the words of a row.
+     * @param output
+     *            the stream
+     * @param row
+     *            the row
+     * @throws IOException
+     *             if the row cannot be written
+     */
+    static void writeRow(DataOutputStream output, long[] row)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(row.length * Long.BYTES);
+        buffer.asLongBuffer().put(row);
+        output.write(buffer.array());
+    }
+
+    /**
+     * Read the words of a row.
+     * @param input
+     *            the stream
+     * @param row
+     *            the row which receives the words
+     * @throws IOException
+     *             if the row cannot be read
+     */
+    static void readRow(DataInputStream input, long[] row)
+            throws IOException {
+        byte[] bytes = new byte[row.length * Long.BYTES];
+        input.readFully(bytes);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(row);
+    }
+}
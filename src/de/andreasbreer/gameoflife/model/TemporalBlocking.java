@@ -0,0 +1,279 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class calculates several generations of a world in one sweep. The
+ * world is cut into tiles of whole rows, and every tile is advanced by all
+ * generations before the next tile is read, so a tile small enough for the
+ * cache is read from the memory once instead of once per generation.
+ * <p>
+ * A row after k generations depends on the k rows above and below it. So a
+ * tile is copied with a halo of k rows on both sides, and every generation
+ * calculates one row less at both ends, until after k generations exactly
+ * the rows of the tile are left. The rows of the halo are calculated twice,
+ * by this tile and by its neighbor, but the result is exact. The world is a
+ * torus. The tiles are copied without the halo of the padded rows of the
+ * world, which is only valid for one generation, and wrap around at the
+ * width instead.
+ * @author Andreas Breer
+ */
+class TemporalBlocking {
+
+    /**
+     * The number of tasks per thread, so a thread which finishes early can
+     * steal work.
+     */
+    private final static int TASKS_PER_THREAD = 4;
+
+    /**
+     * The number of generations calculated in one sweep.
+     */
+    private final int depth;
+
+    /**
+     * The number of rows of a tile.
+     */
+    private final int tileHeight;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param depth
+     *            the number of generations calculated in one sweep
+     * @param tileHeight
+     *            the number of rows of a tile
+     * @throws IllegalArgumentException
+     *             if the depth or the height is less than one
+     */
+    TemporalBlocking(int depth, int tileHeight) {
+        if (depth < 1 || tileHeight < 1) {
+            throw new IllegalArgumentException("Invalid temporal blocking: "
+                    + depth + " generations, " + tileHeight + " rows");
+        }
+        this.depth = depth;
+        this.tileHeight = tileHeight;
+    }
+
+    /**
+     * Get the number of generations calculated in one sweep.
+     * @return the depth
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Get the number of rows of a tile.
+     * @return the height of a tile
+     */
+    int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Calculate the generation after the next {@link #getDepth()}
+     * generations.
+     * @param cells
+     *            the padded rows of the current generation
+     * @param next
+     *            the padded rows which receive the resulting generation,
+     *            without the halo
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param pool
+     *            the pool of threads to calculate with, or <code>null</code>
+     *            if the calling thread calculates
+     * @param changes
+     *            the changes which receive every word which differs between
+     *            the current and the resulting generation
+     */
+    void advance(long[][] cells, long[][] next, int width, int height,
+            Rule rule, ForkJoinPool pool, CellChanges changes) {
+        int tiles = (height + tileHeight - 1) / tileHeight;
+        int tilesPerTask = tiles;
+        if (pool != null) {
+            tilesPerTask =
+                    Math.max(1, tiles
+                            / (TASKS_PER_THREAD * pool.getParallelism()));
+        }
+        TileTask task =
+                new TileTask(cells, next, width, height, rule, 0, tiles,
+                        tilesPerTask);
+        if (pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        changes.add(task.changes);
+    }
+
+    /**
+     * This task calculates a range of tiles, or splits the range into two
+     * halves.
+     */
+    private final class TileTask extends RecursiveAction {
+
+        /**
+         *
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The rows of the current generation.
+         */
+        private final long[][] cells;
+
+        /**
+         * The rows which receive the resulting generation.
+         */
+        private final long[][] next;
+
+        /**
+         * The width of the world.
+         */
+        private final int width;
+
+        /**
+         * The height of the world.
+         */
+        private final int height;
+
+        /**
+         * The rule of the game.
+         */
+        private final Rule rule;
+
+        /**
+         * The first tile of the range.
+         */
+        private final int fromTile;
+
+        /**
+         * The tile after the last tile of the range.
+         */
+        private final int toTile;
+
+        /**
+         * The maximal number of tiles which are calculated without
+         * splitting.
+         */
+        private final int tilesPerTask;
+
+        /**
+         * The changes of the tiles of this task.
+         */
+        private final CellChanges changes = new CellChanges();
+
+        /**
+         * The constructor of this class using all fields.
+         * @param cells
+         *            the rows of the current generation
+         * @param next
+         *            the rows which receive the resulting generation
+         * @param width
+         *            the width of the world
+         * @param height
+         *            the height of the world
+         * @param rule
+         *            the rule of the game
+         * @param fromTile
+         *            the first tile of the range
+         * @param toTile
+         *            the tile after the last tile of the range
+         * @param tilesPerTask
+         *            the maximal number of tiles which are not split
+         */
+        private TileTask(long[][] cells, long[][] next, int width,
+                int height, Rule rule, int fromTile, int toTile,
+                int tilesPerTask) {
+            this.cells = cells;
+            this.next = next;
+            this.width = width;
+            this.height = height;
+            this.rule = rule;
+            this.fromTile = fromTile;
+            this.toTile = toTile;
+            this.tilesPerTask = tilesPerTask;
+        }
+
+        /**
+         * Calculate the tiles or split them into two halves.
+         */
+        @Override
+        protected void compute() {
+            if (toTile - fromTile <= tilesPerTask) {
+                // The buffers of the tile and its halo are reused for all
+                // tiles of this task.
+                long[][] rows = BitRows.create(width, tileHeight + 2 * depth);
+                long[][] nextRows =
+                        BitRows.create(width, tileHeight + 2 * depth);
+                for (int tile = fromTile; tile < toTile; tile++) {
+                    calculateTile(tile, rows, nextRows);
+                }
+            } else {
+                int middle = (fromTile + toTile) >>> 1;
+                TileTask upper =
+                        new TileTask(cells, next, width, height, rule,
+                                fromTile, middle, tilesPerTask);
+                TileTask lower =
+                        new TileTask(cells, next, width, height, rule, middle,
+                                toTile, tilesPerTask);
+                invokeAll(upper, lower);
+                changes.add(upper.changes);
+                changes.add(lower.changes);
+            }
+        }
+
+        /**
+         * Advance a tile by all generations.
+         * @param tile
+         *            the index of the tile
+         * @param rows
+         *            the buffer of the tile and its halo
+         * @param nextRows
+         *            the second buffer of the tile and its halo
+         */
+        private void calculateTile(int tile, long[][] rows, long[][] nextRows) {
+            int fromRow = tile * tileHeight;
+            int tileRows = Math.min(tileHeight, height - fromRow);
+            int count = tileRows + 2 * depth;
+
+            // Copy the tile with a halo of depth rows above and below. The
+            // halo wraps around, several times in a low world.
+            long lastWordMask = BitRows.lastWordMask(width);
+            int last = rows[0].length - 1;
+            for (int i = 0; i < count; i++) {
+                int y = Math.floorMod(fromRow - depth + i, height);
+                System.arraycopy(cells[y], 0, rows[i], 0, rows[i].length);
+                rows[i][last] &= lastWordMask;
+            }
+
+            // Every generation loses one valid row at both ends.
+            for (int generation = 1; generation <= depth; generation++) {
+                for (int i = generation; i < count - generation; i++) {
+                    BitRows.nextGeneration(rows[i - 1], rows[i], rows[i + 1],
+                            nextRows[i], width, rule);
+                }
+                long[][] current = rows;
+                rows = nextRows;
+                nextRows = current;
+            }
+
+            for (int i = 0; i < tileRows; i++) {
+                int y = fromRow + i;
+                long[] row = rows[depth + i];
+                for (int word = 0; word < last; word++) {
+                    changes.addWord(y, word, cells[y][word], row[word]);
+                }
+                changes.addWord(y, last, cells[y][last] & lastWordMask,
+                        row[last]);
+                System.arraycopy(row, 0, next[y], 0, row.length);
+            }
+        }
+    }
+}
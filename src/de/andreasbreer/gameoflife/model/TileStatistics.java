@@ -0,0 +1,82 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The counters of the tiles of one generation, calculated by the tiled
+ * engine.
+ * @author Andreas Breer
+ */
+public final class TileStatistics {
+
+    /**
+     * The number of calculated tiles.
+     */
+    private final int computedTiles;
+
+    /**
+     * The number of tiles skipped as still life.
+     */
+    private final int stillTiles;
+
+    /**
+     * The number of tiles skipped with period two.
+     */
+    private final int periodTwoTiles;
+
+    /**
+     * The constructor of this class using all fields.
+     * @param computedTiles
+     *            the number of calculated tiles
+     * @param stillTiles
+     *            the number of tiles skipped as still life
+     * @param periodTwoTiles
+     *            the number of tiles skipped with period two
+     */
+    TileStatistics(int computedTiles, int stillTiles, int periodTwoTiles) {
+        this.computedTiles = computedTiles;
+        this.stillTiles = stillTiles;
+        this.periodTwoTiles = periodTwoTiles;
+    }
+
+    /**
+     * Get the number of calculated tiles.
+     * @return the number of calculated tiles
+     */
+    public int getComputedTiles() {
+        return computedTiles;
+    }
+
+    /**
+     * Get the number of tiles skipped as still life.
+     * @return the number of still tiles
+     */
+    public int getStillTiles() {
+        return stillTiles;
+    }
+
+    /**
+     * Get the number of tiles skipped with period two.
+     * @return the number of tiles with period two
+     */
+    public int getPeriodTwoTiles() {
+        return periodTwoTiles;
+    }
+
+    /**
+     * Get the number of skipped tiles.
+     * @return the number of skipped tiles
+     */
+    public int getSkippedTiles() {
+        return stillTiles + periodTwoTiles;
+    }
+
+    /**
+     * Get a readable representation of the counters.
+     * @return the counters as string
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%d tiles computed, %d skipped (%d still, %d period two)",
+                computedTiles, getSkippedTiles(), stillTiles, periodTwoTiles);
+    }
+}
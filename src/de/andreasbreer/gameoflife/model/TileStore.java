@@ -0,0 +1,373 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The tiles of one generation of an out-of-core world. Every tile is stored
+ * compressed, in memory until the memory limit is reached and in a scratch
+ * file afterwards. Empty tiles are not stored at all. The recently used
+ * tiles are kept decompressed in a cache of bounded size, which evicts the
+ * least recently used tile.
+ * <p>
+ * The decompressed tiles are shared with the callers and must not be
+ * changed. A store is reused for another generation after it was cleared,
+ * so every store creates at most one scratch file.
+ * @author Andreas Breer
+ */
+class TileStore implements Closeable {
+
+    /**
+     * The number of words of a tile.
+     */
+    static final int TILE_WORDS = BitRows.WORD_SIZE;
+
+    /**
+     * The number of bytes of a decompressed tile.
+     */
+    private static final int TILE_BYTES = TILE_WORDS * Long.BYTES;
+
+    /**
+     * The compressed tiles kept in memory, keyed by the index of the tile.
+     */
+    private final Map<Integer, byte[]> compressed =
+            new HashMap<Integer, byte[]>();
+
+    /**
+     * The position and length of the tiles in the scratch file.
+     */
+    private final Map<Integer, long[]> spilled = new HashMap<Integer, long[]>();
+
+    /**
+     * The decompressed tiles, in the order of their last use.
+     */
+    private final Map<Integer, long[]> cache;
+
+    /**
+     * The maximal number of compressed bytes in memory.
+     */
+    private final long memoryLimit;
+
+    /**
+     * The directory of the scratch file.
+     */
+    private final File directory;
+
+    /**
+     * The scratch file, created when the first tile is spilled.
+     */
+    private File scratchFile;
+
+    /**
+     * The opened scratch file.
+     */
+    private RandomAccessFile scratch;
+
+    /**
+     * The number of compressed bytes in memory.
+     */
+    private long compressedBytes;
+
+    /**
+     * The number of bytes written to the scratch file.
+     */
+    private long spilledBytes;
+
+    /**
+     * The number of tiles found in the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of tiles which had to be decompressed.
+     */
+    private long misses;
+
+    /**
+     * The constructor of this class using the limits of the cache and the
+     * memory.
+     * @param cacheSize
+     *            the maximal number of decompressed tiles
+     * @param memoryLimit
+     *            the maximal number of compressed bytes in memory
+     * @param directory
+     *            the directory of the scratch file, <code>null</code> for
+     *            the default temporary directory
+     */
+    TileStore(final int cacheSize, long memoryLimit, File directory) {
+        this.memoryLimit = memoryLimit;
+        this.directory = directory;
+        cache = new LinkedHashMap<Integer, long[]>(16, 0.75f, true) {
+
+            /**
+             * The serial version of the cache.
+             */
+            private static final long serialVersionUID = 1L;
+
+            /**
+             * Evict the least recently used tile when the cache is full.
+             * @param eldest
+             *            the least recently used tile
+             * @return <code>true</code> if the cache is full
+             */
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Integer, long[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Get a tile.
+     * @param tile
+     *            the index of the tile
+     * @return the words of the tile, <code>null</code> if the tile is empty
+     * @throws IOException
+     *             if the scratch file cannot be read
+     */
+    long[] get(int tile) throws IOException {
+        Integer key = Integer.valueOf(tile);
+        byte[] data;
+        synchronized (this) {
+            long[] words = cache.get(key);
+            if (words != null) {
+                hits++;
+                return words;
+            }
+            data = load(key);
+            if (data == null) {
+                return null;
+            }
+        }
+
+        // Decompress outside of the lock, so the sweep and the prefetch do
+        // not wait for each other.
+        long[] words = decompress(data);
+        synchronized (this) {
+            misses++;
+            cache.put(key, words);
+        }
+        return words;
+    }
+
+    /**
+     * Store a tile. The tile is compressed immediately, so the caller may
+     * reuse the array.
+     * @param tile
+     *            the index of the tile
+     * @param words
+     *            the words of the tile, or <code>null</code> for an empty
+     *            tile
+     * @throws IOException
+     *             if the scratch file cannot be written
+     */
+    void put(int tile, long[] words) throws IOException {
+        Integer key = Integer.valueOf(tile);
+        byte[] data = isEmpty(words) ? null : compress(words);
+        synchronized (this) {
+            cache.remove(key);
+            byte[] previous = compressed.remove(key);
+            if (previous != null) {
+                compressedBytes -= previous.length;
+            }
+            spilled.remove(key);
+            if (data == null) {
+                return;
+            }
+
+            if (compressedBytes + data.length <= memoryLimit) {
+                compressed.put(key, data);
+                compressedBytes += data.length;
+            } else {
+                spill(key, data);
+            }
+        }
+    }
+
+    /**
+     * Get the number of compressed bytes in memory.
+     * @return the number of bytes
+     */
+    synchronized long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Get the number of bytes written to the scratch file.
+     * @return the number of bytes
+     */
+    synchronized long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Get the number of tiles found in the cache.
+     * @return the number of hits
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of tiles which had to be decompressed.
+     * @return the number of misses
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Release the tiles and empty the scratch file, so the store can hold
+     * another generation. The counters start again from zero.
+     * @throws IOException
+     *             if the scratch file cannot be truncated
+     */
+    synchronized void clear() throws IOException {
+        cache.clear();
+        compressed.clear();
+        spilled.clear();
+        compressedBytes = 0;
+        spilledBytes = 0;
+        hits = 0;
+        misses = 0;
+        if (scratch != null) {
+            scratch.setLength(0);
+        }
+    }
+
+    /**
+     * Release the tiles and delete the scratch file.
+     * @throws IOException
+     *             if the scratch file cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        cache.clear();
+        compressed.clear();
+        spilled.clear();
+        if (scratch != null) {
+            scratch.close();
+            scratch = null;
+            scratchFile.delete();
+        }
+    }
+
+    /**
+     * Load the compressed bytes of a tile.
+     * @param key
+     *            the index of the tile
+     * @return the bytes, <code>null</code> if the tile is empty
+     * @throws IOException
+     *             if the scratch file cannot be read
+     */
+    private byte[] load(Integer key) throws IOException {
+        byte[] data = compressed.get(key);
+        if (data == null) {
+            long[] location = spilled.get(key);
+            if (location != null) {
+                data = new byte[(int) location[1]];
+                scratch.seek(location[0]);
+                scratch.readFully(data);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Append the compressed bytes of a tile to the scratch file.
+     * @param key
+     *            the index of the tile
+     * @param data
+     *            the compressed bytes
+     * @throws IOException
+     *             if the scratch file cannot be written
+     */
+    private void spill(Integer key, byte[] data) throws IOException {
+        if (scratch == null) {
+            scratchFile = File.createTempFile("gameoflife", ".tiles",
+                    directory);
+            scratchFile.deleteOnExit();
+            scratch = new RandomAccessFile(scratchFile, "rw");
+        }
+        long position = scratch.length();
+        scratch.seek(position);
+        scratch.write(data);
+        spilled.put(key, new long[] { position, data.length });
+        spilledBytes += data.length;
+    }
+
+    /**
+     * Determine whether no cell of a tile is alive.
+     * @param words
+     *            the words of the tile, may be <code>null</code>
+     * @return <code>true</code> if the tile is empty
+     */
+    static boolean isEmpty(long[] words) {
+        if (words != null) {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compress the words of a tile.
+     * @param words
+     *            the words of the tile
+     * @return the compressed bytes
+     */
+    private static byte[] compress(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(TILE_BYTES);
+        buffer.asLongBuffer().put(words);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(buffer.array());
+            deflater.finish();
+            byte[] output = new byte[TILE_BYTES + 64];
+            int length = deflater.deflate(output);
+            byte[] data = new byte[length];
+            System.arraycopy(output, 0, data, 0, length);
+            return data;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress the words of a tile.
+     * @param data
+     *            the compressed bytes
+     * @return the words of the tile
+     * @throws IOException
+     *             if the bytes are corrupt
+     */
+    private static long[] decompress(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] output = new byte[TILE_BYTES];
+            if (inflater.inflate(output) != TILE_BYTES) {
+                throw new IOException("Corrupt tile");
+            }
+            long[] words = new long[TILE_WORDS];
+            ByteBuffer.wrap(output).asLongBuffer().get(words);
+            return words;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt tile", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
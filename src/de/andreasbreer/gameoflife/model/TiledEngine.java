@@ -0,0 +1,328 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This engine splits the world into tiles of one word (64 cells) times 32
+ * rows and skips the tiles which settled down. A tile whose neighborhood did
+ * not change in the last generation is a still life and is copied. A tile
+ * whose neighborhood equals the generation before the last one oscillates
+ * with period two (like a blinker), its next generation is the generation
+ * before the last one, which is still in the buffer of the next generation.
+ * Only the other tiles are calculated. The tiles only cover the world, a
+ * changed cell of the halo flags the tile of the cell on the edge which reads
+ * it, see {@link #cellToggled(long[][], int, int)}.
+ * @author Andreas Breer
+ */
+class TiledEngine extends RowBandEngine {
+
+    /**
+     * The number of rows of a tile.
+     */
+    static final int TILE_HEIGHT = 32;
+
+    /**
+     * The width of the world, without the halo.
+     */
+    private int width;
+
+    /**
+     * The height of the world, without the halo.
+     */
+    private int height;
+
+    /**
+     * The number of tiles in a row of tiles.
+     */
+    private int columns;
+
+    /**
+     * The number of rows of tiles.
+     */
+    private int rows;
+
+    /**
+     * Determines whether the flags of the last generation are valid, and the
+     * buffer of the next generation holds the generation before the current
+     * one.
+     */
+    private boolean isValid;
+
+    /**
+     * For every tile: the last generation differs from the one before.
+     */
+    private boolean[] changed;
+
+    /**
+     * For every tile: the last generation differs from the generation two
+     * generations before.
+     */
+    private boolean[] changedTwice;
+
+    /**
+     * For every tile: the next generation differs from the current one.
+     */
+    private boolean[] nextChanged;
+
+    /**
+     * For every tile: the next generation differs from the generation before
+     * the current one.
+     */
+    private boolean[] nextChangedTwice;
+
+    /**
+     * For every tile: a cell of the tile or of the halo next to it was
+     * toggled after the last generation. The generation before the current
+     * one in the buffer is then no longer the generation before the toggled
+     * cells, so the next generation of the tile must not be taken for a
+     * period of two.
+     */
+    private boolean[] toggled;
+
+    /**
+     * The number of tiles calculated in the current generation.
+     */
+    private final AtomicInteger computedTiles = new AtomicInteger();
+
+    /**
+     * The number of still tiles in the current generation.
+     */
+    private final AtomicInteger stillTiles = new AtomicInteger();
+
+    /**
+     * The number of tiles with period two in the current generation.
+     */
+    private final AtomicInteger periodTwoTiles = new AtomicInteger();
+
+    /**
+     * The counters of the last generation.
+     */
+    private volatile TileStatistics statistics = new TileStatistics(0, 0, 0);
+
+    /**
+     * Calculate the tiles of the next generation which did not settle down.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows of the generation before, which receive the next
+     *            generation
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     * @param rule
+     *            the rule of the game
+     * @param pool
+     *            the pool of threads to calculate with, or <code>null</code>
+     *            if the calling thread calculates
+     * @param changes
+     *            the changes which receive every changed word
+     * @return the rows of the next generation
+     */
+    @Override
+    public long[][] nextGeneration(long[][] cells, long[][] next, int width,
+            int height, Rule rule, ForkJoinPool pool, CellChanges changes) {
+        int words = BitRows.words(width);
+        int tileRows = (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+        if (this.width != width || this.height != height) {
+            this.width = width;
+            this.height = height;
+            columns = words;
+            rows = tileRows;
+            changed = new boolean[columns * rows];
+            changedTwice = new boolean[columns * rows];
+            nextChanged = new boolean[columns * rows];
+            nextChangedTwice = new boolean[columns * rows];
+            toggled = new boolean[columns * rows];
+            isValid = false;
+        }
+
+        computedTiles.set(0);
+        stillTiles.set(0);
+        periodTwoTiles.set(0);
+        super.nextGeneration(cells, next, width, height, rule, pool, changes);
+        statistics =
+                new TileStatistics(computedTiles.get(), stillTiles.get(),
+                        periodTwoTiles.get());
+
+        // The flags of the next generation become the flags of the last one.
+        boolean[] flags = changed;
+        changed = nextChanged;
+        nextChanged = flags;
+        flags = changedTwice;
+        changedTwice = nextChangedTwice;
+        nextChangedTwice = flags;
+        isValid = true;
+        return next;
+    }
+
+    /**
+     * Nothing is known about the generations anymore, so all tiles are
+     * calculated in the next generation.
+     */
+    @Override
+    public void reset() {
+        isValid = false;
+    }
+
+    /**
+     * The tile of a toggled cell changed, so it and its neighbors are
+     * calculated in the next generation, the other tiles keep their flags. A
+     * cell of the halo flags the tile of the cell on the edge next to it.
+     * @param cells
+     *            the rows of the cells
+     * @param x
+     *            the x-position of the cell, width and width + 1 are the
+     *            halo
+     * @param y
+     *            the y-position of the cell, height and height + 1 are the
+     *            halo
+     */
+    @Override
+    public void cellToggled(long[][] cells, int x, int y) {
+        if (!isValid) {
+            return;
+        }
+        int edgeX = (x < width) ? x : (x == width) ? width - 1 : 0;
+        int edgeY = (y < height) ? y : (y == height) ? height - 1 : 0;
+        int tile = (edgeY / TILE_HEIGHT) * columns + (edgeX >>> 6);
+        changed[tile] = true;
+        changedTwice[tile] = true;
+        toggled[tile] = true;
+    }
+
+    /**
+     * Get the counters of the tiles of the last generation.
+     * @return the counters
+     */
+    TileStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Calculate the rows of tiles which start in a band of rows.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     * @param changes
+     *            the changes of the band, which receive every changed word
+     */
+    @Override
+    void calculateRows(long[][] cells, long[][] next, int width, int height,
+            Rule rule, int fromRow, int toRow, CellChanges changes) {
+        int firstTileRow = (fromRow + TILE_HEIGHT - 1) / TILE_HEIGHT;
+        for (int tileY = firstTileRow; tileY * TILE_HEIGHT < toRow; tileY++) {
+            for (int tileX = 0; tileX < columns; tileX++) {
+                calculateTile(cells, next, width, height, rule, tileX,
+                        tileY, changes);
+            }
+        }
+    }
+
+    /**
+     * Calculate, copy or skip a tile.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param tileX
+     *            the column of the tile
+     * @param tileY
+     *            the row of the tile
+     * @param changes
+     *            the changes which receive every changed word
+     */
+    private void calculateTile(long[][] cells, long[][] next, int width,
+            int height, Rule rule, int tileX, int tileY, CellChanges changes) {
+        int tile = tileY * columns + tileX;
+        int fromRow = tileY * TILE_HEIGHT;
+        int toRow = Math.min(height, fromRow + TILE_HEIGHT);
+        // The last column of tiles is cut off before the halo.
+        long mask =
+                (tileX == columns - 1) ? BitRows.lastWordMask(width) : -1L;
+
+        if (isValid && !isNeighborhoodChanged(changed, tileX, tileY)) {
+            // A still life: the next generation is the current one.
+            for (int y = fromRow; y < toRow; y++) {
+                next[y][tileX] = cells[y][tileX];
+            }
+            nextChanged[tile] = false;
+            nextChangedTwice[tile] = false;
+            stillTiles.incrementAndGet();
+        } else if (isValid
+                && !isNeighborhoodChanged(changedTwice, tileX, tileY)) {
+            // Period two: the next generation is the one before the current
+            // one, which is still in the buffer.
+            for (int y = fromRow; y < toRow; y++) {
+                changes.addWord(y, tileX, cells[y][tileX] & mask,
+                        next[y][tileX] & mask);
+            }
+            nextChanged[tile] = changed[tile];
+            nextChangedTwice[tile] = false;
+            periodTwoTiles.incrementAndGet();
+        } else {
+            boolean isChanged = false;
+            boolean isChangedTwice = false;
+            for (int y = fromRow; y < toRow; y++) {
+                long[] above = cells[(y == 0) ? height + 1 : y - 1];
+                long word =
+                        BitRows.nextGeneration(above, cells[y], cells[y + 1],
+                                tileX, width + 2, rule) & mask;
+                long current = cells[y][tileX] & mask;
+                isChanged |= (word != current);
+                isChangedTwice |= (word != (next[y][tileX] & mask));
+                changes.addWord(y, tileX, current, word);
+                next[y][tileX] = word;
+            }
+            nextChanged[tile] = isChanged;
+            // Without valid flags the buffer held no real generation.
+            nextChangedTwice[tile] = isChangedTwice || !isValid
+                    || toggled[tile];
+            toggled[tile] = false;
+            computedTiles.incrementAndGet();
+        }
+    }
+
+    /**
+     * Determine whether a tile or one of its eight neighbors is flagged. The
+     * tiles do not wrap around, the halo flags the tiles on the edges.
+     * @param flags
+     *            the flags of the tiles
+     * @param tileX
+     *            the column of the tile
+     * @param tileY
+     *            the row of the tile
+     * @return <code>true</code> if a tile of the neighborhood is flagged
+     */
+    private boolean isNeighborhoodChanged(boolean[] flags, int tileX,
+            int tileY) {
+        int toY = Math.min(rows - 1, tileY + 1);
+        int toX = Math.min(columns - 1, tileX + 1);
+        for (int y = Math.max(0, tileY - 1); y <= toY; y++) {
+            for (int x = Math.max(0, tileX - 1); x <= toX; x++) {
+                if (flags[y * columns + x]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the last durations of a recurring task, for example the
+ * calculation of a generation, to report their percentiles. The durations
+ * are kept in a ring of fixed size, so old durations are forgotten and
+ * adding a duration does not allocate memory.
+ * @author Andreas Breer
+ */
+public final class TimeSamples {
+
+    /**
+     * The durations in nanoseconds, the oldest one at the position of the
+     * next duration once the ring is full.
+     */
+    private final long[] samples;
+
+    /**
+     * The number of durations added since the last reset.
+     */
+    private long count;
+
+    /**
+     * The constructor of this class using the number of kept durations.
+     * @param capacity
+     *            the number of kept durations
+     * @throws IllegalArgumentException
+     *             if the capacity is less than one
+     */
+    public TimeSamples(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: "
+                    + capacity);
+        }
+        samples = new long[capacity];
+    }
+
+    /**
+     * Add a duration. The oldest duration is forgotten when the ring is full.
+     * @param nanos
+     *            the duration in nanoseconds
+     */
+    public synchronized void add(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+    }
+
+    /**
+     * Forget all durations.
+     */
+    public synchronized void reset() {
+        count = 0;
+    }
+
+    /**
+     * Get the number of durations added since the last reset.
+     * @return the number of durations, which may be more than are kept
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the last duration.
+     * @return the duration in nanoseconds, or 0 if there is none
+     */
+    public synchronized long getLast() {
+        if (count == 0) {
+            return 0;
+        }
+        return samples[(int) ((count - 1) % samples.length)];
+    }
+
+    /**
+     * Get the mean of the kept durations.
+     * @return the mean in nanoseconds, or 0 if there is none
+     */
+    public synchronized double getMean() {
+        int size = size();
+        if (size == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += samples[i];
+        }
+        return (double) sum / size;
+    }
+
+    /**
+     * Get a percentile of the kept durations, the smallest duration which is
+     * not exceeded by the given part of the durations.
+     * @param percent
+     *            the part of the durations in percent, 100 for the maximum
+     * @return the duration in nanoseconds, or 0 if there is none
+     * @throws IllegalArgumentException
+     *             if the percent is not in the range from 0 to 100
+     */
+    public long getPercentile(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Invalid percentile: "
+                    + percent);
+        }
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size());
+        }
+        if (sorted.length == 0) {
+            return 0;
+        }
+        // The durations are sorted outside of the lock, so the recording
+        // thread does not wait for a reader.
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * Get the number of kept durations.
+     * @return the number of durations
+     */
+    private int size() {
+        return (int) Math.min(count, samples.length);
+    }
+
+    /**
+     * Get a readable representation of the durations.
+     * @return the count and the percentiles in microseconds
+     */
+    @Override
+    public String toString() {
+        return String.format("%d samples, median %d us, 99%% %d us, max %d us",
+                getCount(), getPercentile(50) / 1000,
+                getPercentile(99) / 1000, getPercentile(100) / 1000);
+    }
+}
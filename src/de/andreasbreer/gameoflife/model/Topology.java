@@ -0,0 +1,51 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * The ways the edges of a world are joined.
+ * @author Andreas Breer
+ */
+public enum Topology {
+
+    /**
+     * The left edge is joined to the right edge and the top edge to the
+     * bottom edge.
+     */
+    TORUS,
+
+    /**
+     * The cells outside of the edges are always dead.
+     */
+    DEAD_BORDER,
+
+    /**
+     * The left edge is joined to the right edge, the top edge is joined to
+     * the bottom edge the other way round, so a glider leaving the world at
+     * the top returns mirrored at the bottom.
+     */
+    KLEIN_BOTTLE;
+
+    /**
+     * Determine whether the left edge is joined to the right edge.
+     * @return <code>true</code> if the rows wrap around
+     */
+    boolean isWrappingRows() {
+        return this != DEAD_BORDER;
+    }
+
+    /**
+     * Determine whether the top edge is joined to the bottom edge.
+     * @return <code>true</code> if the columns wrap around
+     */
+    boolean isWrappingColumns() {
+        return this != DEAD_BORDER;
+    }
+
+    /**
+     * Determine whether the top edge is joined to the bottom edge the other
+     * way round.
+     * @return <code>true</code> if the columns wrap around mirrored
+     */
+    boolean isMirroringColumns() {
+        return this == KLEIN_BOTTLE;
+    }
+}
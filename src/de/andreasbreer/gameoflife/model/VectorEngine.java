@@ -0,0 +1,251 @@
+package de.andreasbreer.gameoflife.model;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This engine calculates the bitwise adders of
+ * {@link BitRows#nextGeneration(long[], long[], long[], int, int, Rule)} on vectors
+ * of words, so several words of a row are calculated by one instruction. The
+ * first and the last word of a row read the halo and are calculated word by
+ * word, like the words which do not fill a whole vector.
+ * <p>
+ * This class needs the incubator module <code>jdk.incubator.vector</code>
+ * and must only be loaded if the module is present, see
+ * {@link EngineType#isAvailable()}.
+ * @author Andreas Breer
+ */
+class VectorEngine extends RowBandEngine {
+
+    /**
+     * The preferred vector shape of the platform.
+     */
+    private static final VectorSpecies<Long> SPECIES =
+            LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Calculate the next generation of a band of rows.
+     * @param cells
+     *            the rows of the current generation
+     * @param next
+     *            the rows which receive the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param height
+     *            the height of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param fromRow
+     *            the first row of the band
+     * @param toRow
+     *            the row after the last row of the band
+     * @param changes
+     *            the changes of the band, which receive every changed word
+     */
+    @Override
+    void calculateRows(long[][] cells, long[][] next, int width, int height,
+            Rule rule, int fromRow, int toRow, CellChanges changes) {
+        for (int y = fromRow; y < toRow; y++) {
+            long[] above = cells[(y == 0) ? height + 1 : y - 1];
+            calculateRow(above, cells[y], cells[y + 1], next[y], width, rule,
+                    y, changes);
+        }
+    }
+
+    /**
+     * Calculate the next generation of a padded row.
+     * @param above
+     *            the padded row above
+     * @param row
+     *            the padded row to calculate
+     * @param below
+     *            the padded row below
+     * @param next
+     *            the padded row which receives the next generation
+     * @param width
+     *            the width of the world, without the halo
+     * @param rule
+     *            the rule of the game
+     * @param y
+     *            the index of the row, for the hash
+     * @param changes
+     *            the changes which receive every changed word
+     */
+    private static void calculateRow(long[] above, long[] row, long[] below,
+            long[] next, int width, Rule rule, int y, CellChanges changes) {
+        int last = BitRows.words(width) - 1;
+        int length = SPECIES.length();
+
+        // The first word reads the halo on the left.
+        if (last > 0) {
+            long first =
+                    BitRows.nextGeneration(above, row, below, 0, width + 2,
+                            rule);
+            changes.addWord(y, 0, row[0], first);
+            next[0] = first;
+        }
+
+        // The inner words, a vector at a time. Only the words of a changed
+        // vector are looked at one by one.
+        int i = 1;
+        for (; i + length <= last; i += length) {
+            LongVector result = calculateVector(above, row, below, i, rule);
+            result.intoArray(next, i);
+            if (result.compare(VectorOperators.NE,
+                    LongVector.fromArray(SPECIES, row, i)).anyTrue()) {
+                for (int j = i; j < i + length; j++) {
+                    changes.addWord(y, j, row[j], next[j]);
+                }
+            }
+        }
+
+        // The remaining words.
+        for (; i < last; i++) {
+            long word = BitRows.nextGeneration(above, row, below, i,
+                    width + 2, rule);
+            changes.addWord(y, i, row[i], word);
+            next[i] = word;
+        }
+
+        // The last word, which reads the halo on the right and is cut off
+        // before it.
+        long mask = BitRows.lastWordMask(width);
+        long word =
+                BitRows.nextGeneration(above, row, below, last, width + 2,
+                        rule) & mask;
+        changes.addWord(y, last, row[last] & mask, word);
+        next[last] = word;
+    }
+
+    /**
+     * Calculate the next generation of a vector of inner words.
+     * @param above
+     *            the row above
+     * @param row
+     *            the row to calculate
+     * @param below
+     *            the row below
+     * @param i
+     *            the index of the first word, the words before and after the
+     *            vector must exist
+     * @param rule
+     *            the rule of the game
+     * @return the next generation of the words
+     */
+    private static LongVector calculateVector(long[] above, long[] row,
+            long[] below, int i, Rule rule) {
+        // The horizontal sum of the three cells above (two bits).
+        LongVector a = LongVector.fromArray(SPECIES, above, i);
+        LongVector aw = west(above, a, i);
+        LongVector ae = east(above, a, i);
+        LongVector a1 = aw.lanewise(VectorOperators.XOR, a).lanewise(
+                VectorOperators.XOR, ae);
+        LongVector a2 = aw.and(a).or(ae.and(aw.lanewise(VectorOperators.XOR,
+                a)));
+
+        // The horizontal sum of the three cells below (two bits).
+        LongVector b = LongVector.fromArray(SPECIES, below, i);
+        LongVector bw = west(below, b, i);
+        LongVector be = east(below, b, i);
+        LongVector b1 = bw.lanewise(VectorOperators.XOR, b).lanewise(
+                VectorOperators.XOR, be);
+        LongVector b2 = bw.and(b).or(be.and(bw.lanewise(VectorOperators.XOR,
+                b)));
+
+        // The sum of the left and right neighbor (two bits).
+        LongVector c = LongVector.fromArray(SPECIES, row, i);
+        LongVector cw = west(row, c, i);
+        LongVector ce = east(row, c, i);
+        LongVector c1 = cw.lanewise(VectorOperators.XOR, ce);
+        LongVector c2 = cw.and(ce);
+
+        // Add the ones and carry into the twos.
+        LongVector sum1 = a1.lanewise(VectorOperators.XOR, b1).lanewise(
+                VectorOperators.XOR, c1);
+        LongVector carry1 = a1.and(b1).or(c1.and(a1.lanewise(
+                VectorOperators.XOR, b1)));
+
+        // Add the twos and the carry, the result is 0..4.
+        LongVector t1 = a2.lanewise(VectorOperators.XOR, b2).lanewise(
+                VectorOperators.XOR, c2);
+        LongVector t2 = a2.and(b2).or(c2.and(a2.lanewise(
+                VectorOperators.XOR, b2)));
+        LongVector sum2 = t1.lanewise(VectorOperators.XOR, carry1);
+        LongVector carry2 = t1.and(carry1);
+        LongVector sum4 = t2.lanewise(VectorOperators.XOR, carry2);
+        LongVector sum8 = t2.and(carry2);
+
+        if (rule.isConway()) {
+            // Survive with 2 or 3 neighbors, birth with 3 neighbors.
+            return sum2.and(sum4.or(sum8).not()).and(sum1.or(c));
+        }
+        return applyRule(c, sum1, sum2, sum4, sum8, rule);
+    }
+
+    /**
+     * Calculate the next generation of a vector of words from the
+     * bit-sliced counts of their neighbors, like
+     * {@link Rule#nextGeneration(long, long, long, long, long)}.
+     * @param c
+     *            the current generation of the words
+     * @param sum1
+     *            bit 0 of the counts
+     * @param sum2
+     *            bit 1 of the counts
+     * @param sum4
+     *            bit 2 of the counts
+     * @param sum8
+     *            bit 3 of the counts
+     * @param rule
+     *            the rule of the game
+     * @return the next generation of the words
+     */
+    private static LongVector applyRule(LongVector c, LongVector sum1,
+            LongVector sum2, LongVector sum4, LongVector sum8, Rule rule) {
+        LongVector dead = c.not();
+        LongVector result = LongVector.zero(SPECIES);
+        for (int count = 0; count < Rule.COUNTS; count++) {
+            LongVector equals = ((count & 1) != 0 ? sum1 : sum1.not())
+                    .and((count & 2) != 0 ? sum2 : sum2.not())
+                    .and((count & 4) != 0 ? sum4 : sum4.not())
+                    .and((count & 8) != 0 ? sum8 : sum8.not());
+            LongVector lives = c.and(rule.getWordMask(true, count)).or(
+                    dead.and(rule.getWordMask(false, count)));
+            result = result.or(equals.and(lives));
+        }
+        return result;
+    }
+
+    /**
+     * Get the vector with the west neighbors of the cells of a vector.
+     * @param row
+     *            the row
+     * @param words
+     *            the vector of words starting at i
+     * @param i
+     *            the index of the first word
+     * @return the west neighbors, bit x holds the cell x - 1
+     */
+    private static LongVector west(long[] row, LongVector words, int i) {
+        LongVector previous = LongVector.fromArray(SPECIES, row, i - 1);
+        return words.lanewise(VectorOperators.LSHL, 1).or(
+                previous.lanewise(VectorOperators.LSHR, 63));
+    }
+
+    /**
+     * Get the vector with the east neighbors of the cells of a vector.
+     * @param row
+     *            the row
+     * @param words
+     *            the vector of words starting at i
+     * @param i
+     *            the index of the first word
+     * @return the east neighbors, bit x holds the cell x + 1
+     */
+    private static LongVector east(long[] row, LongVector words, int i) {
+        LongVector following = LongVector.fromArray(SPECIES, row, i + 1);
+        return words.lanewise(VectorOperators.LSHR, 1).or(
+                following.lanewise(VectorOperators.LSHL, 63));
+    }
+}
@@ -1,315 +1,858 @@
-package de.andreasbreer.gameoflife.model;
-
-import java.util.Observable;
-
-import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
-
-/**
- * This class represents the world.
- * @author Andreas Breer
- */
-public class World extends Observable {
-
-    /**
-     * An 2D-array holds the cells.
-     */
-    private Cell[][] cells;
-
-    /**
-     * The width of the word.
-     */
-    private int width;
-
-    /**
-     * The height of the word.
-     */
-    private int height;
-
-    /**
-     * The constructor of this class using the fields width and height, to
-     * initialize the dimension of the world.
-     * @param width
-     *            the width of the world
-     * @param height
-     *            the height of the world
-     */
-    public World(int width, int height) {
-        super();
-        this.width = width;
-        this.height = height;
-        cells = new Cell[width][height];
-
-        // Initialize the world with cells.
-        clear();
-    }
-
-    /**
-     * The copy constructor.
-     * @param world
-     *            the world to clone
-     */
-    public World(World world) {
-        super();
-        this.width = world.width;
-        this.height = world.height;
-        cells = new Cell[width][height];
-
-        // Clone all the cells
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                this.cells[x][y] = new Cell(world.cells[x][y]);
-            }
-        }
-    }
-
-    /**
-     * This method fills the world with dead cells.
-     */
-    public synchronized void clear() {
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                cells[x][y] = Cell.createDeadCell();
-            }
-        }
-        setChanged();
-        notifyObservers();
-    }
-
-    /**
-     * This method fills the world with a random state.
-     * @param probability
-     *            the probability for a living cell in percent.
-     */
-    public synchronized void random(int probability) {
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                cells[x][y] = Cell.createRandomCell(probability);
-            }
-        }
-        setChanged();
-        notifyObservers();
-    }
-
-    /**
-     * Create a glider in this world.
-     */
-    public synchronized void setGlider() {
-        clear();
-        cells[1][0] = Cell.createLivingCell();
-        cells[2][1] = Cell.createLivingCell();
-        cells[0][2] = Cell.createLivingCell();
-        cells[1][2] = Cell.createLivingCell();
-        cells[2][2] = Cell.createLivingCell();
-    }
-
-    /**
-     * Get the state of the cell at position x, y.
-     * @param x
-     *            the x-position of the cell
-     * @param y
-     *            the y-position of the cell
-     * @return if the state of the cell at position x, y is ALIVE.
-     */
-    public boolean isCellAlive(int x, int y)
-            throws NoCellAtThisPositionException {
-        return getCell(x, y).isAlive();
-    }
-
-    /**
-     * Get the state of the cell at position x, y.
-     * @param x
-     *            the x-position of the cell
-     * @param y
-     *            the y-position of the cell
-     * @return the state of the cell at position x, y.
-     */
-    private Cell getCell(int x, int y) throws NoCellAtThisPositionException {
-        if (x < 0 || x >= width) {
-            throw new NoCellAtThisPositionException(x, y);
-        }
-
-        if ((y < 0) || (y >= height)) {
-            throw new NoCellAtThisPositionException(x, y);
-        }
-
-        return cells[x][y];
-    }
-
-    /**
-     * Get the height of this world.
-     * @return the height of this world.
-     */
-    public int getHeight() {
-        return height;
-    }
-
-    /**
-     * Get the width of this world.
-     * @return the width of this world
-     */
-    public int getWidth() {
-        return width;
-    }
-
-    /**
-     * Calculates and activates the next generation of the cell.
-     */
-    public synchronized void nextGeneration() {
-        calculateNextGeneration();
-        activateNextGeneration();
-        setChanged();
-        notifyObservers();
-    }
-
-    /**
-     * Calculate the next generation of the world.
-     */
-    private void calculateNextGeneration() {
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                switch (countAliveNeighborCells(x, y)) {
-                case 2:
-                    cells[x][y].solid();
-                    break;
-                case 3:
-                    cells[x][y].awake();
-                    break;
-                // Ueberbevoelkerung und Einsamkeit
-                default:
-                    cells[x][y].die();
-                    break;
-                }
-            }
-        }
-    }
-
-    /**
-     * Activates the next generation of the cell.
-     */
-    private void activateNextGeneration() {
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                cells[x][y].activateNextGeneration();
-            }
-        }
-    }
-
-    /**
-     * This method counts the neighbor cells which are alive.
-     * @param x
-     *            the x-position of the cell
-     * @param y
-     *            the y-position of the cell
-     * @return the count of cells which are alive
-     */
-    private int countAliveNeighborCells(int x, int y) {
-        int count = 0;
-        for (int j = -1; j <= 1; j++) {
-            for (int i = -1; i <= 1; i++) {
-                int cellX = (x + i < 0) ? width - 1 : (x + i) % width;
-                int cellY = (y + j < 0) ? height - 1 : (y + j) % height;
-                if ((cellX != x) || (cellY != y)) {
-                    count += (cells[cellX][cellY].isAlive()) ? 1 : 0;
-                }
-            }
-        }
-
-        return count;
-    }
-
-    /**
-     * Toggle the state of the cell at x, y.
-     * @param x
-     *            the x position of the cell
-     * @param y
-     *            the y position of the cell
-     * @throws NoCellAtThisPositionException
-     */
-    public synchronized void toggleStateofCell(int x, int y)
-            throws NoCellAtThisPositionException {
-        getCell(x, y).toggleState();
-        setChanged();
-        notifyObservers();
-    }
-
-    public synchronized void changeDimension(int width, int height) {
-        this.width = width;
-        this.height = height;
-        cells = new Cell[width][height];
-        clear();
-    }
-    
-    /**
-     * A implementation of the equals method for a world object.
-     * @param other 
-     * 			the other world
-     * @return true if the two worlds are equal
-     */
-    @Override
-    public boolean equals(Object other) {
-    	// accept null value.
-    	if (other == null) {
-    		return false;
-    	}
-    	
-    	// Check if the types are the same.
-    	if (getClass() != other.getClass()) {
-    		return false;
-    	}
-    	
-    	// Call equals method of the base class.
-    	//if (!super.equals(other)) {
-    	//	return false;
-    	//}
-    	
-    	// Now the casting is safely
-    	final World otherWorld = (World) other;
-    	
-    	
-    	// Check attributes.
-    	return equalsImpl(otherWorld);
-    }
-    
-    
-    /**
-     * Compares the attributes of this world with another world.
-     * @param otherWorld 
-     * 				the other world
-     * @return true if the attributes of the two world are equal
-     */
-    private boolean equalsImpl(World otherWorld)
-    {
-    	if ((this.width != otherWorld.width) || (this.height != otherWorld.height)) {
-    		return false;
-    	}
-    	
-    	for (int y = 0; y < height; y++) {
-    		for(int x = 0; x < width; x++) {
-    			if (!this.cells[x][y].equals(otherWorld.cells[x][y])) {
-    				return false;
-    			}
-    		}		
-    	}
-    	
-    	return true;
-    }
-    
-    /**
-     * Calculate a hash value for this world.
-     * @return the hash value
-     */
-    @Override
-    public int hashCode() {
-    	final int PRIME = 17;   
-    	int hashCode = PRIME * this.width + this.height;
-    	
-    	for (int y = 0; y < height; y++) {
-    		for(int x = 0; x < width; x++) {
-    			hashCode = hashCode * PRIME + cells[x][y].hashCode();
-    		}		
-    	}
-    	
-    	return hashCode;
-    }
-}
+package de.andreasbreer.gameoflife.model;
+
+import java.util.Arrays;
+import java.util.Observable;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+/**
+ * This class represents the world. Every row of the world is stored as a
+ * bitmap of <code>long</code> words, one bit per cell, so the next generation
+ * can be calculated for 64 cells at a time. The rows are padded with a halo,
+ * which holds the neighbors of the cells on the edges as the topology joins
+ * the edges, see {@link Halo}.
+ * @author Andreas Breer
+ */
+public class World extends Observable {
+
+    /**
+     * The bitmaps of the rows, padded with the halo. Bit <code>x % 64</code>
+     * of the word <code>cells[y][x / 64]</code> holds the state of the cell
+     * at x, y.
+     */
+    private long[][] cells;
+
+    /**
+     * The bitmaps of the next generation. Swapped with the cells after each
+     * generation, so no memory is allocated while the game is running.
+     */
+    private long[][] nextCells;
+
+    /**
+     * The width of the word.
+     */
+    private int width;
+
+    /**
+     * The height of the word.
+     */
+    private int height;
+
+    /**
+     * The number of threads which calculate the next generation.
+     */
+    private int parallelism = 1;
+
+    /**
+     * The pool of threads which calculate the next generation in bands of
+     * rows, or <code>null</code> if the generation is calculated by the
+     * calling thread.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The type of the engine which calculates the next generation.
+     */
+    private EngineType engineType = EngineType.BITWISE;
+
+    /**
+     * The engine which calculates the next generation.
+     */
+    private GenerationEngine engine = engineType.createEngine();
+
+    /**
+     * The way the edges of this world are joined.
+     */
+    private Topology topology = Topology.TORUS;
+
+    /**
+     * The halo around the world, which applies the topology.
+     */
+    private Halo halo = new Halo(topology);
+
+    /**
+     * The calculation of several generations per sweep over the world, or
+     * <code>null</code> to calculate one generation after the other.
+     */
+    private TemporalBlocking temporalBlocking;
+
+    /**
+     * The rule which calculates the next generation.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * The time in nanoseconds the last generation took to calculate.
+     */
+    private volatile long lastGenerationTime;
+
+    /**
+     * The number of generations calculated since the world was cleared or
+     * filled.
+     */
+    private long generation;
+
+    /**
+     * Determines whether a running advance should stop.
+     */
+    private volatile boolean isAdvanceCancelled;
+
+    /**
+     * The Zobrist hash of the cells, updated with every changed cell.
+     */
+    private long hash;
+
+    /**
+     * The number of living cells, updated with every changed cell.
+     */
+    private long population;
+
+    /**
+     * The number of cells which awoke in the last generation.
+     */
+    private long births;
+
+    /**
+     * The number of cells which died in the last generation.
+     */
+    private long deaths;
+
+    /**
+     * The number of changes of this world by hand: toggled cells, fills,
+     * and changes of the topology or the rule.
+     */
+    private long modifications;
+
+    /**
+     * The changes of the cells collected in the last generation.
+     */
+    private final CellChanges changes = new CellChanges();
+
+    /**
+     * The publisher of the snapshots of this world.
+     */
+    private final SnapshotPublisher snapshots = new SnapshotPublisher();
+
+    /**
+     * The constructor of this class using the fields width and height, to
+     * initialize the dimension of the world.
+     * @param width
+     *            the width of the world
+     * @param height
+     *            the height of the world
+     */
+    public World(int width, int height) {
+        super();
+        this.width = width;
+        this.height = height;
+        cells = BitRows.createPadded(width, height);
+        nextCells = BitRows.createPadded(width, height);
+        snapshots.publish(cells, width, height, generation);
+    }
+
+    /**
+     * The copy constructor.
+     * @param world
+     *            the world to clone
+     */
+    public World(World world) {
+        super();
+        synchronized (world) {
+            this.width = world.width;
+            this.height = world.height;
+            cells = BitRows.copy(world.cells);
+            rule = world.rule;
+            topology = world.topology;
+            temporalBlocking = world.temporalBlocking;
+            generation = world.generation;
+            hash = world.hash;
+            population = world.population;
+            births = world.births;
+            deaths = world.deaths;
+        }
+        halo = new Halo(topology);
+        nextCells = BitRows.createPadded(width, height);
+        snapshots.publish(cells, width, height, generation);
+    }
+
+    /**
+     * This method fills the world with dead cells.
+     */
+    public synchronized void clear() {
+        modifications++;
+        for (long[] row : cells) {
+            Arrays.fill(row, 0L);
+        }
+        generation = 0;
+        hash = 0;
+        population = 0;
+        births = 0;
+        deaths = 0;
+        engine.reset();
+        snapshots.publish(cells, width, height, generation);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * This method fills the world with a random state.
+     * @param probability
+     *            the probability for a living cell in percent.
+     */
+    public void random(int probability) {
+        random(probability, new Random().nextLong());
+    }
+
+    /**
+     * This method fills the world with a random state, which only depends on
+     * the seed. The rows are filled in bands by the threads of the world,
+     * but the same seed gives the same world with any number of threads.
+     * @param probability
+     *            the probability for a living cell in percent.
+     * @param seed
+     *            the seed of the random generators
+     */
+    public synchronized void random(int probability, long seed) {
+        modifications++;
+        RandomFillTask task =
+                RandomFillTask.create(cells, width, height, probability, seed);
+        if (pool == null) {
+            task.fillBands();
+        } else {
+            pool.invoke(task);
+        }
+        generation = 0;
+        hash ^= task.getChanges().getHash();
+        population +=
+                task.getChanges().getBirths() - task.getChanges().getDeaths();
+        births = 0;
+        deaths = 0;
+        engine.reset();
+        halo.refresh(cells, cells, width, height, engine);
+        snapshots.publish(cells, width, height, generation);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Create a glider in this world.
+     */
+    public synchronized void setGlider() {
+        clear();
+        BitRows.set(cells[0], 1);
+        BitRows.set(cells[1], 2);
+        BitRows.set(cells[2], 0);
+        BitRows.set(cells[2], 1);
+        BitRows.set(cells[2], 2);
+        // Only the first word of the first three rows is alive.
+        for (int y = 0; y < 3; y++) {
+            hash ^= Zobrist.ofWord(y, 0, cells[y][0]);
+            population += Long.bitCount(cells[y][0]);
+        }
+        engine.reset();
+        halo.refresh(cells, cells, width, height, engine);
+        snapshots.publish(cells, width, height, generation);
+    }
+
+    /**
+     * Get the state of the cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @return if the state of the cell at position x, y is ALIVE.
+     */
+    public boolean isCellAlive(int x, int y)
+            throws NoCellAtThisPositionException {
+        checkPosition(x, y);
+        return BitRows.get(cells[y], x);
+    }
+
+    /**
+     * Check whether there is a cell at position x, y.
+     * @param x
+     *            the x-position of the cell
+     * @param y
+     *            the y-position of the cell
+     * @throws NoCellAtThisPositionException
+     *             if the position is outside of this world
+     */
+    private void checkPosition(int x, int y)
+            throws NoCellAtThisPositionException {
+        if (x < 0 || x >= width) {
+            throw new NoCellAtThisPositionException(x, y);
+        }
+
+        if ((y < 0) || (y >= height)) {
+            throw new NoCellAtThisPositionException(x, y);
+        }
+    }
+
+    /**
+     * Get the height of this world.
+     * @return the height of this world.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the width of this world.
+     * @return the width of this world
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the number of threads which calculate the next generation.
+     * @return the number of threads
+     */
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of threads which calculate the next generation. With
+     * more than one thread the world is split into bands of rows, which are
+     * calculated by a fork join pool. The result is the same as with one
+     * thread.
+     * @param parallelism
+     *            the number of threads
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "The parallelism must be at least one: " + parallelism);
+        }
+
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        this.parallelism = parallelism;
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    /**
+     * Get the time the last generation took to calculate.
+     * @return the time in nanoseconds
+     */
+    public long getLastGenerationTime() {
+        return lastGenerationTime;
+    }
+
+    /**
+     * Get the type of the engine which calculates the next generation.
+     * @return the type of the engine
+     */
+    public synchronized EngineType getEngineType() {
+        return engineType;
+    }
+
+    /**
+     * Set the type of the engine which calculates the next generation. All
+     * engines calculate the same generations.
+     * @param engineType
+     *            the type of the engine
+     */
+    public synchronized void setEngineType(EngineType engineType) {
+        this.engineType = engineType;
+        engine = engineType.createEngine();
+    }
+
+    /**
+     * Get the way the edges of this world are joined.
+     * @return the topology
+     */
+    public synchronized Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Set the way the edges of this world are joined.
+     * @param topology
+     *            the topology
+     */
+    public synchronized void setTopology(Topology topology) {
+        modifications++;
+        this.topology = topology;
+        halo = new Halo(topology);
+        halo.refresh(cells, cells, width, height, engine);
+    }
+
+    /**
+     * Get the latest snapshot of this world, without locking and without
+     * waiting for the calculation of a generation. The snapshot should be
+     * released after reading, so its buffer can be reused.
+     * @return the snapshot of the latest change
+     */
+    public Snapshot getSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Get the rule which calculates the next generation.
+     * @return the rule
+     */
+    public synchronized Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Set the rule which calculates the next generation. The kernel of the
+     * rule is generated, unless it is already cached.
+     * @param rule
+     *            the rule
+     */
+    public synchronized void setRule(Rule rule) {
+        // Generate the kernel now instead of in the next generation.
+        rule.getKernel();
+        modifications++;
+        this.rule = rule;
+        engine.reset();
+    }
+
+    /**
+     * Get the counters of the skipped and calculated tiles of the last
+     * generation.
+     * @return the counters, or <code>null</code> if the engine does not
+     *         calculate in tiles
+     */
+    public synchronized TileStatistics getTileStatistics() {
+        if (engine instanceof TiledEngine) {
+            return ((TiledEngine) engine).getStatistics();
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of generations calculated per sweep over the world.
+     * @return the number of generations, 1 without temporal blocking
+     */
+    public synchronized int getBlockingDepth() {
+        return (temporalBlocking == null) ? 1 : temporalBlocking.getDepth();
+    }
+
+    /**
+     * Get the number of rows of a tile of the temporal blocking.
+     * @return the number of rows, 0 without temporal blocking
+     */
+    public synchronized int getBlockingTileHeight() {
+        return (temporalBlocking == null) ? 0 : temporalBlocking
+                .getTileHeight();
+    }
+
+    /**
+     * Calculate several generations per sweep over the world. The world is
+     * cut into tiles of whole rows, and every tile is advanced by all
+     * generations while it is in the cache, see {@link TemporalBlocking}.
+     * Then {@link #nextGeneration()} calculates depth generations at once.
+     * The temporal blocking is only used for a torus, other topologies are
+     * calculated one generation after the other.
+     * @param depth
+     *            the number of generations per sweep, 1 to calculate one
+     *            generation after the other
+     * @param tileHeight
+     *            the number of rows of a tile, which should fit into the
+     *            cache together with its halo of depth rows on both sides
+     * @throws IllegalArgumentException
+     *             if the depth or the height is less than one
+     */
+    public synchronized void setTemporalBlocking(int depth, int tileHeight) {
+        TemporalBlocking blocking = new TemporalBlocking(depth, tileHeight);
+        temporalBlocking = (depth > 1) ? blocking : null;
+    }
+
+    /**
+     * Calculates and activates the next generation of the cell. With
+     * temporal blocking the number of generations per sweep are calculated,
+     * see {@link #setTemporalBlocking(int, int)}.
+     */
+    public synchronized void nextGeneration() {
+        long time = System.nanoTime();
+        if (isBlocking()) {
+            calculateBlockedGenerations();
+            lastGenerationTime =
+                    (System.nanoTime() - time) / temporalBlocking.getDepth();
+            generation += temporalBlocking.getDepth();
+        } else {
+            calculateNextGeneration();
+            lastGenerationTime = System.nanoTime() - time;
+            generation++;
+        }
+        snapshots.publish(cells, width, height, generation);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Calculate a number of generations and notify the observers once at the
+     * end. The world stays locked meanwhile, so no observer sees an
+     * intermediate generation.
+     * @param generations
+     *            the number of generations to calculate
+     * @return the number of calculated generations
+     */
+    public long advance(long generations) {
+        return advance(generations, null);
+    }
+
+    /**
+     * Calculate a number of generations and notify the observers once at the
+     * end. The calculation stops early if {@link #cancelAdvance()} is called
+     * or the calling thread is interrupted.
+     * @param generations
+     *            the number of generations to calculate
+     * @param listener
+     *            the listener which is told about every calculated
+     *            generation, or <code>null</code>
+     * @return the number of calculated generations, less than requested if
+     *         the advance was cancelled
+     */
+    public synchronized long advance(long generations,
+            ProgressListener listener) {
+        isAdvanceCancelled = false;
+        long advanced = 0;
+        long time = System.nanoTime();
+        while (advanced < generations && !isAdvanceCancelled
+                && !Thread.currentThread().isInterrupted()) {
+            if (isBlocking()
+                    && generations - advanced >= temporalBlocking.getDepth()) {
+                calculateBlockedGenerations();
+                generation += temporalBlocking.getDepth();
+                advanced += temporalBlocking.getDepth();
+            } else {
+                calculateNextGeneration();
+                generation++;
+                advanced++;
+            }
+            if (listener != null) {
+                listener.generationCalculated(advanced, generations);
+            }
+        }
+
+        if (advanced > 0) {
+            lastGenerationTime = (System.nanoTime() - time) / advanced;
+            snapshots.publish(cells, width, height, generation);
+            setChanged();
+            notifyObservers();
+        }
+        return advanced;
+    }
+
+    /**
+     * Stop a running advance after the current generation. This method does
+     * not wait for the lock of the world.
+     */
+    public void cancelAdvance() {
+        isAdvanceCancelled = true;
+    }
+
+    /**
+     * Get the number of generations calculated since the world was cleared
+     * or filled.
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Advance the generation counter without calculating, when the state of
+     * the world after the generations is known to be the current one.
+     * @param generations
+     *            the number of generations to skip
+     */
+    synchronized void skipGenerations(long generations) {
+        generation += generations;
+        snapshots.publish(cells, width, height, generation);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get the population of the world and the numbers of cells which awoke
+     * and died in the last generation. The counters are collected by the
+     * engines while they write the next generation, so this method does not
+     * look at the cells.
+     * @return the statistics
+     */
+    public synchronized PopulationStatistics getStatistics() {
+        return new PopulationStatistics(generation, population, births,
+                deaths);
+    }
+
+    /**
+     * Get the number of changes of this world which were not calculated:
+     * toggled cells, fills, and changes of the topology or the rule. The
+     * generations of the world before such a change do not lead to the
+     * generations after it.
+     * @return the number of changes by hand
+     */
+    public synchronized long getModificationCount() {
+        return modifications;
+    }
+
+    /**
+     * Get a 64 bit fingerprint of the cells. Equal worlds have equal
+     * fingerprints, different worlds almost never. The fingerprint is the
+     * Zobrist hash, which is kept up to date with every changed cell, so it
+     * is not calculated here.
+     * @return the fingerprint
+     */
+    public synchronized long getFingerprint() {
+        return hash;
+    }
+
+    /**
+     * Calculate the next generation of the world.
+     */
+    private void calculateNextGeneration() {
+        changes.reset();
+        long[][] previous = cells;
+        long[][] result =
+                engine.nextGeneration(cells, nextCells, width, height, rule,
+                        pool, changes);
+        if (result != cells) {
+            nextCells = cells;
+            cells = result;
+        }
+        // The rows of the last generation still hold the halo before, unless
+        // the engine calculated in place.
+        halo.refresh(cells, previous, width, height, engine);
+        activateChanges();
+    }
+
+    /**
+     * Determine whether the generations are calculated with temporal
+     * blocking.
+     * @return <code>true</code> if several generations are calculated per
+     *         sweep
+     */
+    private boolean isBlocking() {
+        return temporalBlocking != null && topology == Topology.TORUS
+                && width >= 2 && height >= 2;
+    }
+
+    /**
+     * Calculate the generations of one sweep of the temporal blocking. The
+     * births and deaths are counted between the first and the last of these
+     * generations.
+     */
+    private void calculateBlockedGenerations() {
+        changes.reset();
+        temporalBlocking.advance(cells, nextCells, width, height, rule, pool,
+                changes);
+        activateChanges();
+        long[][] current = cells;
+        cells = nextCells;
+        nextCells = current;
+        engine.reset();
+        halo.refresh(cells, nextCells, width, height, engine);
+    }
+
+    /**
+     * Update the hash and the counters with the changes of the last
+     * generation.
+     */
+    private void activateChanges() {
+        hash ^= changes.getHash();
+        births = changes.getBirths();
+        deaths = changes.getDeaths();
+        population += births - deaths;
+    }
+
+    /**
+     * Toggle the state of the cell at x, y.
+     * @param x
+     *            the x position of the cell
+     * @param y
+     *            the y position of the cell
+     * @throws NoCellAtThisPositionException
+     */
+    public synchronized void toggleStateofCell(int x, int y)
+            throws NoCellAtThisPositionException {
+        checkPosition(x, y);
+        modifications++;
+        // The last word of a row holds cells of the halo too.
+        int word = x >>> 6;
+        long mask =
+                (word == BitRows.words(width) - 1) ? BitRows
+                        .lastWordMask(width) : -1L;
+        long before = cells[y][word] & mask;
+        BitRows.toggle(cells[y], x);
+        hash ^= Zobrist.ofChange(y, word, before, cells[y][word] & mask);
+        population += BitRows.get(cells[y], x) ? 1 : -1;
+        engine.cellToggled(cells, x, y);
+        if (x == 0 || x == width - 1 || y == 0 || y == height - 1) {
+            halo.refresh(cells, cells, width, height, engine);
+        }
+        snapshots.publish(cells, width, height, generation);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Get a copy of the rows of this world, without the halo.
+     * @return the copy of the rows
+     */
+    synchronized long[][] copyOfCells() {
+        return copyOfRows(0, height);
+    }
+
+    /**
+     * Get a copy of a strip of the rows of this world, without the halo.
+     * @param fromRow
+     *            the first row of the strip
+     * @param toRow
+     *            the row after the last row of the strip
+     * @return the copy of the rows
+     */
+    synchronized long[][] copyOfRows(int fromRow, int toRow) {
+        int words = BitRows.words(width);
+        long[][] copy = new long[toRow - fromRow][];
+        for (int y = fromRow; y < toRow; y++) {
+            copy[y - fromRow] = Arrays.copyOf(cells[y], words);
+            copy[y - fromRow][words - 1] &= BitRows.lastWordMask(width);
+        }
+        return copy;
+    }
+
+    /**
+     * Load new cells into this world, like a pattern, and start again at
+     * generation 0. The world is published and its observers are notified
+     * once, not once per cell as with
+     * {@link #toggleStateofCell(int, int)}.
+     * @param rows
+     *            the new rows, with the dimension of this world, see
+     *            {@link PlaintextPattern#toRows(int, int)}
+     * @throws IllegalArgumentException
+     *             if the rows have another dimension
+     */
+    public synchronized void loadCells(long[][] rows) {
+        if (rows.length != height
+                || (height > 0 && rows[0].length != BitRows.words(width))) {
+            throw new IllegalArgumentException(
+                    "The rows do not have the dimension of the world.");
+        }
+        generation = 0;
+        setCells(rows);
+    }
+
+    /**
+     * Replace the cells of this world. The rows are copied in bands by the
+     * threads of the world, which update the hash and the population on the
+     * way.
+     * @param rows
+     *            the new rows, with the dimension of this world
+     */
+    synchronized void setCells(long[][] rows) {
+        modifications++;
+        RowCopyTask task = new RowCopyTask(rows, cells, width, 0, height);
+        if (pool == null) {
+            task.copyRows();
+        } else {
+            pool.invoke(task);
+        }
+        hash ^= task.getChanges().getHash();
+        population +=
+                task.getChanges().getBirths() - task.getChanges().getDeaths();
+        births = 0;
+        deaths = 0;
+        engine.reset();
+        halo.refresh(cells, cells, width, height, engine);
+        snapshots.publish(cells, width, height, generation);
+        setChanged();
+        notifyObservers();
+    }
+
+    public synchronized void changeDimension(int width, int height) {
+        this.width = width;
+        this.height = height;
+        cells = BitRows.createPadded(width, height);
+        nextCells = BitRows.createPadded(width, height);
+        clear();
+    }
+
+    /**
+     * A implementation of the equals method for a world object.
+     * @param other 
+     * 			the other world
+     * @return true if the two worlds are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+    	// accept null value.
+    	if (other == null) {
+    		return false;
+    	}
+    	
+    	// Check if the types are the same.
+    	if (getClass() != other.getClass()) {
+    		return false;
+    	}
+    	
+    	// Call equals method of the base class.
+    	//if (!super.equals(other)) {
+    	//	return false;
+    	//}
+    	
+    	// Now the casting is safely
+    	final World otherWorld = (World) other;
+    	
+    	
+    	// Check attributes.
+    	return equalsImpl(otherWorld);
+    }
+    
+    
+    /**
+     * Compares the attributes of this world with another world.
+     * @param otherWorld 
+     * 				the other world
+     * @return true if the attributes of the two world are equal
+     */
+    private boolean equalsImpl(World otherWorld)
+    {
+    	if ((this.width != otherWorld.width) || (this.height != otherWorld.height)) {
+    		return false;
+    	}
+    	
+    	// Worlds with different hashes cannot be equal.
+    	if (this.hash != otherWorld.hash) {
+    		return false;
+    	}
+    	
+    	// The halo depends on the topology, only the cells are compared.
+    	int last = BitRows.words(width) - 1;
+    	long lastWordMask = BitRows.lastWordMask(width);
+    	for (int y = 0; y < height; y++) {
+    		if (!Arrays.equals(this.cells[y], 0, last,
+    				otherWorld.cells[y], 0, last)
+    				|| ((this.cells[y][last] ^ otherWorld.cells[y][last])
+    						& lastWordMask) != 0) {
+    			return false;
+    		}
+    	}
+    	
+    	return true;
+    }
+    
+    /**
+     * Calculate a hash value for this world.
+     * @return the hash value
+     */
+    @Override
+    public int hashCode() {
+    	final int PRIME = 17;   
+    	int hashCode = PRIME * this.width + this.height;
+    	
+    	// The Zobrist hash is kept up to date with every changed cell.
+    	return hashCode * PRIME + (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,89 @@
+package de.andreasbreer.gameoflife.model;
+
+/**
+ * Zobrist hashing of the cells of a world. The hash of a world is the
+ * exclusive or of the keys of its words, and the key of a word is a random
+ * 64 bit number of its position and its 64 cells. A changed word changes the
+ * hash by its old and its new key, so the hash can be updated with the
+ * changed words only, and a word costs two keys no matter how many of its
+ * cells changed. The keys are calculated when needed instead of being
+ * stored, and a word without living cells has the key 0.
+ * @author Andreas Breer
+ */
+final class Zobrist {
+
+    /**
+     * The seed of the keys.
+     */
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    /**
+     * The private constructor. This class only provides static methods.
+     */
+    private Zobrist() {
+        super();
+    }
+
+    /**
+     * Get the key of the cells of a word.
+     * @param y
+     *            the row of the word
+     * @param i
+     *            the index of the word in the row
+     * @param word
+     *            the cells of the word
+     * @return the key, 0 if no cell of the word is alive
+     */
+    static long ofWord(int y, int i, long word) {
+        if (word == 0) {
+            return 0;
+        }
+        // The finalizer of SplitMix64 spreads the bits of the position, and
+        // again the bits of the cells.
+        return mix(mix(((long) y << 32 | (i & 0xFFFFFFFFL)) + SEED) ^ word);
+    }
+
+    /**
+     * Get the change of the hash when a word changes.
+     * @param y
+     *            the row of the word
+     * @param i
+     *            the index of the word in the row
+     * @param before
+     *            the cells of the word before the change
+     * @param after
+     *            the cells of the word after the change
+     * @return the exclusive or of the old and the new key
+     */
+    static long ofChange(int y, int i, long before, long after) {
+        return ofWord(y, i, before) ^ ofWord(y, i, after);
+    }
+
+    /**
+     * Calculate the hash of rows.
+     * @param rows
+     *            the rows
+     * @return the hash
+     */
+    static long of(long[][] rows) {
+        long hash = 0;
+        for (int y = 0; y < rows.length; y++) {
+            for (int i = 0; i < rows[y].length; i++) {
+                hash ^= ofWord(y, i, rows[y][i]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Spread the bits of a number, with the finalizer of SplitMix64.
+     * @param z
+     *            the number
+     * @return the mixed number
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
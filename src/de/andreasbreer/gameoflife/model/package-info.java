@@ -1,9 +1,9 @@
-/**
- * 
- */
-
-/**
- * @author Andreas Breer
- * @version 1.00
- */
+/**
+ * 
+ */
+
+/**
+ * @author Andreas Breer
+ * @version 1.00
+ */
 package de.andreasbreer.gameoflife.model;
\ No newline at end of file
@@ -1,11 +1,11 @@
-package de.andreasbreer.gameoflife.util;
-
-public enum PropertyName {
-    WINDOW_WIDTH("window.width"), WINDOW_HEIGHT("window.height"), WORLD_WIDTH("world.width"), WORLD_HEIGHT("world.height");
-
-    final String propertyKey;
-
-    private PropertyName(final String propertyKey) {
-        this.propertyKey = propertyKey;
-    }
-}
+package de.andreasbreer.gameoflife.util;
+
+public enum PropertyName {
+    WINDOW_WIDTH("window.width"), WINDOW_HEIGHT("window.height"), WORLD_WIDTH("world.width"), WORLD_HEIGHT("world.height"), WORLD_THREADS("world.threads"), WORLD_ENGINE("world.engine"), WORLD_RULE("world.rule"), WORLD_TOPOLOGY("world.topology"), WORLD_BLOCKING_DEPTH("world.blocking.depth"), WORLD_BLOCKING_ROWS("world.blocking.rows"), WORLD_STORAGE("world.storage"), WORLD_WORKERS("world.workers"), GAME_CYCLE_ACTION("game.cycle.action");
+
+    final String propertyKey;
+
+    private PropertyName(final String propertyKey) {
+        this.propertyKey = propertyKey;
+    }
+}
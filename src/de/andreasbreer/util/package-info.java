@@ -1,7 +1,7 @@
-/**
- * 
- */
-/**
- * @author breer
- */
+/**
+ * 
+ */
+/**
+ * @author breer
+ */
 package de.andreasbreer.util;
\ No newline at end of file
@@ -0,0 +1,149 @@
+package de.andreasbreer.gameoflife;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.batch.ParameterSweep;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the headless runner class.
+ * @author Andreas Breer
+ *
+ */
+public class HeadlessRunnerTest extends TestCase {
+	
+	/**
+	 * Test that the sweep mode is headless and prints one line per run
+	 * after the header.
+	 */
+	@Test
+	public void testSweep() {
+		String[] args = { "--sweep", "--width", "32", "--height", "24",
+				"--seed", "42", "--probabilities", "0, 35", "--runs", "3",
+				"--generations", "200", "--threads", "2" };
+		assertTrue(HeadlessRunner.isHeadless(args));
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(0, HeadlessRunner.run(args, new PrintStream(output)));
+		String[] lines = output.toString().split(System.lineSeparator());
+		assertEquals(1 + 2 * 3, lines.length);
+		assertEquals(ParameterSweep.HEADER, lines[0]);
+		for (int i = 1; i < lines.length; i++) {
+			assertEquals(6, lines[i].split(",").length);
+		}
+	}
+	
+	/**
+	 * Test that invalid arguments of the sweep are rejected.
+	 */
+	@Test
+	public void testInvalidSweep() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(output);
+		assertEquals(2, HeadlessRunner.run(new String[] { "--sweep",
+				"--probabilities", "10,120" }, out));
+		assertEquals(2, HeadlessRunner.run(new String[] { "--sweep",
+				"--runs", "-1" }, out));
+		assertEquals(0, output.size());
+	}
+	
+	/**
+	 * Test that the arguments of a single run are read and printed with the
+	 * results.
+	 */
+	@Test
+	public void testArguments() {
+		String[] args = { "--headless", "--width", "40", "--height", "30",
+				"--seed", "7", "--probability", "0", "--generations", "3",
+				"--engine", "ACTIVE_SET", "--threads", "2", "--rule",
+				"B36/S23" };
+		assertTrue(HeadlessRunner.isHeadless(args));
+		assertFalse(HeadlessRunner.isHeadless(new String[] { "--width",
+				"40" }));
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(0, HeadlessRunner.run(args, new PrintStream(output)));
+		String[] lines = output.toString().split(System.lineSeparator());
+		assertEquals("40 x 30 cells, ACTIVE_SET engine, 2 threads, B36/S23",
+				lines[0]);
+		assertTrue(lines[1].startsWith("3 generations in "));
+		assertEquals("generation 3: 0 alive, 0 born, 0 died", lines[2]);
+	}
+	
+	/**
+	 * Test that invalid arguments of a single run are rejected.
+	 */
+	@Test
+	public void testInvalidArguments() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(output);
+		assertEquals(2, HeadlessRunner.run(new String[] { "--headless",
+				"--width" }, out));
+		assertEquals(2, HeadlessRunner.run(new String[] { "--headless",
+				"--width", "wide" }, out));
+		assertEquals(2, HeadlessRunner.run(new String[] { "--headless",
+				"--height", "0" }, out));
+		assertEquals(2, HeadlessRunner.run(new String[] { "--headless",
+				"--engine", "FASTEST" }, out));
+		assertEquals(2, HeadlessRunner.run(new String[] { "--headless",
+				"--rule", "X3" }, out));
+		assertEquals(2, HeadlessRunner.run(new String[] { "--headless",
+				"--colour", "red" }, out));
+		assertEquals(0, output.size());
+	}
+	
+	/**
+	 * Test that a pattern is loaded into the middle of the world, skipping
+	 * the comments, and that a missing or too large pattern is rejected.
+	 */
+	@Test
+	public void testPattern() {
+		try {
+			File file = writePattern("!Name: Glider\n.O\n..*\nOOO\n");
+			String[] args = { "--headless", "--width", "16", "--height",
+					"16", "--generations", "4", "--pattern", file.getPath() };
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			assertEquals(0, HeadlessRunner.run(args, new PrintStream(output)));
+			String[] lines = output.toString().split(System.lineSeparator());
+			assertTrue(lines[2], lines[2].startsWith("generation 4: 5 alive"));
+			
+			args[2] = "2";
+			assertEquals(2, HeadlessRunner.run(args, new PrintStream(output)));
+			file.delete();
+			args[2] = "16";
+			assertEquals(2, HeadlessRunner.run(args, new PrintStream(output)));
+		} catch (IOException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Write a pattern into a temporary file.
+	 * @param pattern
+	 *            the lines of the pattern
+	 * @return the file
+	 * @throws IOException
+	 */
+	private static File writePattern(String pattern) throws IOException {
+		File file = File.createTempFile("pattern", ".cells");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-8");
+		try {
+			writer.write(pattern);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+	
+}
@@ -0,0 +1,53 @@
+package de.andreasbreer.gameoflife.batch;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the parameter sweep class.
+ * @author Andreas Breer
+ *
+ */
+public class ParameterSweepTest extends TestCase {
+	
+	/**
+	 * Test that a sweep writes one line per run and gives the same results
+	 * with the same seed, whatever the number of threads.
+	 */
+	@Test
+	public void testRepeatable() throws IOException, InterruptedException {
+		String[] first = runSweep(1);
+		String[] second = runSweep(4);
+		assertEquals(ParameterSweep.HEADER, first[0]);
+		assertEquals(1 + 2 * 5, first.length);
+		
+		Arrays.sort(first);
+		Arrays.sort(second);
+		assertTrue(Arrays.equals(first, second));
+	}
+	
+	/**
+	 * Run a small sweep.
+	 * @param threads
+	 *            the number of threads
+	 * @return the lines of the results
+	 */
+	private static String[] runSweep(int threads) throws IOException,
+			InterruptedException {
+		ParameterSweep sweep = new ParameterSweep(64, 48, new int[] { 0, 35 }, 5);
+		sweep.setSeed(1234L);
+		sweep.setThreads(threads);
+		sweep.setMaxGenerations(500);
+		StringWriter output = new StringWriter();
+		SweepSummary summary = sweep.run(output);
+		assertEquals(10, summary.getWorlds());
+		assertTrue(summary.getGenerations() > 0);
+		return output.toString().split(System.lineSeparator());
+	}
+	
+}
@@ -0,0 +1,128 @@
+package de.andreasbreer.gameoflife.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the chunked plane class.
+ * @author Andreas Breer
+ *
+ */
+public class ChunkedPlaneTest extends TestCase {
+	
+	/**
+	 * The plane object to test.
+	 */
+	private ChunkedPlane plane;
+	
+	/**
+	 * Set up a plane with a glider, which flies to the south east.
+	 */
+	@Before
+	public void setUp() {
+		plane = new ChunkedPlane();
+		plane.setCellAlive(1, 0, true);
+		plane.setCellAlive(2, 1, true);
+		plane.setCellAlive(0, 2, true);
+		plane.setCellAlive(1, 2, true);
+		plane.setCellAlive(2, 2, true);
+	}
+	
+	/**
+	 * Test that the glider flies over the borders of the chunks and the
+	 * chunks behind it are released.
+	 */
+	@Test
+	public void testGlider() {
+		for (int generation = 0; generation < 4 * 1000; generation++) {
+			plane.nextGeneration();
+		}
+		
+		assertEquals(5, plane.getPopulation());
+		assertTrue(plane.isCellAlive(1001, 1000));
+		assertTrue(plane.isCellAlive(1002, 1001));
+		assertTrue(plane.isCellAlive(1000, 1002));
+		assertTrue(plane.isCellAlive(1001, 1002));
+		assertTrue(plane.isCellAlive(1002, 1002));
+		assertTrue(plane.getChunkCount() <= 4);
+	}
+	
+	/**
+	 * Test that the plane calculates the same generations as a world, as long
+	 * as nothing reaches the border of the world.
+	 */
+	@Test
+	public void testSameAsWorld() {
+		World world = new World(300, 200);
+		World window = new World(40, 40);
+		window.random(40);
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 40; x++) {
+				try {
+					if (window.isCellAlive(x, y)) {
+						world.toggleStateofCell(130 + x, 80 + y);
+					}
+				} catch (NoCellAtThisPositionException e) {
+					fail();
+				}
+			}
+		}
+		plane = new ChunkedPlane(world);
+		
+		for (int generation = 0; generation < 60; generation++) {
+			world.nextGeneration();
+			plane.nextGeneration();
+		}
+		
+		World result = new World(300, 200);
+		plane.copyTo(result, 0, 0);
+		assertEquals(world, result);
+	}
+	
+	/**
+	 * Test that the window is filled with the cells of a world filled with
+	 * the same seed and shrunk into a smaller view.
+	 */
+	@Test
+	public void testRandomWindow() {
+		World world = new World(150, 100);
+		world.random(20, 11L);
+		plane = new ChunkedPlane(150, 100);
+		plane.random(20, 11L);
+		
+		World copy = new World(150, 100);
+		plane.copyTo(copy);
+		assertEquals(world, copy);
+		
+		// Every cell of the view stands for 3 x 2 cells.
+		World view = new World(50, 50);
+		plane.copyTo(view);
+		try {
+			for (int y = 0; y < 50; y++) {
+				for (int x = 0; x < 50; x++) {
+					boolean isAlive = false;
+					for (int j = 0; j < 2; j++) {
+						for (int i = 0; i < 3; i++) {
+							isAlive |= world.isCellAlive(3 * x + i, 2 * y + j);
+						}
+					}
+					assertEquals(x + ", " + y, isAlive, view.isCellAlive(x, y));
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		
+		try {
+			plane.copyTo(new World(151, 100));
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+}
@@ -0,0 +1,109 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the distributed world class.
+ * @author Andreas Breer
+ *
+ */
+public class DistributedWorldTest extends TestCase {
+	
+	/**
+	 * Test that three worker processes calculate the same generations as a
+	 * world, also with another rule.
+	 */
+	@Test
+	public void testSameAsWorld() throws IOException {
+		for (String rule : new String[] { "B3/S23", "B36/S23" }) {
+			World world = new World(203, 77);
+			world.random(40, 11L);
+			world.setRule(Rule.parse(rule));
+			DistributedWorld distributedWorld = new DistributedWorld(world, 3);
+			try {
+				for (int generation = 0; generation < 30; generation++) {
+					world.nextGeneration();
+					distributedWorld.nextGeneration();
+				}
+				
+				ExchangeStatistics statistics =
+						distributedWorld.getStatistics();
+				assertEquals(30, statistics.getGeneration());
+				assertTrue(statistics.getStepTime() > 0);
+				
+				World result = new World(203, 77);
+				distributedWorld.copyTo(result);
+				assertEquals(rule, world, result);
+			} finally {
+				distributedWorld.close();
+			}
+		}
+	}
+	
+	/**
+	 * Test that the workers fill their strips with the cells of a world
+	 * filled with the same seed, whatever the number of workers.
+	 */
+	@Test
+	public void testRandomSameAsWorld() throws IOException {
+		World world = new World(131, 150);
+		world.random(35, 7L);
+		world.advance(10);
+		for (int workers = 1; workers <= 3; workers++) {
+			DistributedWorld distributedWorld =
+					new DistributedWorld(131, 150, Rule.CONWAY, workers);
+			try {
+				distributedWorld.random(35, 7L);
+				for (int generation = 0; generation < 10; generation++) {
+					distributedWorld.nextGeneration();
+				}
+				World result = new World(131, 150);
+				distributedWorld.copyTo(result);
+				assertEquals("workers: " + workers, world, result);
+			} finally {
+				distributedWorld.close();
+			}
+		}
+	}
+	
+	/**
+	 * Test that a smaller view gets the world shrunk to its size, also when
+	 * a block of rows is shared by two strips.
+	 */
+	@Test
+	public void testShrunkView() throws IOException {
+		World world = new World(100, 90);
+		world.random(3, 13L);
+		DistributedWorld distributedWorld = new DistributedWorld(world, 4);
+		try {
+			World view = new World(30, 20);
+			distributedWorld.copyTo(view);
+			
+			// Every cell of the view stands for 4 x 5 cells, the last
+			// columns and rows of the view stand for none.
+			for (int y = 0; y < 20; y++) {
+				for (int x = 0; x < 30; x++) {
+					boolean isAlive = false;
+					for (int i = 0; i < 20; i++) {
+						int cellX = x * 4 + i % 4;
+						int cellY = y * 5 + i / 4;
+						isAlive |= cellX < 100 && cellY < 90
+								&& world.isCellAlive(cellX, cellY);
+					}
+					assertEquals(x + ", " + y, isAlive, view.isCellAlive(x, y));
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		} finally {
+			distributedWorld.close();
+		}
+	}
+	
+}
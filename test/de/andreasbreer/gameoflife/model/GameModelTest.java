@@ -0,0 +1,219 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the game model class.
+ * @author Andreas Breer
+ *
+ */
+public class GameModelTest extends TestCase {
+	
+	/**
+	 * The game model object to test.
+	 */
+	private GameModel model;
+	
+	/**
+	 * Set up a game with a blinker, which has period two.
+	 */
+	@Before
+	public void setUp() {
+		model = new GameModel(20, 20);
+		try {
+			model.getWorld().toggleStateofCell(10, 9);
+			model.getWorld().toggleStateofCell(10, 10);
+			model.getWorld().toggleStateofCell(10, 11);
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that the cycle is detected and the batch run stops.
+	 */
+	@Test
+	public void testPause() {
+		model.setCycleAction(CycleAction.PAUSE);
+		assertEquals(2, model.runBatch(1000));
+		assertEquals(0, model.getCycle().getEntryGeneration());
+		assertEquals(2, model.getCycle().getPeriod());
+	}
+	
+	/**
+	 * Test that the generations of a cycle are skipped.
+	 */
+	@Test
+	public void testFastForward() {
+		World expected = new World(model.getWorld());
+		expected.nextGeneration();
+		
+		model.setCycleAction(CycleAction.FAST_FORWARD);
+		assertEquals(1000001, model.runBatch(1000001));
+		assertEquals(1000001, model.getWorld().getGeneration());
+		assertEquals(expected, model.getWorld());
+	}
+	
+	/**
+	 * Test that the cycle is forgotten when the world is changed by hand,
+	 * and that the generations before the change are not taken for a cycle.
+	 */
+	@Test
+	public void testCycleResetByEdits() {
+		model.setCycleAction(CycleAction.PAUSE);
+		assertEquals(2, model.runBatch(1000));
+		assertNotNull(model.getCycle());
+		
+		World world = model.getWorld();
+		long modifications = world.getModificationCount();
+		try {
+			world.toggleStateofCell(0, 0);
+			assertNull(model.getCycle());
+			world.toggleStateofCell(0, 0);
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		world.random(30, 1);
+		world.clear();
+		assertEquals(modifications + 4, world.getModificationCount());
+		assertNull(model.getCycle());
+		
+		// A single cell dies at once, the empty world is a still life.
+		try {
+			world.toggleStateofCell(5, 5);
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		assertEquals(2, model.runBatch(1000));
+		assertEquals(1, model.getCycle().getEntryGeneration());
+		assertEquals(1, model.getCycle().getPeriod());
+	}
+	
+	/**
+	 * Test that the cycle is detected with temporal blocking, where the
+	 * world advances three generations at a time, so the period is a
+	 * multiple of both.
+	 */
+	@Test
+	public void testCycleWithTemporalBlocking() {
+		World expected = new World(model.getWorld());
+		expected.nextGeneration();
+		model.getWorld().setTemporalBlocking(3, 8);
+		
+		model.setCycleAction(CycleAction.PAUSE);
+		assertEquals(6, model.runBatch(1000));
+		assertEquals(0, model.getCycle().getEntryGeneration());
+		assertEquals(6, model.getCycle().getPeriod());
+		
+		model.getWorld().clear();
+		model.getWorld().setCells(expected.copyOfCells());
+		model.setCycleAction(CycleAction.FAST_FORWARD);
+		assertEquals(1000000, model.runBatch(1000000));
+		assertEquals(1000000, model.getWorld().getGeneration());
+		assertEquals(expected, model.getWorld());
+	}
+	
+	/**
+	 * Test that the monitor controls the game and reports its times.
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test
+	public void testMonitor() throws InterruptedException {
+		GameMonitor monitor = new GameMonitor(model);
+		monitor.setFramesPerSecond(100);
+		assertEquals(100, model.getFramesPerSecond());
+		try {
+			monitor.setFramesPerSecond(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(100, monitor.getFramesPerSecond());
+		}
+		
+		monitor.start();
+		assertEquals(GameState.RUNNING.name(), monitor.getState());
+		while (model.getStepTimes().getCount() < 5) {
+			Thread.sleep(10);
+		}
+		assertTrue(monitor.getAchievedFramesPerSecond() > 0);
+		monitor.stop();
+		assertEquals(GameState.STOPPED.name(), monitor.getState());
+		assertEquals(0.0, monitor.getAchievedFramesPerSecond());
+		assertTrue(monitor.getGeneration() >= 5);
+		assertEquals(3, monitor.getPopulation());
+		assertTrue(monitor.getStepTimeMedian()
+				<= monitor.getStepTime99thPercentile());
+		assertTrue(monitor.getStepTime99thPercentile()
+				<= monitor.getStepTimeMax());
+		
+		TimeSamples samples = new TimeSamples(4);
+		assertEquals(0, samples.getPercentile(50));
+		for (long nanos = 1; nanos <= 6; nanos++) {
+			samples.add(nanos);
+		}
+		assertEquals(6, samples.getCount());
+		assertEquals(6, samples.getLast());
+		assertEquals(3, samples.getPercentile(0));
+		assertEquals(4, samples.getPercentile(50));
+		assertEquals(6, samples.getPercentile(99));
+		assertEquals(4.5, samples.getMean());
+	}
+	
+	/**
+	 * Test that the thread of the game ends when the model is shut down,
+	 * both while the game waits and while it runs.
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test
+	public void testShutdown() throws InterruptedException {
+		new GameModel(10, 10).shutdown();
+		
+		model.setFramesPerSecond(100);
+		model.startGame();
+		while (model.getStepTimes().getCount() < 2) {
+			Thread.sleep(10);
+		}
+		model.shutdown();
+		long generation = model.getWorld().getGeneration();
+		Thread.sleep(50);
+		assertEquals(generation, model.getWorld().getGeneration());
+	}
+	
+	/**
+	 * Test that the game calculates an external world and shows it in its
+	 * world.
+	 */
+	@Test
+	public void testExternalWorld() throws IOException {
+		World expected = new World(20, 20);
+		expected.random(40, 5L);
+		DistributedWorld external = new DistributedWorld(20, 20, Rule.CONWAY, 2);
+		try {
+			external.random(40, 5L);
+			model.setExternalWorld(external);
+			assertEquals(expected, model.getWorld());
+			
+			assertEquals(7, model.runBatch(7));
+			expected.advance(7);
+			assertEquals(7, external.getGeneration());
+			assertEquals(expected, model.getWorld());
+			
+			GameMonitor monitor = new GameMonitor(model);
+			assertEquals(7, monitor.getGeneration());
+			assertEquals(expected.getStatistics().getPopulation(),
+					monitor.getPopulation());
+			assertEquals(monitor.getPopulation(), external.getPopulation());
+		} finally {
+			external.close();
+		}
+	}
+	
+}
@@ -0,0 +1,161 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the hash life class.
+ * @author Andreas Breer
+ *
+ */
+public class HashLifeTest extends TestCase {
+	
+	/**
+	 * The default value for the world width.
+	 */
+	private final static int DEFAULT_WORLD_WIDTH = 300;
+	
+	/**
+	 * The default value for the world height.
+	 */
+	private final static int DEFAULT_WORLD_HEIGHT = 280;
+	
+	/**
+	 * The size of the random square in the center of the world.
+	 */
+	private final static int SOUP_SIZE = 32;
+	
+	/**
+	 * The world object to compare with.
+	 */
+	private World world;
+	
+	/**
+	 * Set up a world with a random square in its center. The square can not
+	 * reach the border within the tested generations.
+	 */
+	@Before
+	public void setUp() {
+		world = new World(DEFAULT_WORLD_WIDTH, DEFAULT_WORLD_HEIGHT);
+		Random random = new Random(42);
+		try {
+			for (int y = 0; y < SOUP_SIZE; y++) {
+				for (int x = 0; x < SOUP_SIZE; x++) {
+					if (random.nextInt(100) < 40) {
+						world.toggleStateofCell((DEFAULT_WORLD_WIDTH - SOUP_SIZE) / 2 + x,
+								(DEFAULT_WORLD_HEIGHT - SOUP_SIZE) / 2 + y);
+					}
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that a jump over a number of generations gives the same world as
+	 * calculating the generations one after another.
+	 */
+	@Test
+	public void testAdvance() {
+		HashLife hashLife = new HashLife(world);
+		
+		for (int generation = 0; generation < 100; generation++) {
+			world.nextGeneration();
+		}
+		hashLife.advance(100);
+		
+		World result = new World(DEFAULT_WORLD_WIDTH, DEFAULT_WORLD_HEIGHT);
+		hashLife.copyTo(result);
+		assertEquals(world, result);
+		assertEquals(100, hashLife.getGeneration());
+		assertTrue(hashLife.getNodeCacheSize() > 0);
+	}
+	
+	/**
+	 * Test that a jump of a power of two generations gives the same world.
+	 */
+	@Test
+	public void testAdvancePowerOfTwo() {
+		HashLife hashLife = new HashLife(world);
+		hashLife.setMaxCacheSize(1000);
+		
+		for (int generation = 0; generation < 64; generation++) {
+			world.nextGeneration();
+		}
+		hashLife.advancePowerOfTwo(6);
+		
+		World result = new World(DEFAULT_WORLD_WIDTH, DEFAULT_WORLD_HEIGHT);
+		hashLife.copyTo(result);
+		assertEquals(world, result);
+	}
+	
+	/**
+	 * Test that the game calculates the planes of both storage modes, which
+	 * show the same window.
+	 */
+	@Test
+	public void testStorageMode() throws IOException {
+		ExternalWorld hashLife =
+				StorageType.HASHLIFE.createWorld(200, 160, Rule.CONWAY, 0);
+		ExternalWorld plane =
+				StorageType.PLANE.createWorld(200, 160, Rule.CONWAY, 0);
+		try {
+			hashLife.random(30, 5L);
+			plane.random(30, 5L);
+			World window = new World(200, 160);
+			hashLife.copyTo(window);
+			World expected = new World(200, 160);
+			expected.random(30, 5L);
+			assertEquals(expected, window);
+			
+			GameModel model = new GameModel(100, 80);
+			model.setExternalWorld(hashLife);
+			assertEquals(20, model.runBatch(20));
+			assertEquals(20, hashLife.getGeneration());
+			assertEquals(20, plane.advance(20));
+			World view = new World(100, 80);
+			plane.copyTo(view);
+			assertEquals(view, model.getWorld());
+		} finally {
+			hashLife.close();
+			plane.close();
+		}
+	}
+	
+	/**
+	 * Test that a batch of the game jumps over the generations of HashLife
+	 * in one advance.
+	 */
+	@Test
+	public void testLongBatch() throws IOException {
+		World world = new World(100, 80);
+		try {
+			world.toggleStateofCell(50, 40);
+			world.toggleStateofCell(51, 40);
+			world.toggleStateofCell(50, 41);
+			world.toggleStateofCell(51, 41);
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		HashLife hashLife = new HashLife(world);
+		GameModel model = new GameModel(100, 80);
+		try {
+			model.setExternalWorld(hashLife);
+			assertEquals(1L << 40, model.runBatch(1L << 40));
+			assertEquals(1L << 40, hashLife.getGeneration());
+			assertEquals(4, model.getWorld().getStatistics().getPopulation());
+		} finally {
+			model.shutdown();
+			hashLife.close();
+		}
+	}
+	
+}
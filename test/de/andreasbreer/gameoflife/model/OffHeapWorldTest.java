@@ -0,0 +1,143 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the off-heap world class.
+ * @author Andreas Breer
+ *
+ */
+public class OffHeapWorldTest extends TestCase {
+	
+	/**
+	 * Test that the off-heap world calculates the same generations as a
+	 * world, also with another rule.
+	 */
+	@Test
+	public void testSameAsWorld() {
+		for (String rule : new String[] { "B3/S23", "B36/S23" }) {
+			World world = new World(203, 77);
+			world.random(40);
+			world.setRule(Rule.parse(rule));
+			OffHeapWorld offHeapWorld = new OffHeapWorld(world);
+			
+			for (int generation = 0; generation < 40; generation++) {
+				world.nextGeneration();
+				offHeapWorld.nextGeneration();
+			}
+			
+			World result = new World(203, 77);
+			offHeapWorld.copyTo(result);
+			assertEquals(rule, world, result);
+		}
+	}
+	
+	/**
+	 * Test the access to single cells.
+	 */
+	@Test
+	public void testToggleCell() {
+		OffHeapWorld world = new OffHeapWorld(100, 10);
+		try {
+			world.toggleStateofCell(70, 9);
+			assertTrue(world.isCellAlive(70, 9));
+			assertEquals(1, world.getPopulation());
+			world.toggleStateofCell(70, 9);
+			assertFalse(world.isCellAlive(70, 9));
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		
+		try {
+			world.isCellAlive(100, 0);
+			fail();
+		} catch (NoCellAtThisPositionException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Test that the off-heap world is filled with the cells of a world
+	 * filled with the same seed, and shrunk into a smaller view.
+	 */
+	@Test
+	public void testRandomAndView() {
+		World world = new World(150, 140);
+		world.random(5, 21L);
+		OffHeapWorld offHeapWorld = new OffHeapWorld(150, 140);
+		offHeapWorld.random(5, 21L);
+		
+		World copy = new World(150, 140);
+		offHeapWorld.copyTo(copy);
+		assertEquals(world, copy);
+		
+		// Every cell of the view stands for 2 x 2 cells.
+		World view = new World(75, 70);
+		offHeapWorld.copyTo(view);
+		try {
+			for (int y = 0; y < 70; y++) {
+				for (int x = 0; x < 75; x++) {
+					boolean isAlive = world.isCellAlive(2 * x, 2 * y)
+							|| world.isCellAlive(2 * x + 1, 2 * y)
+							|| world.isCellAlive(2 * x, 2 * y + 1)
+							|| world.isCellAlive(2 * x + 1, 2 * y + 1);
+					assertEquals(x + ", " + y, isAlive, view.isCellAlive(x, y));
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		offHeapWorld.close();
+	}
+	
+	/**
+	 * Test that a closed world frees its buffers and cannot be used.
+	 */
+	@Test
+	public void testClose() {
+		OffHeapWorld world = new OffHeapWorld(100, 10);
+		world.close();
+		world.close();
+		try {
+			world.nextGeneration();
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Test that the game calculates the off-heap world as storage mode and
+	 * shows it shrunk to its world.
+	 */
+	@Test
+	public void testStorageMode() throws IOException {
+		ExternalWorld external =
+				StorageType.OFF_HEAP.createWorld(80, 60, Rule.CONWAY, 0);
+		try {
+			GameModel model = new GameModel(40, 30);
+			external.random(30, 9L);
+			model.setExternalWorld(external);
+			assertEquals(5, model.runBatch(5));
+			assertEquals(5, external.getGeneration());
+			
+			World world = new World(80, 60);
+			world.random(30, 9L);
+			world.advance(5);
+			World view = new World(40, 30);
+			OffHeapWorld expected = new OffHeapWorld(world);
+			expected.copyTo(view);
+			expected.close();
+			assertEquals(view, model.getWorld());
+		} finally {
+			external.close();
+		}
+	}
+	
+}
@@ -0,0 +1,227 @@
+package de.andreasbreer.gameoflife.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the out-of-core world class.
+ * @author Andreas Breer
+ *
+ */
+public class OutOfCoreWorldTest extends TestCase {
+	
+	/**
+	 * Test that the out-of-core world calculates the same generations as a
+	 * world, with a small cache and most tiles spilled to the scratch file.
+	 */
+	@Test
+	public void testSameAsWorld() {
+		World world = new World(256, 192);
+		world.random(30);
+		
+		try {
+			OutOfCoreWorld outOfCoreWorld = new OutOfCoreWorld(world, 8, 2000,
+					null);
+			try {
+				for (int generation = 0; generation < 30; generation++) {
+					world.nextGeneration();
+					outOfCoreWorld.nextGeneration();
+				}
+				
+				World result = new World(256, 192);
+				outOfCoreWorld.copyTo(result);
+				assertEquals(world, result);
+				
+				CacheStatistics statistics = outOfCoreWorld.getCacheStatistics();
+				assertTrue(statistics.getHits() > 0);
+				assertTrue(statistics.getMisses() > 0);
+				assertTrue(statistics.getSpilledBytes() > 0);
+				assertTrue(statistics.getCompressedBytes() <= 2000);
+			} finally {
+				outOfCoreWorld.close();
+			}
+		} catch (IOException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that the generations reuse two scratch files, which are deleted
+	 * when the world is closed.
+	 */
+	@Test
+	public void testScratchFiles() throws IOException {
+		File directory = File.createTempFile("scratch", "");
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+		try {
+			OutOfCoreWorld outOfCoreWorld = new OutOfCoreWorld(256, 192, 8,
+					2000, directory);
+			try {
+				outOfCoreWorld.random(30, 3L);
+				for (int generation = 0; generation < 10; generation++) {
+					outOfCoreWorld.nextGeneration();
+				}
+				assertTrue(outOfCoreWorld.getCacheStatistics()
+						.getSpilledBytes() > 0);
+				assertEquals(2, directory.list().length);
+			} finally {
+				outOfCoreWorld.close();
+			}
+			assertEquals(0, directory.list().length);
+		} finally {
+			directory.delete();
+		}
+	}
+	
+	/**
+	 * Test that the out-of-core world is filled with the cells of a world
+	 * filled with the same seed, while most tiles are spilled.
+	 */
+	@Test
+	public void testRandomSameAsWorld() {
+		World world = new World(256, 192);
+		world.random(30, 17L);
+		
+		try {
+			OutOfCoreWorld outOfCoreWorld = new OutOfCoreWorld(256, 192, 8,
+					2000, null);
+			try {
+				outOfCoreWorld.random(30, 17L);
+				World result = new World(256, 192);
+				outOfCoreWorld.copyTo(result);
+				assertEquals(world, result);
+				assertEquals(0, outOfCoreWorld.getGeneration());
+				assertTrue(outOfCoreWorld.getCacheStatistics()
+						.getSpilledBytes() > 0);
+			} finally {
+				outOfCoreWorld.close();
+			}
+		} catch (IOException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that a pattern is loaded into the middle of the world and that a
+	 * pattern larger than the world is refused.
+	 */
+	@Test
+	public void testLoadPattern() {
+		try {
+			File file = File.createTempFile("glider", ".cells");
+			file.deleteOnExit();
+			Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+					"UTF-8");
+			try {
+				writer.write("!Name: Glider\n.O\n..O\nOOO\n");
+			} finally {
+				writer.close();
+			}
+			
+			OutOfCoreWorld outOfCoreWorld = new OutOfCoreWorld(128, 128, 8,
+					2000, null);
+			try {
+				outOfCoreWorld.toggleStateofCell(0, 0);
+				outOfCoreWorld.loadPattern(file);
+				assertEquals(5, outOfCoreWorld.getPopulation());
+				assertTrue(outOfCoreWorld.isCellAlive(63, 62));
+				assertTrue(outOfCoreWorld.isCellAlive(64, 63));
+				assertTrue(outOfCoreWorld.isCellAlive(62, 64));
+				assertTrue(outOfCoreWorld.isCellAlive(63, 64));
+				assertTrue(outOfCoreWorld.isCellAlive(64, 64));
+			} finally {
+				outOfCoreWorld.close();
+			}
+			
+			OutOfCoreWorld small = new OutOfCoreWorld(64, 64, 8, 2000, null);
+			writer = new OutputStreamWriter(new FileOutputStream(file),
+					"UTF-8");
+			try {
+				for (int y = 0; y < 65; y++) {
+					writer.write("O\n");
+				}
+			} finally {
+				writer.close();
+			}
+			try {
+				small.loadPattern(file);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			} finally {
+				small.close();
+			}
+		} catch (IOException e) {
+			fail();
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that the game calculates the out-of-core world as storage mode and
+	 * shows it shrunk to its world.
+	 */
+	@Test
+	public void testStorageMode() throws IOException {
+		try {
+			StorageType.OUT_OF_CORE.createWorld(100, 64, Rule.CONWAY, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		
+		ExternalWorld external =
+				StorageType.OUT_OF_CORE.createWorld(128, 128, Rule.CONWAY, 0);
+		GameModel model = new GameModel(50, 40);
+		try {
+			external.random(30, 9L);
+			model.setExternalWorld(external);
+			assertEquals(5, model.runBatch(5));
+			assertEquals(5, external.getGeneration());
+			
+			World world = new World(128, 128);
+			world.random(30, 9L);
+			world.advance(5);
+			World view = model.getWorld();
+			
+			// Every cell of the view stands for 3 x 4 cells, the last
+			// columns and rows of the view stand for none.
+			for (int y = 0; y < 40; y++) {
+				for (int x = 0; x < 50; x++) {
+					boolean isAlive = false;
+					for (int i = 0; i < 12; i++) {
+						int cellX = x * 3 + i % 3;
+						int cellY = y * 4 + i / 3;
+						isAlive |= cellX < 128 && cellY < 128
+								&& world.isCellAlive(cellX, cellY);
+					}
+					assertEquals(x + ", " + y, isAlive, view.isCellAlive(x, y));
+				}
+			}
+			
+			try {
+				external.copyTo(new World(129, 128));
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		} finally {
+			model.shutdown();
+			external.close();
+		}
+	}
+	
+}
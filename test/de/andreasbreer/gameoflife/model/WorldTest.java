@@ -1,104 +1,789 @@
-package de.andreasbreer.gameoflife.model;
-
-import org.junit.Before;
-import org.junit.Test;
-
-import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
-
-import junit.framework.TestCase;
-
-/**
- * Unit test for the world class.
- * @author Andreas Breer
- *
- */
-public class WorldTest extends TestCase {
-	
-	/**
-	 * The default value for the world width.
-	 */
-	private final static int DEFAULT_WORLD_WIDTH = 3;
-	
-	/**
-	 * The default value for the world height.
-	 */
-	private final static int DEFAULT_WORLD_HEIGHT = 3;
-	
-	/**
-	 * The default value for probability of living cells.
-	 */
-	private final static int DEFAULT_PROBABILITY = 30;
-	
-	/**
-	 * The world object to test.
-	 */
-	private World world;
-	
-	/**
-	 * Set up the world to test.
-	 */
-	@Before
-	public void setUp() {
-		world = new World(DEFAULT_WORLD_WIDTH, DEFAULT_WORLD_HEIGHT);
-	}
-	
-	/**
-	 * Test the game rules.
-	 */
-	@Test
-	public void testGameRules() {
-		for (int i = 0; i <= 8; i++) {
-			try {
-				world.clear();
-				world.toggleStateofCell(1, 1);
-				switch (i) {
-					case 8: world.toggleStateofCell(0, 0); // Fall through
-					case 7: world.toggleStateofCell(0, 1); // Fall through
-					case 6: world.toggleStateofCell(0, 2); // Fall through
-					case 5: world.toggleStateofCell(1, 0); // Fall through
-					case 4: world.toggleStateofCell(1, 2); // Fall through
-					case 3: world.toggleStateofCell(2, 0); // Fall through
-					case 2: world.toggleStateofCell(2, 1); // Fall through
-					case 1: world.toggleStateofCell(2, 2); // Fall through
-				}
-				
-				world.nextGeneration();
-				switch (i) {
-					case 8: // Fall through
-					case 7: // Fall through
-					case 6: // Fall through
-					case 5: // Fall through
-					case 4: assertFalse(world.isCellAlive(1, 1)); break; // Fall through
-					case 3: assertTrue(world.isCellAlive(1, 1)); break;
-					case 2: assertTrue(world.isCellAlive(1, 1)); break;
-					case 1: // Fall through
-					case 0: assertFalse(world.isCellAlive(1, 1));
-				}	
-			} catch (NoCellAtThisPositionException e) {
-				fail();
-			}
-		}
-	}
-	
-	
-	/**
-	 * Test the equal method.
-	 */
-	@Test
-	public void testEqualWorlds() {
-		world.random(DEFAULT_PROBABILITY);
-		
-		World anotherWorld = new World(world);
-		assertTrue(world.equals(anotherWorld));
-		
-		try {
-			world.toggleStateofCell(1, 1);
-			world.toggleStateofCell(1, 2);
-		} catch (NoCellAtThisPositionException e) {
-			fail();
-		}
-		
-		assertFalse(world.equals(anotherWorld));
-	}
-
-}
+package de.andreasbreer.gameoflife.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.andreasbreer.gameoflife.exception.NoCellAtThisPositionException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the world class.
+ * @author Andreas Breer
+ *
+ */
+public class WorldTest extends TestCase {
+	
+	/**
+	 * The default value for the world width.
+	 */
+	private final static int DEFAULT_WORLD_WIDTH = 3;
+	
+	/**
+	 * The default value for the world height.
+	 */
+	private final static int DEFAULT_WORLD_HEIGHT = 3;
+	
+	/**
+	 * The default value for probability of living cells.
+	 */
+	private final static int DEFAULT_PROBABILITY = 30;
+	
+	/**
+	 * The world object to test.
+	 */
+	private World world;
+	
+	/**
+	 * Set up the world to test.
+	 */
+	@Before
+	public void setUp() {
+		world = new World(DEFAULT_WORLD_WIDTH, DEFAULT_WORLD_HEIGHT);
+	}
+	
+	/**
+	 * Test the game rules with all engines.
+	 */
+	@Test
+	public void testGameRules() {
+		for (EngineType engineType : EngineType.values()) {
+			world.setEngineType(engineType);
+			checkGameRules();
+		}
+	}
+	
+	/**
+	 * Check the game rules.
+	 */
+	private void checkGameRules() {
+		for (int i = 0; i <= 8; i++) {
+			try {
+				world.clear();
+				world.toggleStateofCell(1, 1);
+				switch (i) {
+					case 8: world.toggleStateofCell(0, 0); // Fall through
+					case 7: world.toggleStateofCell(0, 1); // Fall through
+					case 6: world.toggleStateofCell(0, 2); // Fall through
+					case 5: world.toggleStateofCell(1, 0); // Fall through
+					case 4: world.toggleStateofCell(1, 2); // Fall through
+					case 3: world.toggleStateofCell(2, 0); // Fall through
+					case 2: world.toggleStateofCell(2, 1); // Fall through
+					case 1: world.toggleStateofCell(2, 2); // Fall through
+				}
+				
+				world.nextGeneration();
+				switch (i) {
+					case 8: // Fall through
+					case 7: // Fall through
+					case 6: // Fall through
+					case 5: // Fall through
+					case 4: assertFalse(world.isCellAlive(1, 1)); break; // Fall through
+					case 3: assertTrue(world.isCellAlive(1, 1)); break;
+					case 2: assertTrue(world.isCellAlive(1, 1)); break;
+					case 1: // Fall through
+					case 0: assertFalse(world.isCellAlive(1, 1));
+				}	
+			} catch (NoCellAtThisPositionException e) {
+				fail();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Test the equal method.
+	 */
+	@Test
+	public void testEqualWorlds() {
+		world.random(DEFAULT_PROBABILITY);
+		
+		World anotherWorld = new World(world);
+		assertTrue(world.equals(anotherWorld));
+		
+		try {
+			world.toggleStateofCell(1, 1);
+			world.toggleStateofCell(1, 2);
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		
+		assertFalse(world.equals(anotherWorld));
+	}
+	
+	/**
+	 * Test the bitwise calculation against a cell by cell calculation, on a
+	 * world whose width is not a multiple of the word size.
+	 */
+	@Test
+	public void testNextGenerationOfLargeWorld() {
+		world = new World(131, 37);
+		world.random(DEFAULT_PROBABILITY);
+		
+		try {
+			for (int generation = 0; generation < 20; generation++) {
+				boolean[][] expected = calculateNextGeneration(world, "3", "23");
+				world.nextGeneration();
+				for (int y = 0; y < world.getHeight(); y++) {
+					for (int x = 0; x < world.getWidth(); x++) {
+						assertEquals(expected[x][y], world.isCellAlive(x, y));
+					}
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that the parallel calculation in bands of rows gives the same
+	 * generations as the sequential calculation.
+	 */
+	@Test
+	public void testParallelNextGeneration() {
+		world = new World(200, 150);
+		world.random(DEFAULT_PROBABILITY);
+		World parallelWorld = new World(world);
+		parallelWorld.setParallelism(4);
+		
+		for (int generation = 0; generation < 20; generation++) {
+			world.nextGeneration();
+			parallelWorld.nextGeneration();
+			assertEquals(world, parallelWorld);
+		}
+		parallelWorld.setParallelism(1);
+	}
+	
+	/**
+	 * Test that all engines calculate the same generations, also after a cell
+	 * is toggled between two generations.
+	 */
+	@Test
+	public void testEngines() {
+		world = new World(701, 101);
+		world.random(DEFAULT_PROBABILITY);
+		
+		for (EngineType engineType : EngineType.values()) {
+			World expectedWorld = new World(world);
+			World engineWorld = new World(world);
+			engineWorld.setEngineType(engineType);
+			
+			try {
+				for (int generation = 0; generation < 50; generation++) {
+					if (generation == 25) {
+						expectedWorld.toggleStateofCell(350, 50);
+						engineWorld.toggleStateofCell(350, 50);
+					}
+					expectedWorld.nextGeneration();
+					engineWorld.nextGeneration();
+					assertEquals(engineType.toString(), expectedWorld, engineWorld);
+				}
+			} catch (NoCellAtThisPositionException e) {
+				fail();
+			}
+		}
+	}
+	
+	/**
+	 * Test that all engines calculate the generations of other rules like
+	 * a cell by cell calculation.
+	 */
+	@Test
+	public void testRules() {
+		String[][] rules = { { "3", "23" }, { "36", "23" }, { "2", "" },
+				{ "0", "8" } };
+		for (String[] counts : rules) {
+			Rule rule = Rule.parse("B" + counts[0] + "/S" + counts[1]);
+			assertEquals("B" + counts[0] + "/S" + counts[1], rule.toString());
+			assertEquals(rule, Rule.parse(("s" + counts[1] + "/b" + counts[0])));
+			
+			for (EngineType engineType : EngineType.values()) {
+				world = new World(517, 67);
+				world.random(DEFAULT_PROBABILITY);
+				world.setEngineType(engineType);
+				world.setRule(rule);
+				try {
+					for (int generation = 0; generation < 10; generation++) {
+						boolean[][] expected =
+								calculateNextGeneration(world, counts[0], counts[1]);
+						world.nextGeneration();
+						for (int y = 0; y < world.getHeight(); y++) {
+							for (int x = 0; x < world.getWidth(); x++) {
+								assertEquals(rule + " " + engineType,
+										expected[x][y], world.isCellAlive(x, y));
+							}
+						}
+					}
+				} catch (NoCellAtThisPositionException e) {
+					fail();
+				}
+			}
+		}
+		assertSame(Rule.CONWAY, Rule.parse("B3/S23"));
+		try {
+			Rule.parse("B9/S23");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Test that the generated kernels calculate like the mask of their rule
+	 * and are generated only once per rule.
+	 */
+	@Test
+	public void testRuleKernels() {
+		Random random = new Random(7);
+		for (String notation : new String[] { "B36/S23", "B0/S8", "B2/S",
+				"B012345678/S012345678" }) {
+			Rule rule = Rule.parse(notation);
+			RuleKernel kernel = rule.getKernel();
+			assertSame(kernel, Rule.parse(notation).getKernel());
+			assertTrue(kernel.getClass().isHidden());
+			for (int i = 0; i < 1000; i++) {
+				long cells = random.nextLong();
+				long sum1 = random.nextLong();
+				long sum2 = random.nextLong();
+				long sum4 = random.nextLong() & ~(sum1 | sum2);
+				long sum8 = random.nextLong() & ~(sum1 | sum2 | sum4);
+				assertEquals(notation,
+						rule.nextGeneration(cells, sum1, sum2, sum4, sum8),
+						kernel.nextGeneration(cells, sum1, sum2, sum4, sum8));
+			}
+		}
+	}
+	
+	/**
+	 * Test that the engines which remember the cells calculate the right
+	 * generations after cells were toggled between the generations.
+	 */
+	@Test
+	public void testToggleBetweenGenerations() {
+		world = new World(100, 70);
+		world.random(DEFAULT_PROBABILITY, 5);
+		
+		try {
+			for (EngineType engineType : new EngineType[] {
+					EngineType.ACTIVE_SET, EngineType.TILED }) {
+				World expected = new World(world);
+				World other = new World(world);
+				other.setEngineType(engineType);
+				for (int generation = 0; generation < 30; generation++) {
+					if (generation % 3 == 1) {
+						int x = (generation * 37) % 100;
+						int y = (generation * 11) % 70;
+						expected.toggleStateofCell(x, y);
+						other.toggleStateofCell(x, y);
+						expected.toggleStateofCell(0, y);
+						other.toggleStateofCell(0, y);
+					}
+					expected.nextGeneration();
+					other.nextGeneration();
+					assertEquals(expected, other);
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that the hash and the population which are collected while the
+	 * world is filled match the cells, with one thread and with several.
+	 */
+	@Test
+	public void testFillHash() {
+		for (int parallelism = 1; parallelism <= 3; parallelism += 2) {
+			world = new World(200, 150);
+			world.setParallelism(parallelism);
+			world.random(DEFAULT_PROBABILITY, 17);
+			world.random(DEFAULT_PROBABILITY, 18);
+			assertEquals(Zobrist.of(world.copyOfCells()),
+					world.getFingerprint());
+			assertEquals(BitRows.population(world.copyOfCells()),
+					world.getStatistics().getPopulation());
+			
+			World other = new World(200, 150);
+			other.random(DEFAULT_PROBABILITY, 19);
+			world.setCells(other.copyOfCells());
+			assertEquals(other.getFingerprint(), world.getFingerprint());
+			assertEquals(other.getStatistics().getPopulation(),
+					world.getStatistics().getPopulation());
+			
+			world.setGlider();
+			assertEquals(Zobrist.of(world.copyOfCells()),
+					world.getFingerprint());
+			assertEquals(5, world.getStatistics().getPopulation());
+		}
+	}
+	
+	/**
+	 * Test that the incrementally updated hash matches the hash of the
+	 * cells with all engines, and that equal worlds have equal hashes.
+	 */
+	@Test
+	public void testZobristHash() {
+		world = new World(100, 70);
+		world.random(DEFAULT_PROBABILITY);
+		World start = new World(world);
+		
+		try {
+			for (EngineType engineType : EngineType.values()) {
+				World other = new World(start);
+				other.setEngineType(engineType);
+				for (int generation = 0; generation < 20; generation++) {
+					other.nextGeneration();
+					assertEquals(Zobrist.of(other.copyOfCells()),
+							other.getFingerprint());
+				}
+				other.toggleStateofCell(5, 7);
+				other.toggleStateofCell(99, 69);
+				assertEquals(Zobrist.of(other.copyOfCells()),
+						other.getFingerprint());
+				
+				World expected = new World(start);
+				for (int generation = 0; generation < 20; generation++) {
+					expected.nextGeneration();
+				}
+				expected.toggleStateofCell(5, 7);
+				expected.toggleStateofCell(99, 69);
+				assertEquals(expected, other);
+				assertEquals(expected.hashCode(), other.hashCode());
+				
+				other.toggleStateofCell(0, 0);
+				assertFalse(expected.equals(other));
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test the population, births and deaths counted during the generations
+	 * with all engines.
+	 */
+	@Test
+	public void testStatistics() {
+		world = new World(100, 70);
+		world.random(DEFAULT_PROBABILITY);
+		World start = new World(world);
+		
+		for (EngineType engineType : EngineType.values()) {
+			World other = new World(start);
+			other.setEngineType(engineType);
+			other.setParallelism(3);
+			for (int generation = 1; generation <= 20; generation++) {
+				long[][] before = other.copyOfCells();
+				other.nextGeneration();
+				long[][] after = other.copyOfCells();
+				
+				long births = 0;
+				long deaths = 0;
+				for (int y = 0; y < before.length; y++) {
+					for (int i = 0; i < before[y].length; i++) {
+						births += Long.bitCount(~before[y][i] & after[y][i]);
+						deaths += Long.bitCount(before[y][i] & ~after[y][i]);
+					}
+				}
+				
+				PopulationStatistics statistics = other.getStatistics();
+				assertEquals(generation, statistics.getGeneration());
+				assertEquals(BitRows.population(after),
+						statistics.getPopulation());
+				assertEquals(births, statistics.getBirths());
+				assertEquals(deaths, statistics.getDeaths());
+			}
+		}
+		
+		try {
+			world.clear();
+			world.toggleStateofCell(3, 4);
+			world.toggleStateofCell(5, 6);
+			world.toggleStateofCell(3, 4);
+			assertEquals(1, world.getStatistics().getPopulation());
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+	}
+	
+	/**
+	 * Test that the same seed fills the same world with any number of
+	 * threads, and that the probability is kept.
+	 */
+	@Test
+	public void testRandomSeed() {
+		World sequential = new World(517, 300);
+		sequential.random(30, 42L);
+		World parallel = new World(517, 300);
+		parallel.setParallelism(4);
+		parallel.random(30, 42L);
+		assertEquals(sequential, parallel);
+		
+		parallel.random(30, 43L);
+		assertFalse(sequential.equals(parallel));
+		
+		double population = sequential.getStatistics().getPopulation();
+		assertEquals(0.3, population / (517 * 300), 0.01);
+		
+		sequential.random(0, 42L);
+		assertEquals(0, sequential.getStatistics().getPopulation());
+		sequential.random(100, 42L);
+		assertEquals(517 * 300, sequential.getStatistics().getPopulation());
+		parallel.setParallelism(1);
+	}
+	
+	/**
+	 * Test the topologies with all engines against a calculation cell by
+	 * cell, also in worlds whose halo fills a word of its own and in
+	 * degenerated worlds, and with cells on the edges toggled between the
+	 * generations.
+	 */
+	@Test
+	public void testTopologies() {
+		int[][] dimensions = { { 131, 37 }, { 64, 20 }, { 63, 5 }, { 1, 1 },
+				{ 3, 2 } };
+		for (Topology topology : Topology.values()) {
+			for (EngineType engineType : EngineType.values()) {
+				for (int[] dimension : dimensions) {
+					int width = dimension[0];
+					int height = dimension[1];
+					world = new World(width, height);
+					world.random(DEFAULT_PROBABILITY, 7L);
+					world.setTopology(topology);
+					world.setEngineType(engineType);
+					String message = topology + " " + engineType + " " + width
+							+ "x" + height;
+					try {
+						for (int generation = 0; generation < 12; generation++) {
+							if (generation % 4 == 3) {
+								world.toggleStateofCell(width - 1, generation
+										% height);
+								world.toggleStateofCell(0, height - 1);
+							}
+							boolean[][] expected =
+									calculateNextGeneration(world, topology);
+							world.nextGeneration();
+							for (int y = 0; y < height; y++) {
+								for (int x = 0; x < width; x++) {
+									assertEquals(message, expected[x][y],
+											world.isCellAlive(x, y));
+								}
+							}
+						}
+					} catch (NoCellAtThisPositionException e) {
+						fail();
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Test that the temporal blocking calculates the same generations, also
+	 * in a world lower than the halo and with several threads.
+	 */
+	@Test
+	public void testTemporalBlocking() {
+		int[][] dimensions = { { 300, 150 }, { 100, 5 } };
+		for (int[] dimension : dimensions) {
+			for (int parallelism = 1; parallelism <= 3; parallelism += 2) {
+				World expected = new World(dimension[0], dimension[1]);
+				expected.random(DEFAULT_PROBABILITY, 5L);
+				world = new World(expected);
+				world.setParallelism(parallelism);
+				world.setTemporalBlocking(4, 16);
+				
+				for (int step = 0; step < 5; step++) {
+					world.nextGeneration();
+				}
+				expected.advance(20);
+				assertEquals(20, world.getGeneration());
+				assertEquals(expected, world);
+				
+				assertEquals(10, world.advance(10));
+				expected.advance(10);
+				assertEquals(30, world.getGeneration());
+				assertEquals(expected, world);
+				world.setParallelism(1);
+			}
+		}
+	}
+	
+	/**
+	 * Test that a snapshot shows the latest generation and is not changed
+	 * by later generations until it is released.
+	 */
+	@Test
+	public void testSnapshots() {
+		world = new World(100, 70);
+		world.random(DEFAULT_PROBABILITY);
+		Snapshot snapshot = world.getSnapshot();
+		World expected = new World(world);
+		
+		try {
+			for (int generation = 0; generation < 10; generation++) {
+				world.nextGeneration();
+				Snapshot latest = world.getSnapshot();
+				for (int y = 0; y < world.getHeight(); y++) {
+					for (int x = 0; x < world.getWidth(); x++) {
+						assertEquals(world.isCellAlive(x, y),
+								latest.isCellAlive(x, y));
+						assertEquals(expected.isCellAlive(x, y),
+								snapshot.isCellAlive(x, y));
+					}
+				}
+				latest.release();
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		snapshot.release();
+	}
+	
+	/**
+	 * Test that releasing a snapshot twice does not release the buffer for
+	 * another reader of the same generation.
+	 */
+	@Test
+	public void testSnapshotReleasedTwice() {
+		world = new World(100, 70);
+		world.random(DEFAULT_PROBABILITY, 3L);
+		Snapshot first = world.getSnapshot();
+		Snapshot second = world.getSnapshot();
+		World expected = new World(world);
+		first.release();
+		first.release();
+		assertTrue(first.isReleased());
+		assertFalse(second.isReleased());
+		
+		try {
+			for (int generation = 0; generation < 10; generation++) {
+				world.nextGeneration();
+				Snapshot latest = world.getSnapshot();
+				assertEquals(generation + 1, latest.getGeneration());
+				latest.release();
+				latest.release();
+			}
+			assertEquals(0, second.getGeneration());
+			for (int y = 0; y < world.getHeight(); y++) {
+				for (int x = 0; x < world.getWidth(); x++) {
+					assertEquals(expected.isCellAlive(x, y),
+							second.isCellAlive(x, y));
+				}
+			}
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		second.release();
+	}
+	
+	/**
+	 * Test that an advance calculates the same generations as single steps,
+	 * notifies the observers once and can be cancelled.
+	 */
+	@Test
+	public void testAdvance() {
+		world = new World(120, 80);
+		world.random(DEFAULT_PROBABILITY);
+		World expected = new World(world);
+		for (int generation = 0; generation < 50; generation++) {
+			expected.nextGeneration();
+		}
+		
+		final int[] notifications = new int[1];
+		world.addObserver(new Observer() {
+			public void update(Observable o, Object arg) {
+				notifications[0]++;
+			}
+		});
+		assertEquals(50, world.advance(50));
+		assertEquals(expected, world);
+		assertEquals(50, world.getGeneration());
+		assertEquals(1, notifications[0]);
+		
+		long advanced = world.advance(1000, new ProgressListener() {
+			public void generationCalculated(long done, long total) {
+				if (done == 10) {
+					world.cancelAdvance();
+				}
+			}
+		});
+		assertEquals(10, advanced);
+		assertEquals(60, world.getGeneration());
+		assertEquals(60, world.getSnapshot().getGeneration());
+	}
+	
+	/**
+	 * Test that the tiled engine skips the tiles around a blinker once it is
+	 * settled.
+	 */
+	@Test
+	public void testTileStatistics() {
+		world = new World(256, 128);
+		world.setEngineType(EngineType.TILED);
+		try {
+			world.toggleStateofCell(100, 40);
+			world.toggleStateofCell(100, 41);
+			world.toggleStateofCell(100, 42);
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		
+		world.nextGeneration();
+		assertEquals(16, world.getTileStatistics().getComputedTiles());
+		world.nextGeneration();
+		world.nextGeneration();
+		world.nextGeneration();
+		TileStatistics statistics = world.getTileStatistics();
+		assertEquals(0, statistics.getComputedTiles());
+		assertEquals(16, statistics.getSkippedTiles());
+		assertTrue(statistics.getPeriodTwoTiles() > 0);
+	}
+	
+	/**
+	 * Test that a pattern is loaded into the middle of the world with one
+	 * notification, starting again at generation 0.
+	 */
+	@Test
+	public void testLoadCells() throws IOException {
+		File file = File.createTempFile("blinker", ".cells");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-8");
+		try {
+			writer.write("!Name: Blinker\nOOO\n");
+		} finally {
+			writer.close();
+		}
+		
+		world = new World(9, 5);
+		world.random(DEFAULT_PROBABILITY);
+		world.nextGeneration();
+		final int[] notifications = new int[1];
+		world.addObserver(new Observer() {
+			public void update(Observable o, Object arg) {
+				notifications[0]++;
+			}
+		});
+		PlaintextPattern pattern = new PlaintextPattern(file);
+		assertEquals(3, pattern.getWidth());
+		assertEquals(1, pattern.getHeight());
+		world.loadCells(pattern.toRows(9, 5));
+		assertEquals(1, notifications[0]);
+		assertEquals(0, world.getGeneration());
+		assertEquals(3, world.getStatistics().getPopulation());
+		try {
+			assertTrue(world.isCellAlive(3, 2));
+			assertTrue(world.isCellAlive(4, 2));
+			assertTrue(world.isCellAlive(5, 2));
+		} catch (NoCellAtThisPositionException e) {
+			fail();
+		}
+		
+		try {
+			pattern.toRows(2, 5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			world.loadCells(pattern.toRows(9, 4));
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Calculate the next generation of a world cell by cell.
+	 * @param world
+	 * 			the world
+	 * @param birth
+	 * 			the counts which awake a dead cell
+	 * @param survival
+	 * 			the counts which let a living cell survive
+	 * @return the states of the next generation
+	 * @throws NoCellAtThisPositionException
+	 */
+	private static boolean[][] calculateNextGeneration(World world,
+			String birth, String survival) throws NoCellAtThisPositionException {
+		int width = world.getWidth();
+		int height = world.getHeight();
+		boolean[][] next = new boolean[width][height];
+		
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int count = 0;
+				for (int j = -1; j <= 1; j++) {
+					for (int i = -1; i <= 1; i++) {
+						if ((i != 0 || j != 0) && world.isCellAlive(
+								(x + i + width) % width, (y + j + height) % height)) {
+							count++;
+						}
+					}
+				}
+				String counts = world.isCellAlive(x, y) ? survival : birth;
+				next[x][y] = counts.indexOf('0' + count) >= 0;
+			}
+		}
+		return next;
+	}
+	
+	/**
+	 * Calculate the next generation of Conway's Game of Life cell by cell
+	 * with the given topology.
+	 * @param world
+	 *            the world
+	 * @param topology
+	 *            the way the edges are joined
+	 * @return the next states, indexed by x and y
+	 * @throws NoCellAtThisPositionException
+	 */
+	private static boolean[][] calculateNextGeneration(World world,
+			Topology topology) throws NoCellAtThisPositionException {
+		int width = world.getWidth();
+		int height = world.getHeight();
+		boolean[][] next = new boolean[width][height];
+		
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int count = 0;
+				for (int j = -1; j <= 1; j++) {
+					for (int i = -1; i <= 1; i++) {
+						int cellX = x + i;
+						int cellY = y + j;
+						if (topology == Topology.DEAD_BORDER
+								&& (cellX < 0 || cellX >= width || cellY < 0
+										|| cellY >= height)) {
+							continue;
+						}
+						cellX = (cellX + width) % width;
+						if (topology == Topology.KLEIN_BOTTLE
+								&& (cellY < 0 || cellY >= height)) {
+							cellX = width - 1 - cellX;
+						}
+						cellY = (cellY + height) % height;
+						if ((i != 0 || j != 0)
+								&& world.isCellAlive(cellX, cellY)) {
+							count++;
+						}
+					}
+				}
+				next[x][y] = (count == 3)
+						|| (count == 2 && world.isCellAlive(x, y));
+			}
+		}
+		return next;
+	}
+
+}